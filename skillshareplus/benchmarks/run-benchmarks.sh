@@ -0,0 +1,7 @@
+#!/bin/sh
+# Builds the application jar and runs every benchmark; results land in benchmarks/target/jmh-result.json.
+# Arguments are passed to JMH, e.g. ./benchmarks/run-benchmarks.sh -f 1 -wi 2 -i 3 Jwt
+set -e
+cd "$(dirname "$0")/.."
+./mvnw -B -q install -DskipTests
+./mvnw -B -f benchmarks/pom.xml verify -Djmh.args="$*"
@@ -0,0 +1,159 @@
+package com.example.skillshareplus.benchmarks;
+
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.LearningTask;
+import com.example.skillshareplus.model.PlanStatus;
+import com.example.skillshareplus.model.Post;
+import com.example.skillshareplus.model.Resource;
+import com.example.skillshareplus.model.ResourceType;
+import com.example.skillshareplus.model.Role;
+import com.example.skillshareplus.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Realistic entities for the benchmarks, built from a fixed seed so every run measures the same payloads.
+ */
+final class Fixtures {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final String[] WORDS = {
+            "spring", "mongo", "index", "query", "learning", "plan", "module", "task", "resource", "practice",
+            "review", "notes", "video", "article", "exercise", "project", "deploy", "test", "design", "refactor"
+    };
+
+    private Fixtures() {
+    }
+
+    static Post post(Random random, int likes, int comments) {
+        Post post = new Post();
+        post.setId(id(random));
+        post.setUserId(userId(random.nextInt(100_000)));
+        post.setUsername("author" + random.nextInt(100_000));
+        post.setMainDescription(sentence(random, 40));
+        post.setCreatedAt(EPOCH.plusMinutes(random.nextInt(500_000)));
+        post.setUpdatedAt(post.getCreatedAt().plusMinutes(random.nextInt(600)));
+
+        List<Post.Media> media = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Post.MediaType type = i == 2 ? Post.MediaType.VIDEO : Post.MediaType.PHOTO;
+            String publicId = "skillshare/" + id(random);
+            media.add(new Post.Media("https://res.cloudinary.com/demo/image/upload/v1/" + publicId, type, publicId));
+        }
+        post.setMediaItems(media);
+
+        List<String> likedBy = new ArrayList<>();
+        for (int i = 0; i < likes; i++) {
+            likedBy.add(userId(random.nextInt(100_000)));
+        }
+        post.setLikedByUserIds(likedBy);
+
+        List<Post.Comment> commentList = new ArrayList<>();
+        for (int i = 0; i < comments; i++) {
+            int commenter = random.nextInt(100_000);
+            commentList.add(new Post.Comment(id(random), userId(commenter), "user" + commenter,
+                    sentence(random, 5 + random.nextInt(30)), post.getCreatedAt().plusMinutes(i + 1)));
+        }
+        post.setComments(commentList);
+        return post;
+    }
+
+    static User user(Random random, int follows) {
+        Set<String> following = new HashSet<>();
+        Set<String> followers = new HashSet<>();
+        for (int i = 0; i < follows; i++) {
+            following.add(userId(random.nextInt(100_000)));
+            followers.add(userId(random.nextInt(100_000)));
+        }
+        int n = random.nextInt(100_000);
+        return User.builder()
+                .id(userId(n))
+                .email("user" + n + "@example.com")
+                .password("$2a$10$" + id(random) + id(random))
+                .firstName("First" + n)
+                .lastName("Last" + n)
+                .roles(new HashSet<>(Set.of(Role.ROLE_USER)))
+                .following(following)
+                .followers(followers)
+                .followingCount(following.size())
+                .followerCount(followers.size())
+                .createdAt(EPOCH.plusDays(random.nextInt(365)))
+                .updatedAt(EPOCH.plusDays(365 + random.nextInt(30)))
+                .build();
+    }
+
+    static LearningPlan plan(Random random, int modules, int tasksPerModule, int resourcesPerTask) {
+        LearningPlan plan = new LearningPlan();
+        plan.setId(id(random));
+        plan.setVersion(7L);
+        plan.setTitle("Plan " + sentence(random, 4));
+        plan.setDescription(sentence(random, 60));
+        plan.setUserId(userId(random.nextInt(100_000)));
+        plan.setCreatedAt(EPOCH);
+        plan.setUpdatedAt(EPOCH.plusDays(3));
+        plan.setStatus(PlanStatus.IN_PROGRESS);
+
+        List<LearningModule> moduleList = new ArrayList<>();
+        for (int m = 0; m < modules; m++) {
+            LearningModule module = new LearningModule();
+            module.setId(id(random));
+            module.setTitle("Module " + (m + 1) + ": " + sentence(random, 3));
+            module.setDescription(sentence(random, 25));
+            module.setEstimatedHours(2 + random.nextInt(10));
+
+            List<LearningTask> tasks = new ArrayList<>();
+            for (int t = 0; t < tasksPerModule; t++) {
+                LearningTask task = new LearningTask();
+                task.setId(id(random));
+                task.setTitle(sentence(random, 5));
+                task.setDescription(sentence(random, 20));
+                task.setEstimatedMinutes(15 + random.nextInt(120));
+                if (random.nextInt(3) == 0) {
+                    task.setCompletedAt(EPOCH.plusHours(random.nextInt(72)));
+                }
+
+                List<Resource> resources = new ArrayList<>();
+                for (int r = 0; r < resourcesPerTask; r++) {
+                    Resource resource = new Resource();
+                    resource.setId(id(random));
+                    resource.setTitle(sentence(random, 4));
+                    resource.setUrl("https://example.com/" + id(random));
+                    resource.setType(ResourceType.values()[random.nextInt(ResourceType.values().length)]);
+                    resource.setNotes(sentence(random, 10));
+                    resources.add(resource);
+                }
+                task.setResources(resources);
+                tasks.add(task);
+            }
+            module.setTasks(tasks);
+            moduleList.add(module);
+        }
+        plan.setModules(moduleList);
+        return plan;
+    }
+
+    static String userId(int n) {
+        return String.format("%024x", n);
+    }
+
+    private static String id(Random random) {
+        return String.format("%08x%016x", random.nextInt(), random.nextLong());
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
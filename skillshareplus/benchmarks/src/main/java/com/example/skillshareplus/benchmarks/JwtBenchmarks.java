@@ -0,0 +1,65 @@
+package com.example.skillshareplus.benchmarks;
+
+import com.example.skillshareplus.security.jwt.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token signing at login and the checks AuthTokenFilter runs on every authenticated request,
+ * using the same secret length and expiry as application.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtBenchmarks {
+
+    private static final String SECRET = "YourVeryLongAndSecureSecretKeyHereThatShouldBeAtLeast256BitsLong";
+    private static final int EXPIRATION_MS = 86_400_000;
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtils = new JwtUtils();
+        set("jwtSecret", SECRET);
+        set("jwtExpirationMs", EXPIRATION_MS);
+        token = jwtUtils.generateTokenFromUsername("benchmark.user@example.com");
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtils.generateTokenFromUsername("benchmark.user@example.com");
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    // What AuthTokenFilter does per request: validate, then parse again for the subject
+    @Benchmark
+    public String authenticateRequest() {
+        return jwtUtils.validateJwtToken(token) ? jwtUtils.getUsernameFromJwtToken(token) : null;
+    }
+
+    private void set(String field, Object value) throws ReflectiveOperationException {
+        Field declared = JwtUtils.class.getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(jwtUtils, value);
+    }
+}
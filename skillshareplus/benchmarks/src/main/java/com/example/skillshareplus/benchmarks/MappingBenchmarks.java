@@ -0,0 +1,121 @@
+package com.example.skillshareplus.benchmarks;
+
+import com.example.skillshareplus.dto.response.LearningPlanResponse;
+import com.example.skillshareplus.dto.response.PostResponse;
+import com.example.skillshareplus.dto.response.UserResponse;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.Post;
+import com.example.skillshareplus.model.User;
+import com.example.skillshareplus.security.services.LearningPlanMapper;
+import com.example.skillshareplus.security.services.TemplateResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entity to response mappers that run on every read: a single post, a feed page of posts,
+ * a user profile seen by another user, and a full learning plan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MappingBenchmarks {
+
+    static final int FEED_PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class Posts {
+        @Param({"10", "1000"})
+        int likes;
+
+        @Param({"5", "200"})
+        int comments;
+
+        Post post;
+        List<Post> feed;
+        // Not among the likers, so the liked-by check scans the whole list
+        String viewerId = Fixtures.userId(1_000_000);
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            post = Fixtures.post(random, likes, comments);
+            feed = new ArrayList<>();
+            for (int i = 0; i < FEED_PAGE_SIZE; i++) {
+                feed.add(Fixtures.post(random, likes, comments));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Profiles {
+        User profile;
+        User viewer;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            profile = Fixtures.user(random, 1000);
+            viewer = Fixtures.user(random, 1000);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Plans {
+        LearningPlan plan;
+        LearningPlanMapper mapper;
+
+        @Setup
+        public void setUp() {
+            plan = Fixtures.plan(new Random(42), 50, 8, 2);
+            mapper = planMapper();
+        }
+    }
+
+    @Benchmark
+    public PostResponse postFromEntity(Posts posts) {
+        return PostResponse.fromEntity(posts.post, posts.viewerId);
+    }
+
+    @Benchmark
+    public List<PostResponse> feedPageFromEntities(Posts posts) {
+        List<PostResponse> page = new ArrayList<>(posts.feed.size());
+        for (Post feedPost : posts.feed) {
+            page.add(PostResponse.fromEntity(feedPost, posts.viewerId));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public UserResponse userFromUser(Profiles profiles) {
+        return UserResponse.fromUser(profiles.profile, profiles.viewer);
+    }
+
+    @Benchmark
+    public LearningPlanResponse planToResponse(Plans plans) {
+        return plans.mapper.toResponse(plans.plan);
+    }
+
+    /**
+     * Plans without a template id never reach the resolver's repository or cache
+     */
+    static LearningPlanMapper planMapper() {
+        return new LearningPlanMapper(new TemplateResolver(null, new SimpleMeterRegistry()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.skillshareplus.benchmarks;
+
+import com.example.skillshareplus.dto.response.LearningPlanResponse;
+import com.example.skillshareplus.dto.response.PagedPostsResponse;
+import com.example.skillshareplus.dto.response.PostResponse;
+import com.example.skillshareplus.dto.response.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding of the responses the controllers return, with an ObjectMapper configured the way
+ * Spring Boot configures the application's (Java time module, ISO dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmarks {
+
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    @State(Scope.Benchmark)
+    public static class Posts {
+        @Param({"10", "1000"})
+        int likes;
+
+        @Param({"5", "200"})
+        int comments;
+
+        PostResponse post;
+        PagedPostsResponse feedPage;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            String viewerId = Fixtures.userId(1_000_000);
+            post = PostResponse.fromEntity(Fixtures.post(random, likes, comments), viewerId);
+            post.setAuthor(UserResponse.fromUser(Fixtures.user(random, 10), null));
+
+            List<PostResponse> page = new ArrayList<>();
+            for (int i = 0; i < MappingBenchmarks.FEED_PAGE_SIZE; i++) {
+                page.add(PostResponse.fromEntity(Fixtures.post(random, likes, comments), viewerId));
+            }
+            feedPage = new PagedPostsResponse(page, 0, 50, 1000, true, false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Plans {
+        LearningPlanResponse plan;
+
+        @Setup
+        public void setUp() {
+            plan = MappingBenchmarks.planMapper().toResponse(Fixtures.plan(new Random(42), 50, 8, 2));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Profiles {
+        UserResponse profile;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            profile = UserResponse.fromUser(Fixtures.user(random, 1000), Fixtures.user(random, 1000));
+        }
+    }
+
+    @Benchmark
+    public byte[] post(Posts posts) throws Exception {
+        return MAPPER.writeValueAsBytes(posts.post);
+    }
+
+    @Benchmark
+    public byte[] feedPage(Posts posts) throws Exception {
+        return MAPPER.writeValueAsBytes(posts.feedPage);
+    }
+
+    @Benchmark
+    public byte[] plan(Plans plans) throws Exception {
+        return MAPPER.writeValueAsBytes(plans.plan);
+    }
+
+    @Benchmark
+    public byte[] userProfile(Profiles profiles) throws Exception {
+        return MAPPER.writeValueAsBytes(profiles.profile);
+    }
+}
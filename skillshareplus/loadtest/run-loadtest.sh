@@ -0,0 +1,7 @@
+#!/bin/sh
+# Builds the application jar and runs the load test; the report lands in loadtest/target/loadtest-report.json.
+# Arguments are Spring properties, e.g. ./loadtest/run-loadtest.sh --loadtest.pool.browsers=200 --loadtest.duration=2m
+set -e
+cd "$(dirname "$0")/.."
+./mvnw -B -q install -DskipTests
+./mvnw -B -f loadtest/pom.xml verify -Dloadtest.args="$*"
@@ -0,0 +1,100 @@
+package com.example.skillshareplus.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every request latency per endpoint once the warmup is over, so percentiles in the report are
+ * exact rather than estimated from buckets. A few minutes of traffic is a few million longs at most.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+    private final long recordFromNanos;
+
+    LatencyRecorder(long recordFromNanos) {
+        this.recordFromNanos = recordFromNanos;
+    }
+
+    /**
+     * Record one request
+     * @param endpoint Method and path template, e.g. "GET /api/posts/{id}"
+     * @param startNanos System.nanoTime() when the request was sent
+     * @param endNanos System.nanoTime() when the response body was read
+     * @param ok Whether the request succeeded
+     */
+    void record(String endpoint, long startNanos, long endNanos, boolean ok) {
+        if (startNanos < recordFromNanos) {
+            return;
+        }
+        endpoints.computeIfAbsent(endpoint, key -> new Samples()).add(endNanos - startNanos, ok);
+    }
+
+    /**
+     * Summarise what was recorded
+     * @param seconds Length of the measured window, for throughput
+     * @return One row per endpoint by request count, followed by an "all" row
+     */
+    List<EndpointStats> summarise(double seconds) {
+        List<EndpointStats> rows = new ArrayList<>();
+        Samples all = new Samples();
+        endpoints.forEach((endpoint, samples) -> {
+            rows.add(samples.stats(endpoint, seconds));
+            all.addAll(samples);
+        });
+        rows.sort(Comparator.comparingLong(EndpointStats::requests).reversed());
+        rows.add(all.stats("all", seconds));
+        return rows;
+    }
+
+    record EndpointStats(String endpoint, long requests, long errors, double throughput,
+                         double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long latencyNanos, boolean ok) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized void addAll(Samples other) {
+            synchronized (other) {
+                if (size + other.size > nanos.length) {
+                    nanos = Arrays.copyOf(nanos, Math.max(size + other.size, nanos.length * 2));
+                }
+                System.arraycopy(other.nanos, 0, nanos, size, other.size);
+                size += other.size;
+                errors += other.errors;
+            }
+        }
+
+        synchronized EndpointStats stats(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new EndpointStats(endpoint, size, errors, size / seconds,
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.95), percentileMs(sorted, 0.99),
+                    size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.skillshareplus.loadtest;
+
+import com.example.skillshareplus.security.services.CloudinaryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * Beans that replace external services while the application runs under the load test.
+ */
+@Configuration
+@Profile(LoadTestRunner.PROFILE)
+public class LoadTestConfig {
+
+    @Bean
+    @Primary
+    public CloudinaryService stubMediaStore(MeterRegistry meterRegistry,
+                                            @Value("${loadtest.media.latency:50ms}") Duration latency) {
+        return new StubMediaStore(meterRegistry, latency);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.skillshareplus.loadtest;
+
+import com.example.skillshareplus.SkillshareplusApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application against an in-memory MongoDB server with the media store stubbed out, seeds it,
+ * drives the virtual-user pools and reports throughput and latency percentiles per endpoint.
+ * Arguments are Spring properties, e.g. --loadtest.pool.browsers=200 --loadtest.duration=5m.
+ */
+public class LoadTestRunner {
+
+    static final String PROFILE = "loadtest";
+
+    public static void main(String[] args) throws Exception {
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+
+        // Command line arguments take precedence over the application's own spring.data.mongodb.uri
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add(0, "--spring.data.mongodb.uri=mongodb://" + address.getHostString() + ":" + address.getPort() + "/skillshare");
+
+        SpringApplication application = new SpringApplication(SkillshareplusApplication.class);
+        application.setAdditionalProfiles(PROFILE);
+
+        boolean anySucceeded;
+        try (ConfigurableApplicationContext context = application.run(arguments.toArray(String[]::new))) {
+            LoadTestSettings settings = context.getBean(LoadTestSettings.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            long seedStart = System.currentTimeMillis();
+            List<Seeder.Account> accounts = context.getBean(Seeder.class).seed();
+            System.out.printf("seeded %d users, %d posts, %d plans in %d ms%n",
+                    Math.max(settings.seedUsers, settings.virtualUsers()), settings.seedPosts, accounts.size(),
+                    System.currentTimeMillis() - seedStart);
+            System.out.printf("virtual users %s, warmup %s, measuring %s%n", settings.pools(), settings.warmup, settings.duration);
+
+            Instant startedAt = Instant.now();
+            LatencyRecorder recorder = new TrafficDriver(URI.create("http://localhost:" + port), settings, accounts, objectMapper).run();
+            List<LatencyRecorder.EndpointStats> rows = recorder.summarise(settings.duration.toMillis() / 1000.0);
+
+            print(rows);
+            write(Path.of(settings.report), objectMapper, startedAt, settings, rows);
+            LatencyRecorder.EndpointStats all = rows.get(rows.size() - 1);
+            anySucceeded = all.requests() > all.errors();
+        } finally {
+            mongoServer.shutdownNow();
+        }
+        System.exit(anySucceeded ? 0 : 1);
+    }
+
+    private static void print(List<LatencyRecorder.EndpointStats> rows) {
+        System.out.printf("%-40s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (LatencyRecorder.EndpointStats row : rows) {
+            System.out.printf("%-40s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.endpoint(), row.requests(), row.errors(), row.throughput(),
+                    row.p50Ms(), row.p95Ms(), row.p99Ms(), row.maxMs());
+        }
+    }
+
+    private static void write(Path report, ObjectMapper objectMapper, Instant startedAt, LoadTestSettings settings,
+                              List<LatencyRecorder.EndpointStats> rows) throws IOException {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("startedAt", startedAt.toString());
+        document.put("warmupSeconds", settings.warmup.toSeconds());
+        document.put("durationSeconds", settings.duration.toSeconds());
+        document.put("thinkTimeMs", settings.thinkTime.toMillis());
+        document.put("pools", settings.pools());
+        document.put("endpoints", rows);
+
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), document);
+        System.out.printf("report written to %s%n", report.toAbsolutePath());
+    }
+}
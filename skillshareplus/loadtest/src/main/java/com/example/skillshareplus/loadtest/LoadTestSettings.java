@@ -0,0 +1,79 @@
+package com.example.skillshareplus.loadtest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The loadtest.* properties, see application-loadtest.properties for what each one means.
+ */
+@Component
+@Profile(LoadTestRunner.PROFILE)
+class LoadTestSettings {
+
+    @Value("${loadtest.pool.browsers:60}")
+    int browsers;
+
+    @Value("${loadtest.pool.social:30}")
+    int social;
+
+    @Value("${loadtest.pool.learners:10}")
+    int learners;
+
+    @Value("${loadtest.think-time:200ms}")
+    Duration thinkTime;
+
+    @Value("${loadtest.warmup:15s}")
+    Duration warmup;
+
+    @Value("${loadtest.duration:60s}")
+    Duration duration;
+
+    @Value("${loadtest.feed-pages:5}")
+    int feedPages;
+
+    @Value("${loadtest.feed-page-size:10}")
+    int feedPageSize;
+
+    @Value("${loadtest.seed.users:2000}")
+    int seedUsers;
+
+    @Value("${loadtest.seed.posts:5000}")
+    int seedPosts;
+
+    @Value("${loadtest.seed.follows-per-user:20}")
+    int followsPerUser;
+
+    @Value("${loadtest.seed.plan-modules:10}")
+    int planModules;
+
+    @Value("${loadtest.seed.plan-tasks-per-module:10}")
+    int planTasksPerModule;
+
+    @Value("${loadtest.report:target/loadtest-report.json}")
+    String report;
+
+    int poolSize(Pool pool) {
+        return switch (pool) {
+            case BROWSERS -> browsers;
+            case SOCIAL -> social;
+            case LEARNERS -> learners;
+        };
+    }
+
+    int virtualUsers() {
+        return browsers + social + learners;
+    }
+
+    Map<String, Integer> pools() {
+        Map<String, Integer> pools = new LinkedHashMap<>();
+        for (Pool pool : Pool.values()) {
+            pools.put(pool.label(), poolSize(pool));
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.skillshareplus.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The kinds of virtual user; each pool repeats its own session script, see VirtualUser.
+ */
+enum Pool {
+    // Log in and scroll the feed, opening the odd post
+    BROWSERS,
+    // Log in, skim the feed, like, comment, follow an author and now and then share a post
+    SOCIAL,
+    // Log in, open their learning plan and complete a few tasks
+    LEARNERS;
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
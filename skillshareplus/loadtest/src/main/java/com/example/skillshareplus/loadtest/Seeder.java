@@ -0,0 +1,202 @@
+package com.example.skillshareplus.loadtest;
+
+import com.example.skillshareplus.dto.request.LearningModuleRequest;
+import com.example.skillshareplus.dto.request.LearningPlanRequest;
+import com.example.skillshareplus.dto.request.LearningTaskRequest;
+import com.example.skillshareplus.dto.request.ResourceRequest;
+import com.example.skillshareplus.model.Post;
+import com.example.skillshareplus.model.ResourceType;
+import com.example.skillshareplus.model.Role;
+import com.example.skillshareplus.model.User;
+import com.example.skillshareplus.repository.PostRepository;
+import com.example.skillshareplus.repository.UserRepository;
+import com.example.skillshareplus.security.services.LearningPlanService;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fills the empty store with users, a follow graph, posts with likes and comments, and one learning
+ * plan per virtual user. Users and posts are written through the repositories; plans go through
+ * LearningPlanService so their counters and change log are set up the way the API would.
+ */
+@Component
+@Profile(LoadTestRunner.PROFILE)
+class Seeder {
+
+    static final String PASSWORD = "LoadTest@123";
+    private static final int BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final LearningPlanService learningPlanService;
+    private final PasswordEncoder passwordEncoder;
+    private final LoadTestSettings settings;
+    private final Random random = new Random(42);
+
+    Seeder(UserRepository userRepository, PostRepository postRepository, LearningPlanService learningPlanService,
+           PasswordEncoder passwordEncoder, LoadTestSettings settings) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.learningPlanService = learningPlanService;
+        this.passwordEncoder = passwordEncoder;
+        this.settings = settings;
+    }
+
+    /**
+     * A seeded account for one virtual user
+     */
+    record Account(String userId, String email, String planId) {
+    }
+
+    /**
+     * Seed the store
+     * @return One account per virtual user, in pool order
+     */
+    List<Account> seed() {
+        List<User> users = seedUsers(Math.max(settings.seedUsers, settings.virtualUsers()));
+        seedPosts(users);
+
+        List<Account> accounts = new ArrayList<>();
+        for (User user : users.subList(0, settings.virtualUsers())) {
+            accounts.add(new Account(user.getId(), user.getEmail(), seedPlan(user)));
+        }
+        return accounts;
+    }
+
+    private List<User> seedUsers(int count) {
+        // BCrypt is deliberately slow; every account shares one hash so seeding stays quick
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .id(new ObjectId().toHexString())
+                    .email("loadtest-" + i + "@example.com")
+                    .password(passwordHash)
+                    .firstName("Load")
+                    .lastName("Tester " + i)
+                    .roles(new HashSet<>(Set.of(Role.ROLE_USER)))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        for (User user : users) {
+            for (int i = 0; i < settings.followsPerUser && count > 1; i++) {
+                User target = users.get(random.nextInt(count));
+                if (target != user) {
+                    user.addFollowing(target.getId());
+                    target.addFollower(user.getId());
+                }
+            }
+        }
+        for (int from = 0; from < count; from += BATCH_SIZE) {
+            userRepository.saveAll(users.subList(from, Math.min(count, from + BATCH_SIZE)));
+        }
+        return users;
+    }
+
+    private void seedPosts(List<User> users) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Post> batch = new ArrayList<>();
+        for (int i = 0; i < settings.seedPosts; i++) {
+            User author = users.get(random.nextInt(users.size()));
+            Post post = new Post();
+            post.setUserId(author.getId());
+            post.setUsername(author.getUsername());
+            post.setMainDescription("Load test post " + i + ": what I practised today");
+            post.setCreatedAt(now.minusMinutes(random.nextInt(30 * 24 * 60)));
+            post.setUpdatedAt(post.getCreatedAt());
+
+            List<Post.Media> media = new ArrayList<>();
+            for (int m = 0; m < 3; m++) {
+                String publicId = "skillshare_posts/seed-" + i + "-" + m;
+                media.add(new Post.Media("https://media.invalid/image/upload/" + publicId, Post.MediaType.PHOTO, publicId));
+            }
+            post.setMediaItems(media);
+
+            List<String> likedBy = new ArrayList<>();
+            int likes = random.nextInt(51);
+            for (int l = 0; l < likes; l++) {
+                String liker = users.get(random.nextInt(users.size())).getId();
+                if (!likedBy.contains(liker)) {
+                    likedBy.add(liker);
+                }
+            }
+            post.setLikedByUserIds(likedBy);
+
+            List<Post.Comment> comments = new ArrayList<>();
+            int commentCount = random.nextInt(11);
+            for (int c = 0; c < commentCount; c++) {
+                User commenter = users.get(random.nextInt(users.size()));
+                comments.add(new Post.Comment(UUID.randomUUID().toString(), commenter.getId(), commenter.getUsername(),
+                        "Nice work, comment " + c, post.getCreatedAt().plusMinutes(c + 1)));
+            }
+            post.setComments(comments);
+
+            batch.add(post);
+            if (batch.size() == BATCH_SIZE) {
+                postRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            postRepository.saveAll(batch);
+        }
+    }
+
+    private String seedPlan(User user) {
+        LearningPlanRequest request = new LearningPlanRequest();
+        request.setTitle("Load test plan");
+        request.setDescription("Seeded for the load test");
+        request.setCategory("Programming");
+
+        List<LearningModuleRequest> modules = new ArrayList<>();
+        for (int m = 0; m < settings.planModules; m++) {
+            LearningModuleRequest module = new LearningModuleRequest();
+            module.setTitle("Module " + (m + 1));
+            module.setDescription("Seeded module");
+            module.setEstimatedHours(settings.planTasksPerModule / 2);
+
+            List<LearningTaskRequest> tasks = new ArrayList<>();
+            for (int t = 0; t < settings.planTasksPerModule; t++) {
+                LearningTaskRequest task = new LearningTaskRequest();
+                task.setTitle("Task " + (t + 1));
+                task.setDescription("Seeded task");
+                task.setEstimatedMinutes(30);
+
+                ResourceRequest resource = new ResourceRequest();
+                resource.setTitle("Reading");
+                resource.setUrl("https://example.com/resource/" + m + "/" + t);
+                resource.setType(ResourceType.ARTICLE);
+                task.setResources(new ArrayList<>(List.of(resource)));
+                tasks.add(task);
+            }
+            module.setTasks(tasks);
+            modules.add(module);
+        }
+        request.setModules(modules);
+        request.setEstimatedHours(settings.planModules * settings.planTasksPerModule / 2);
+
+        // The service reads the owner from the security context, as it would for an API call
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        try {
+            return learningPlanService.createLearningPlan(request).getId();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.skillshareplus.loadtest;
+
+import com.example.skillshareplus.model.Post;
+import com.example.skillshareplus.security.services.CloudinaryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Stands in for Cloudinary: uploads are answered with a made-up URL after a fixed delay, deletes do nothing.
+ */
+class StubMediaStore extends CloudinaryService {
+
+    private final Duration latency;
+
+    StubMediaStore(MeterRegistry meterRegistry, Duration latency) {
+        super(null, meterRegistry);
+        this.latency = latency;
+    }
+
+    @Override
+    public Post.Media uploadFile(MultipartFile file, boolean isVideo) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+        pause();
+        String publicId = "skillshare_posts/" + UUID.randomUUID();
+        String resourceType = isVideo ? "video" : "image";
+        return new Post.Media("https://media.invalid/" + resourceType + "/upload/" + publicId,
+                isVideo ? Post.MediaType.VIDEO : Post.MediaType.PHOTO, publicId);
+    }
+
+    @Override
+    public void deleteFile(String publicId, boolean isVideo) throws IOException {
+        pause();
+    }
+
+    private void pause() throws IOException {
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while storing media", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.skillshareplus.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs every virtual user on its own thread for the warmup plus the measured duration.
+ */
+class TrafficDriver {
+
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final List<Seeder.Account> accounts;
+    private final ObjectMapper objectMapper;
+
+    TrafficDriver(URI baseUri, LoadTestSettings settings, List<Seeder.Account> accounts, ObjectMapper objectMapper) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.accounts = accounts;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Drive traffic until the run is over
+     * @return The latencies recorded after the warmup
+     */
+    LatencyRecorder run() throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        long startNanos = System.nanoTime();
+        long recordFromNanos = startNanos + settings.warmup.toNanos();
+        long endNanos = recordFromNanos + settings.duration.toNanos();
+        LatencyRecorder recorder = new LatencyRecorder(recordFromNanos);
+
+        List<Thread> threads = new ArrayList<>();
+        int index = 0;
+        for (Pool pool : Pool.values()) {
+            for (int i = 0; i < settings.poolSize(pool); i++, index++) {
+                VirtualUser user = new VirtualUser(pool, index, accounts.get(index), settings, http, objectMapper,
+                        baseUri, recorder, startNanos, endNanos);
+                Thread thread = new Thread(user, "vu-" + pool.label() + "-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return recorder;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.skillshareplus.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * One simulated client: logs in as its own account and repeats its pool's session script until the run
+ * ends, pausing for the think time between requests. Every request is timed from send until the whole
+ * body has arrived.
+ */
+class VirtualUser implements Runnable {
+
+    // Every this many sessions a social user also shares a post with three images
+    private static final int POST_EVERY_SESSIONS = 10;
+    private static final byte[] IMAGE = new byte[64 * 1024];
+
+    private final Pool pool;
+    private final Seeder.Account account;
+    private final LoadTestSettings settings;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final LatencyRecorder recorder;
+    private final long startNanos;
+    private final long endNanos;
+    private final Random random;
+
+    private String token;
+    private int sessions;
+
+    VirtualUser(Pool pool, int index, Seeder.Account account, LoadTestSettings settings, HttpClient http,
+                ObjectMapper objectMapper, URI baseUri, LatencyRecorder recorder, long startNanos, long endNanos) {
+        this.pool = pool;
+        this.account = account;
+        this.settings = settings;
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.baseUri = baseUri;
+        this.recorder = recorder;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+        this.random = new Random(index);
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Users arrive spread over the first half of the warmup rather than all at once
+            sleepNanos(startNanos - System.nanoTime() + (long) (random.nextDouble() * settings.warmup.toNanos() / 2));
+            while (System.nanoTime() < endNanos) {
+                session();
+                sessions++;
+            }
+        } catch (TimeUp e) {
+            // The run is over, possibly mid-session
+        }
+    }
+
+    private void session() {
+        token = null;
+        JsonNode login = send("POST /api/auth/login", json(HttpRequest.newBuilder(uri("/api/auth/login")),
+                "POST", Map.of("email", account.email(), "password", Seeder.PASSWORD)));
+        think();
+        if (login == null) {
+            return;
+        }
+        token = login.path("token").asText();
+
+        switch (pool) {
+            case BROWSERS -> browse();
+            case SOCIAL -> socialise();
+            case LEARNERS -> learn();
+        }
+    }
+
+    private void browse() {
+        List<JsonNode> seen = new ArrayList<>();
+        for (int page = 0; page < settings.feedPages; page++) {
+            seen.addAll(feedPage(page));
+        }
+        if (!seen.isEmpty()) {
+            String postId = pick(seen).path("id").asText();
+            send("GET /api/posts/{id}", authorised(HttpRequest.newBuilder(uri("/api/posts/" + postId)).GET()));
+            think();
+        }
+    }
+
+    private void socialise() {
+        List<JsonNode> seen = new ArrayList<>(feedPage(0));
+        seen.addAll(feedPage(1));
+        if (seen.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < 2; i++) {
+            String postId = pick(seen).path("id").asText();
+            send("POST /api/posts/{id}/like", authorised(HttpRequest.newBuilder(uri("/api/posts/" + postId + "/like"))
+                    .POST(HttpRequest.BodyPublishers.noBody())));
+            think();
+        }
+
+        JsonNode commented = pick(seen);
+        send("POST /api/posts/{id}/comments", json(HttpRequest.newBuilder(uri("/api/posts/" + commented.path("id").asText() + "/comments")),
+                "POST", Map.of("content", "Great progress, session " + sessions)));
+        think();
+
+        String authorId = commented.path("userId").asText();
+        if (!authorId.isEmpty() && !authorId.equals(account.userId())) {
+            send("POST /api/users/follow", json(HttpRequest.newBuilder(uri("/api/users/follow")),
+                    "POST", Map.of("userId", authorId)));
+            think();
+        }
+
+        if (sessions % POST_EVERY_SESSIONS == POST_EVERY_SESSIONS - 1) {
+            sharePost();
+        }
+    }
+
+    private void learn() {
+        String planPath = "/api/learning-plans/" + account.planId();
+        JsonNode plan = send("GET /api/learning-plans/{id}", authorised(HttpRequest.newBuilder(uri(planPath)).GET()));
+        think();
+        if (plan == null) {
+            return;
+        }
+
+        // Complete the next few open tasks; once the plan is done the updates are idempotent repeats
+        List<Map<String, String>> open = new ArrayList<>();
+        List<Map<String, String>> all = new ArrayList<>();
+        for (JsonNode module : plan.path("modules")) {
+            for (JsonNode task : module.path("tasks")) {
+                Map<String, String> progress = Map.of("moduleId", module.path("id").asText(), "taskId", task.path("id").asText());
+                all.add(progress);
+                if (task.path("completedAt").isNull() || task.path("completedAt").isMissingNode()) {
+                    open.add(progress);
+                }
+            }
+        }
+        List<Map<String, String>> updates = open.isEmpty() ? all : open;
+        for (int i = 0; i < 3 && i < updates.size(); i++) {
+            send("PUT /api/learning-plans/{id}/progress", json(HttpRequest.newBuilder(uri(planPath + "/progress")),
+                    "PUT", updates.get(open.isEmpty() ? random.nextInt(all.size()) : i)));
+            think();
+        }
+
+        feedPage(0);
+    }
+
+    private List<JsonNode> feedPage(int page) {
+        JsonNode feed = send("GET /api/posts", authorised(HttpRequest.newBuilder(
+                uri("/api/posts?page=" + page + "&size=" + settings.feedPageSize)).GET()));
+        think();
+        List<JsonNode> posts = new ArrayList<>();
+        if (feed != null) {
+            feed.path("posts").forEach(posts::add);
+        }
+        return posts;
+    }
+
+    private void sharePost() {
+        String boundary = UUID.randomUUID().toString();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writePart(body, boundary, "Content-Disposition: form-data; name=\"description\"\r\n\r\n",
+                ("Shared during load test session " + sessions).getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 3; i++) {
+            writePart(body, boundary, "Content-Disposition: form-data; name=\"files\"; filename=\"photo" + i + ".jpg\"\r\n"
+                    + "Content-Type: image/jpeg\r\n\r\n", IMAGE);
+        }
+        body.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        send("POST /api/posts", authorised(HttpRequest.newBuilder(uri("/api/posts"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))));
+        think();
+    }
+
+    private static void writePart(ByteArrayOutputStream body, String boundary, String headers, byte[] content) {
+        body.writeBytes(("--" + boundary + "\r\n" + headers).getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Send a request and record its latency
+     * @param endpoint Label the latency is recorded under
+     * @param request The request to send
+     * @return The parsed response body, or null if the request failed
+     */
+    private JsonNode send(String endpoint, HttpRequest.Builder request) {
+        request.header("Accept", "application/json").header("Accept-Encoding", "gzip");
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = http.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            byte[] body;
+            try (InputStream in = response.headers().firstValue("Content-Encoding").orElse("").equals("gzip")
+                    ? new GZIPInputStream(response.body()) : response.body()) {
+                body = in.readAllBytes();
+            }
+            boolean ok = response.statusCode() < 400;
+            recorder.record(endpoint, start, System.nanoTime(), ok);
+            return ok && body.length > 0 ? objectMapper.readTree(body) : null;
+        } catch (IOException e) {
+            recorder.record(endpoint, start, System.nanoTime(), false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeUp();
+        }
+    }
+
+    private HttpRequest.Builder authorised(HttpRequest.Builder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder request, String method, Object body) {
+        try {
+            if (token != null) {
+                authorised(request);
+            }
+            return request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode request body", e);
+        }
+    }
+
+    private URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+
+    private <T> T pick(List<T> items) {
+        return items.get(random.nextInt(items.size()));
+    }
+
+    private void think() {
+        sleepNanos((long) (settings.thinkTime.toNanos() * (0.5 + random.nextDouble())));
+        if (System.nanoTime() >= endNanos) {
+            throw new TimeUp();
+        }
+    }
+
+    private void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeUp();
+        }
+    }
+
+    private static final class TimeUp extends RuntimeException {
+        TimeUp() {
+            super(null, null, false, false);
+        }
+    }
+}
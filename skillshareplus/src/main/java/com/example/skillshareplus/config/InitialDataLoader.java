@@ -3,6 +3,7 @@ package com.example.skillshareplus.config;
 import com.example.skillshareplus.model.User;
 import com.example.skillshareplus.model.Role;
 import com.example.skillshareplus.repository.UserRepository;
+import com.example.skillshareplus.security.services.TemplateSeeder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
@@ -17,6 +18,7 @@ public class InitialDataLoader implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TemplateSeeder templateSeeder;
 
     @Value("${app.init.admin.email}")
     private String adminEmail;
@@ -38,5 +40,8 @@ public class InitialDataLoader implements CommandLineRunner {
             userRepository.save(admin);
             System.out.println("Admin user created with email: " + adminEmail);
         }
+
+        // Insert or update the curated templates shipped with this version
+        templateSeeder.seed();
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.skillshareplus.config;
+
+import com.example.skillshareplus.security.services.QueryProfiler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoProfilingConfig {
+
+    // Every command of the application's Mongo client passes through the query profiler
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryProfilerCustomizer(QueryProfiler queryProfiler) {
+        return builder -> builder.addCommandListener(queryProfiler);
+    }
+}
@@ -119,6 +119,8 @@ public class SecurityConfig {
             .authorizeRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll() // Permit access to authentication endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN") // Only allow admin access to admin endpoints
+                .requestMatchers("/actuator/health").permitAll() // Liveness checks run without a token
+                .requestMatchers("/actuator/**").hasRole("ADMIN") // Metrics are for admins only
                 .anyRequest().authenticated() // All other requests need authentication
             );
 
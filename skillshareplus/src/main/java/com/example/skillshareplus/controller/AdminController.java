@@ -0,0 +1,111 @@
+package com.example.skillshareplus.controller;
+
+import com.example.skillshareplus.dto.response.MessageResponse;
+import com.example.skillshareplus.dto.response.PlanImportResponse;
+import com.example.skillshareplus.dto.response.QueryShapeResponse;
+import com.example.skillshareplus.model.ReconciliationCheckpoint;
+import com.example.skillshareplus.security.services.FollowGraphReconciler;
+import com.example.skillshareplus.security.services.PlanTransferService;
+import com.example.skillshareplus.security.services.QueryProfiler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Admin-only maintenance endpoints. Access is restricted to ROLE_ADMIN by the
+ * /api/admin/** rule in SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final FollowGraphReconciler followGraphReconciler;
+    private final PlanTransferService planTransferService;
+    private final QueryProfiler queryProfiler;
+
+    /**
+     * Start or resume the follow graph reconciliation job
+     * @param restart Discard the previous checkpoint and scan from the beginning
+     * @return The checkpoint the job starts from
+     */
+    @PostMapping("/reconcile/follow-graph")
+    public ResponseEntity<?> startFollowGraphReconciliation(
+            @RequestParam(defaultValue = "false") boolean restart) {
+        try {
+            ReconciliationCheckpoint checkpoint = followGraphReconciler.start(restart);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(checkpoint);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get progress and repair counts of the follow graph reconciliation job
+     * @return The latest checkpoint
+     */
+    @GetMapping("/reconcile/follow-graph")
+    public ResponseEntity<?> getFollowGraphReconciliation() {
+        return followGraphReconciler.status()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stop the follow graph reconciliation job after its current batch
+     * @return Confirmation message
+     */
+    @PostMapping("/reconcile/follow-graph/stop")
+    public ResponseEntity<?> stopFollowGraphReconciliation() {
+        followGraphReconciler.stop();
+        return ResponseEntity.ok(new MessageResponse("Stop requested"));
+    }
+
+    /**
+     * Export learning plans of every user, or of one user, as NDJSON including each plan's owner
+     * @param userId Only export this user's plans
+     * @return The plans as a downloadable NDJSON stream
+     */
+    @GetMapping(value = "/learning-plans/export", produces = PlanTransferService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportLearningPlans(@RequestParam(required = false) String userId) {
+        StreamingResponseBody body = out -> planTransferService.exportPlans(userId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"learning-plans.ndjson\"")
+                .contentType(MediaType.parseMediaType(PlanTransferService.NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Import learning plans from an NDJSON admin export; each plan keeps the owner on its line
+     * @param body The NDJSON request body
+     * @return How many plans were imported and the errors of the failed lines
+     */
+    @PostMapping(value = "/learning-plans/import", consumes = {PlanTransferService.NDJSON, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<PlanImportResponse> importLearningPlans(InputStream body) throws IOException {
+        return ResponseEntity.ok(planTransferService.importPlans(body, null));
+    }
+
+    /**
+     * Mongo query shapes profiled since startup, worst first, with the winning plan of the
+     * latest explain for shapes that ran slow
+     * @param sort total, p99, max or count
+     * @param limit Maximum number of shapes
+     * @return The top offenders
+     */
+    @GetMapping("/query-profile")
+    public ResponseEntity<List<QueryShapeResponse>> getQueryProfile(
+            @RequestParam(defaultValue = "total") String sort,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(queryProfiler.topShapes(sort, limit));
+    }
+}
@@ -8,6 +8,7 @@ import com.example.skillshareplus.model.Role;
 import com.example.skillshareplus.model.User;
 import com.example.skillshareplus.repository.UserRepository;
 import com.example.skillshareplus.security.jwt.JwtUtils;
+import com.example.skillshareplus.security.services.UserSearchIndex;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -35,6 +36,7 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final UserSearchIndex userSearchIndex;
 
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
@@ -74,7 +76,8 @@ public class AuthController {
                 .roles(Set.of(Role.ROLE_USER))
                 .build();
 
-        userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userSearchIndex.index(savedUser);
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
@@ -1,13 +1,39 @@
 package com.example.skillshareplus.controller;
 
+import com.example.skillshareplus.dto.request.LearningPlanPatchRequest;
 import com.example.skillshareplus.dto.request.LearningPlanRequest;
 import com.example.skillshareplus.dto.request.LearningPlanProgressRequest;
+import com.example.skillshareplus.dto.request.ProgressSyncRequest;
+import com.example.skillshareplus.dto.response.LeaderboardResponse;
+import com.example.skillshareplus.dto.response.LearningPlanPatchResponse;
+import com.example.skillshareplus.dto.response.LearningPlanProgressResponse;
 import com.example.skillshareplus.dto.response.LearningPlanResponse;
+import com.example.skillshareplus.dto.response.LearningPlanSummaryResponse;
+import com.example.skillshareplus.dto.response.LearningStatsResponse;
+import com.example.skillshareplus.dto.response.PlanChangesResponse;
+import com.example.skillshareplus.dto.response.PlanImportResponse;
+import com.example.skillshareplus.dto.response.ProgressSyncResponse;
+import com.example.skillshareplus.dto.response.TemplateResponse;
+import com.example.skillshareplus.dto.response.TemplateSearchResponse;
+import com.example.skillshareplus.model.User;
+import com.example.skillshareplus.security.services.LeaderboardService;
 import com.example.skillshareplus.security.services.LearningPlanService;
+import com.example.skillshareplus.security.services.PlanTransferService;
+import com.example.skillshareplus.security.services.ProgressSyncService;
+import com.example.skillshareplus.security.services.TemplateCatalogService;
+import com.example.skillshareplus.security.services.TemplateSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -20,6 +46,18 @@ import java.util.List;
 public class LearningPlanController {
     @Autowired
     private LearningPlanService learningPlanService;
+
+    @Autowired
+    private ProgressSyncService progressSyncService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private TemplateSearchIndex templateSearchIndex;
+
+    @Autowired
+    private PlanTransferService planTransferService;
     
     /**
      * Creates a new learning plan for the authenticated user.
@@ -32,6 +70,119 @@ public class LearningPlanController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Retrieves the catalog of learning plan templates.
+     * The catalog is served from an in-memory snapshot and carries an ETag, so clients
+     * that send If-None-Match with the current ETag get 304 Not Modified without a body.
+     * @param request Checked against the ETag; handles lists of tags, weak tags and *
+     * @return The list of templates, or 304 if unchanged
+     */
+    @GetMapping("/templates")
+    public ResponseEntity<List<TemplateResponse>> getTemplates(WebRequest request) {
+        TemplateCatalogService.Snapshot catalog = learningPlanService.getTemplates();
+        if (request.checkNotModified(catalog.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.getEtag()).build();
+        }
+        return ResponseEntity.ok().eTag(catalog.getEtag()).body(catalog.getTemplates());
+    }
+    
+    /**
+     * Searches templates by relevance over their titles, descriptions, module and task titles,
+     * with facet counts by category, resource type and estimated hours for the matches.
+     * @param query Free-text query; omit to browse the catalog with filters only
+     * @param category Only templates in this category
+     * @param resourceType Only templates using this resource type
+     * @param hours Only templates in this estimated-hours range, as returned in the facets
+     * @param page Zero-based page number
+     * @param size Page size
+     * @return The page of matching templates and the facets of all matches
+     */
+    @GetMapping("/templates/search")
+    public ResponseEntity<TemplateSearchResponse> searchTemplates(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String resourceType,
+            @RequestParam(required = false) String hours,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        TemplateSearchResponse response = templateSearchIndex.search(query, category, resourceType, hours, page, size);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Creates a learning plan for the authenticated user from a template.
+     * The plan references the template instead of copying it; only the user's
+     * progress and changes are stored with the plan.
+     * @param templateId The unique identifier of the template
+     * @return The created learning plan, resolved against the template
+     */
+    @PostMapping("/from-template/{templateId}")
+    public ResponseEntity<LearningPlanResponse> createPlanFromTemplate(@PathVariable String templateId) {
+        LearningPlanResponse response = learningPlanService.createPlanFromTemplate(templateId);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Exports all of the authenticated user's learning plans as NDJSON, one plan per line.
+     * Plans are streamed from the database as they are read, so the export never has to
+     * fit in memory.
+     * @param currentUser The authenticated user
+     * @return The plans as a downloadable NDJSON stream
+     */
+    @GetMapping(value = "/export", produces = PlanTransferService.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportLearningPlans(@AuthenticationPrincipal User currentUser) {
+        String userId = currentUser.getId();
+        StreamingResponseBody body = out -> planTransferService.exportPlans(userId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"learning-plans.ndjson\"")
+                .contentType(MediaType.parseMediaType(PlanTransferService.NDJSON))
+                .body(body);
+    }
+    
+    /**
+     * Imports learning plans from an NDJSON upload in the export format, as new plans of
+     * the authenticated user. Lines that cannot be imported are skipped and reported.
+     * @param currentUser The authenticated user
+     * @param body The NDJSON request body
+     * @return How many plans were imported and the errors of the failed lines
+     */
+    @PostMapping(value = "/import", consumes = {PlanTransferService.NDJSON, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<PlanImportResponse> importLearningPlans(
+            @AuthenticationPrincipal User currentUser,
+            InputStream body) throws IOException {
+        PlanImportResponse response = planTransferService.importPlans(body, currentUser.getId());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Retrieves the authenticated user's learning statistics: totals, streaks,
+     * minutes per category and recent daily activity.
+     * @param days How many recent days to list individually
+     * @return The learner's statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<LearningStatsResponse> getStats(@RequestParam(defaultValue = "30") int days) {
+        LearningStatsResponse response = learningPlanService.getStats(days);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Retrieves the learners with the most completed hours, globally or within one category,
+     * together with the authenticated user's own rank.
+     * @param currentUser The authenticated user
+     * @param category The category to rank by; omit for the global leaderboard
+     * @param limit How many top learners to return
+     * @return The top learners and the user's position
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<LeaderboardResponse> getLeaderboard(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        LeaderboardResponse response = leaderboardService.getLeaderboard(category, currentUser.getId(), limit);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Retrieves a specific learning plan by its ID.
      * @param id The unique identifier of the learning plan
@@ -44,12 +195,28 @@ public class LearningPlanController {
     }
     
     /**
-     * Retrieves all learning plans for the authenticated user.
-     * @return List of learning plans associated with the current user
+     * Retrieves the changes made to a learning plan after a given version.
+     * Clients that get a 409 on update can catch up from here instead of refetching the plan.
+     * @param id The unique identifier of the learning plan
+     * @param since The last plan version the client has seen
+     * @return The current version and the changes after the given one, oldest first
+     */
+    @GetMapping("/{id}/changes")
+    public ResponseEntity<PlanChangesResponse> getChanges(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "-1") long since) {
+        PlanChangesResponse response = learningPlanService.getChangesSince(id, since);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Retrieves summaries of all learning plans for the authenticated user.
+     * The full module and task tree is only returned by {@link #getLearningPlanById(String)}.
+     * @return List of learning plan summaries associated with the current user
      */
     @GetMapping
-    public ResponseEntity<List<LearningPlanResponse>> getUserLearningPlans() {
-        List<LearningPlanResponse> responses = learningPlanService.getUserLearningPlans();
+    public ResponseEntity<List<LearningPlanSummaryResponse>> getUserLearningPlans() {
+        List<LearningPlanSummaryResponse> responses = learningPlanService.getUserLearningPlans();
         return ResponseEntity.ok(responses);
     }
     
@@ -89,24 +256,40 @@ public class LearningPlanController {
         return ResponseEntity.ok(responses);
     }
     
+    /**
+     * Applies progress recorded offline, across any number of the user's plans, in one call.
+     * Events carry idempotency keys, so a client can resend its whole queue after a failed sync.
+     * @param currentUser The authenticated user
+     * @param request The progress events
+     * @return The outcome of every event and the resulting progress of every affected plan
+     */
+    @PostMapping("/progress/sync")
+    public ResponseEntity<ProgressSyncResponse> syncProgress(
+            @AuthenticationPrincipal User currentUser,
+            @Valid @RequestBody ProgressSyncRequest request) {
+        ProgressSyncResponse response = progressSyncService.sync(currentUser.getId(), request);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Updates the progress of a specific learning plan.
      * @param id The unique identifier of the learning plan
      * @param request The progress update details
-     * @return The updated learning plan with new progress information
+     * @return The progress delta for the completed task, its module and the plan
      */
     @PutMapping("/{id}/progress")
-    public ResponseEntity<LearningPlanResponse> updateProgress(
+    public ResponseEntity<LearningPlanProgressResponse> updateProgress(
             @PathVariable String id,
             @Valid @RequestBody LearningPlanProgressRequest request) {
-        LearningPlanResponse response = learningPlanService.updateProgress(id, request);
+        LearningPlanProgressResponse response = learningPlanService.updateProgress(id, request);
         return ResponseEntity.ok(response);
     }
     
     /**
      * Updates an existing learning plan's details.
+     * Responds with 409 Conflict if the plan changed since the version in the request.
      * @param id The unique identifier of the learning plan
-     * @param request The updated learning plan details
+     * @param request The updated learning plan details and the version they were based on
      * @return The updated learning plan
      */
     @PutMapping("/{id}")
@@ -117,6 +300,21 @@ public class LearningPlanController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Restructures a learning plan with a diff of module, task and resource operations.
+     * Responds with 409 Conflict if the plan changed since the version in the request.
+     * @param id The unique identifier of the learning plan
+     * @param request The operations to apply, in order
+     * @return The new plan version and the IDs of added elements
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<LearningPlanPatchResponse> patchLearningPlan(
+            @PathVariable String id,
+            @Valid @RequestBody LearningPlanPatchRequest request) {
+        LearningPlanPatchResponse response = learningPlanService.patchLearningPlan(id, request);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Deletes a learning plan.
      * @param id The unique identifier of the learning plan to delete
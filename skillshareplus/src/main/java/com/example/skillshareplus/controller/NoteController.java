@@ -2,19 +2,21 @@ package com.example.skillshareplus.controller;
 
 import com.example.skillshareplus.dto.request.NoteRequest;
 import com.example.skillshareplus.dto.response.MessageResponse;
+import com.example.skillshareplus.dto.response.NotePageResponse;
 import com.example.skillshareplus.dto.response.NoteResponse;
 import com.example.skillshareplus.model.Note;
 import com.example.skillshareplus.model.Role;
 import com.example.skillshareplus.model.User;
 import com.example.skillshareplus.repository.NoteRepository;
+import com.example.skillshareplus.security.services.NoteSearchService;
+import com.example.skillshareplus.security.services.NoteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/notes")
@@ -22,31 +24,48 @@ import java.util.stream.Collectors;
 public class NoteController {
 
     private final NoteRepository noteRepository;
+    private final NoteService noteService;
+    private final NoteSearchService noteSearchService;
 
+    // One page of the user's notes, most recently updated first, with a content preview only;
+    // GET /api/notes/{id} returns the full content
     @GetMapping
-    public ResponseEntity<?> getAllNotes(@AuthenticationPrincipal User currentUser) {
-        List<NoteResponse> notes = noteRepository.findByUserId(currentUser.getId()).stream()
-                .map(note -> NoteResponse.builder()
-                        .id(note.getId())
-                        .title(note.getTitle())
-                        .content(note.getContent())
-                        .createdAt(note.getCreatedAt())
-                        .updatedAt(note.getUpdatedAt())
-                        .build())
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(notes);
+    public ResponseEntity<?> getAllNotes(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        NotePageResponse page = noteService.listNotes(currentUser.getId(), cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    // Notes created, updated or deleted since the nextToken of the previous sync; without a
+    // token every note is returned. An idle client's sync is one empty indexed query
+    @GetMapping("/changes")
+    public ResponseEntity<?> getNoteChanges(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(noteService.getChanges(currentUser.getId(), since, limit));
+    }
+
+    // Full-text search over the user's note titles and contents; "quoted words" match as a phrase
+    @GetMapping("/search")
+    public ResponseEntity<?> searchNotes(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(noteSearchService.search(currentUser.getId(), q, limit));
     }
 
     @GetMapping("/search/{id}")
     public ResponseEntity<?> searchNoteById(@PathVariable String id) {
-        Note note = noteRepository.findById(id)
+        Note note = noteRepository.findLiveById(id)
                 .orElseThrow(() -> new RuntimeException("Note not found"));
         
         NoteResponse noteResponse = NoteResponse.builder()
                 .id(note.getId())
                 .title(note.getTitle())
-                .content(note.getContent())
+                .content(noteService.contentOf(note))
                 .createdAt(note.getCreatedAt())
                 .updatedAt(note.getUpdatedAt())
                 .build();
@@ -56,13 +75,13 @@ public class NoteController {
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getNoteById(@PathVariable String id, @AuthenticationPrincipal User currentUser) {
-        Note note = noteRepository.findById(id)
+        Note note = noteRepository.findLiveById(id)
                 .orElseThrow(() -> new RuntimeException("Note not found"));
         
         NoteResponse noteResponse = NoteResponse.builder()
                 .id(note.getId())
                 .title(note.getTitle())
-                .content(note.getContent())
+                .content(noteService.contentOf(note))
                 .createdAt(note.getCreatedAt())
                 .updatedAt(note.getUpdatedAt())
                 .build();
@@ -77,13 +96,17 @@ public class NoteController {
             return ResponseEntity.status(403).body(new MessageResponse("Only admins can create notes"));
         }
 
+        LocalDateTime now = LocalDateTime.now();
         Note note = Note.builder()
                 .title(noteRequest.getTitle())
                 .content(noteRequest.getContent())
                 .userId(currentUser.getId())
+                .createdAt(now)
+                .updatedAt(now)
                 .build();
         
-        Note savedNote = noteRepository.save(note);
+        Note savedNote = noteService.save(note);
+        noteSearchService.index(savedNote);
         
         NoteResponse noteResponse = NoteResponse.builder()
                 .id(savedNote.getId())
@@ -102,7 +125,7 @@ public class NoteController {
             @Valid @RequestBody NoteRequest noteRequest, 
             @AuthenticationPrincipal User currentUser) {
         
-        Note note = noteRepository.findById(id)
+        Note note = noteRepository.findLiveById(id)
                 .orElseThrow(() -> new RuntimeException("Note not found"));
         
         // Check if the note belongs to the current user
@@ -112,8 +135,12 @@ public class NoteController {
         
         note.setTitle(noteRequest.getTitle());
         note.setContent(noteRequest.getContent());
+        note.setUpdatedAt(LocalDateTime.now());
         
-        Note updatedNote = noteRepository.save(note);
+        // Conditional on the note not having been deleted since it was read
+        Note updatedNote = noteService.update(note)
+                .orElseThrow(() -> new RuntimeException("Note not found"));
+        noteSearchService.index(updatedNote);
         
         NoteResponse noteResponse = NoteResponse.builder()
                 .id(updatedNote.getId())
@@ -128,7 +155,7 @@ public class NoteController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteNote(@PathVariable String id, @AuthenticationPrincipal User currentUser) {
-        Note note = noteRepository.findById(id)
+        Note note = noteRepository.findLiveById(id)
                 .orElseThrow(() -> new RuntimeException("Note not found"));
         
         // Check if the note belongs to the current user
@@ -136,7 +163,8 @@ public class NoteController {
             return ResponseEntity.status(403).body(new MessageResponse("You don't have permission to delete this note"));
         }
         
-        noteRepository.delete(note);
+        noteService.delete(note);
+        noteSearchService.remove(note.getId());
         
         return ResponseEntity.ok(new MessageResponse("Note deleted successfully"));
     }
@@ -1,12 +1,17 @@
 package com.example.skillshareplus.controller;
 
+import com.example.skillshareplus.dto.request.BulkFollowRequest;
 import com.example.skillshareplus.dto.request.FollowRequest;
 import com.example.skillshareplus.dto.request.UpdateProfileRequest;
 import com.example.skillshareplus.dto.response.UserResponse;
+import com.example.skillshareplus.dto.response.UserSummaryResponse;
 import com.example.skillshareplus.exception.ResourceNotFoundException;
 import com.example.skillshareplus.model.User;
 import com.example.skillshareplus.repository.UserRepository;
 import com.example.skillshareplus.security.services.FollowService;
+import com.example.skillshareplus.security.services.RelationshipHydrationService;
+import com.example.skillshareplus.security.services.UserSearchIndex;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -15,7 +20,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -25,6 +29,8 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final FollowService followService;
+    private final RelationshipHydrationService relationshipHydrationService;
+    private final UserSearchIndex userSearchIndex;
 
     // Get current user's profile
     @GetMapping("/profile")
@@ -36,15 +42,26 @@ public class UserController {
     @PutMapping("/profile")
     public ResponseEntity<?> updateUserProfile(
             @AuthenticationPrincipal User currentUser,
-            @RequestBody UpdateProfileRequest updateRequest) {
+            @Valid @RequestBody UpdateProfileRequest updateRequest) {
 
         currentUser.setFirstName(updateRequest.getFirstName());
         currentUser.setLastName(updateRequest.getLastName());
 
         User updatedUser = userRepository.save(currentUser);
+        userSearchIndex.index(updatedUser);
         return ResponseEntity.ok(UserResponse.fromUser(updatedUser, updatedUser));
     }
 
+    // Search the user directory by name or email prefix
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<UserSummaryResponse> results = userSearchIndex.search(query, limit);
+        return ResponseEntity.ok(results);
+    }
+
     // Follow a user
     @PostMapping("/follow")
     public ResponseEntity<?> followUser(
@@ -65,27 +82,43 @@ public class UserController {
         return ResponseEntity.ok(Map.of("message", "Successfully unfollowed user"));
     }
 
+    // Follow many users in one request
+    @PostMapping("/follow/bulk")
+    public ResponseEntity<?> bulkFollowUsers(
+            @AuthenticationPrincipal User currentUser,
+            @Valid @RequestBody BulkFollowRequest bulkFollowRequest) {
+
+        return ResponseEntity.ok(followService.bulkFollow(currentUser.getId(), bulkFollowRequest.getUserIds()));
+    }
+
+    // Unfollow many users in one request
+    @PostMapping("/unfollow/bulk")
+    public ResponseEntity<?> bulkUnfollowUsers(
+            @AuthenticationPrincipal User currentUser,
+            @Valid @RequestBody BulkFollowRequest bulkFollowRequest) {
+
+        return ResponseEntity.ok(followService.bulkUnfollow(currentUser.getId(), bulkFollowRequest.getUserIds()));
+    }
+
     // Get user profile by ID
     @GetMapping("/{userId}")
     public ResponseEntity<?> getUserById(
             @AuthenticationPrincipal User currentUser,
             @PathVariable String userId) {
 
-        return userRepository.findById(userId)
-                .map(user -> ResponseEntity.ok(UserResponse.fromUser(user, currentUser)))
+        return relationshipHydrationService.hydrate(currentUser.getId(), userId)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Get current user's followers
     @GetMapping("/followers")
     public ResponseEntity<?> getFollowers(@AuthenticationPrincipal User currentUser) {
-        User refreshedUser = userRepository.findById(currentUser.getId())
+        User refreshedUser = userRepository.findFollowersById(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        List<UserResponse> followers = userRepository.findAllById(refreshedUser.getFollowers())
-                .stream()
-                .map(user -> UserResponse.fromUser(user, refreshedUser))
-                .collect(Collectors.toList());
+        List<UserResponse> followers = relationshipHydrationService.hydrate(
+                currentUser.getId(), refreshedUser.getFollowers());
 
         return ResponseEntity.ok(followers);
     }
@@ -93,13 +126,11 @@ public class UserController {
     // Get current user's following
     @GetMapping("/following")
     public ResponseEntity<?> getFollowing(@AuthenticationPrincipal User currentUser) {
-        User refreshedUser = userRepository.findById(currentUser.getId())
+        User refreshedUser = userRepository.findFollowingById(currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        List<UserResponse> following = userRepository.findAllById(refreshedUser.getFollowing())
-                .stream()
-                .map(user -> UserResponse.fromUser(user, refreshedUser))
-                .collect(Collectors.toList());
+        List<UserResponse> following = relationshipHydrationService.hydrate(
+                currentUser.getId(), refreshedUser.getFollowing());
 
         return ResponseEntity.ok(following);
     }
@@ -110,14 +141,9 @@ public class UserController {
             @AuthenticationPrincipal User currentUser,
             @PathVariable String userId) {
 
-        return userRepository.findById(userId)
-                .map(user -> {
-                    List<UserResponse> followers = userRepository.findAllById(user.getFollowers())
-                            .stream()
-                            .map(follower -> UserResponse.fromUser(follower, currentUser))
-                            .collect(Collectors.toList());
-                    return ResponseEntity.ok(followers);
-                })
+        return userRepository.findFollowersById(userId)
+                .map(user -> ResponseEntity.ok(
+                        relationshipHydrationService.hydrate(currentUser.getId(), user.getFollowers())))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -127,14 +153,9 @@ public class UserController {
             @AuthenticationPrincipal User currentUser,
             @PathVariable String userId) {
 
-        return userRepository.findById(userId)
-                .map(user -> {
-                    List<UserResponse> following = userRepository.findAllById(user.getFollowing())
-                            .stream()
-                            .map(followedUser -> UserResponse.fromUser(followedUser, currentUser))
-                            .collect(Collectors.toList());
-                    return ResponseEntity.ok(following);
-                })
+        return userRepository.findFollowingById(userId)
+                .map(user -> ResponseEntity.ok(
+                        relationshipHydrationService.hydrate(currentUser.getId(), user.getFollowing())))
                 .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -0,0 +1,22 @@
+package com.example.skillshareplus.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkFollowRequest {
+    public static final int MAX_TARGETS = 500;
+
+    @NotEmpty(message = "At least one user ID is required")
+    @Size(max = MAX_TARGETS, message = "Cannot follow or unfollow more than 500 users at once")
+    private List<String> userIds;
+}
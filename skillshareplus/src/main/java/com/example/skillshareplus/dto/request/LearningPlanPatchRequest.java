@@ -0,0 +1,26 @@
+package com.example.skillshareplus.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningPlanPatchRequest {
+    public static final int MAX_OPERATIONS = 100;
+
+    // Version the client last saw; the patch is rejected if the plan has moved on since
+    private Long version;
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = MAX_OPERATIONS, message = "Cannot apply more than 100 operations at once")
+    @Valid
+    private List<PlanPatchOperation> operations = new ArrayList<>();
+}
@@ -24,4 +24,7 @@ public class LearningPlanRequest {
     private String category;
     
     private int estimatedHours;
+    
+    // Version the client last saw; updates against any other version are rejected
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.skillshareplus.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One step of a structural plan edit. Elements are addressed by ID only:
+ * - ADD: parentId is the module (for a task) or task (for a resource) to add to; exactly one
+ *   of module, task or resource carries the new element
+ * - MOVE: parentId is the destination module or task; omitted when moving a module
+ * - RENAME: title and/or description are replaced
+ * - REMOVE: the element and everything below it is removed
+ * position is the index in the destination list; omitted means append. Plans created from a
+ * template keep the template's order, so they only accept ADD without a position, RENAME and REMOVE.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanPatchOperation {
+    @NotNull(message = "Operation is required")
+    private Op op;
+
+    @NotNull(message = "Target is required")
+    private Target target;
+
+    private String id;
+
+    private String parentId;
+
+    private Integer position;
+
+    private String title;
+
+    private String description;
+
+    @Valid
+    private LearningModuleRequest module;
+
+    @Valid
+    private LearningTaskRequest task;
+
+    @Valid
+    private ResourceRequest resource;
+
+    public enum Op {
+        ADD, MOVE, RENAME, REMOVE
+    }
+
+    public enum Target {
+        MODULE, TASK, RESOURCE
+    }
+}
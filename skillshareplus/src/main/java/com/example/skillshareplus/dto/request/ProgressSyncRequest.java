@@ -0,0 +1,58 @@
+package com.example.skillshareplus.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncRequest {
+    public static final int MAX_EVENTS = 1000;
+
+    @NotEmpty(message = "At least one event is required")
+    @Size(max = MAX_EVENTS, message = "Cannot sync more than 1000 events at once")
+    @Valid
+    private List<Event> events = new ArrayList<>();
+
+    // A progress change recorded on the client, possibly while offline
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+        // Client-generated idempotency key; replaying the same event is a no-op
+        @NotBlank(message = "Event ID is required")
+        private String eventId;
+
+        @NotBlank(message = "Plan ID is required")
+        private String planId;
+
+        @NotBlank(message = "Module ID is required")
+        private String moduleId;
+
+        @NotBlank(message = "Task ID is required")
+        private String taskId;
+
+        // false reopens the task
+        private boolean completed = true;
+
+        // When the change happened on the client; the latest change of a task wins
+        @NotNull(message = "Event time is required")
+        private LocalDateTime occurredAt;
+
+        // MongoDB stores milliseconds, so a replayed event must compare equal to the time stored for it
+        public void setOccurredAt(LocalDateTime occurredAt) {
+            this.occurredAt = occurredAt == null ? null : occurredAt.truncatedTo(ChronoUnit.MILLIS);
+        }
+    }
+}
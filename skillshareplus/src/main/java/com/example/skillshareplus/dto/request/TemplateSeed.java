@@ -0,0 +1,29 @@
+package com.example.skillshareplus.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One curated template as shipped in the seed resources
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateSeed {
+    // Stable across catalog versions; the seeded template is matched by it, never by title
+    private String key;
+
+    private String title;
+
+    private String description;
+
+    private String category;
+
+    private int estimatedHours;
+
+    private List<LearningModuleRequest> modules = new ArrayList<>();
+}
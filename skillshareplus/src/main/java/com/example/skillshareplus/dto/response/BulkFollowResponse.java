@@ -0,0 +1,34 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkFollowResponse {
+    private int requested;
+    private int applied;
+    private List<TargetResult> results;
+
+    // Outcome for a single target user
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TargetResult {
+        private String userId;
+        private Status status;
+    }
+
+    public enum Status {
+        FOLLOWED,
+        UNFOLLOWED,
+        ALREADY_FOLLOWING,
+        NOT_FOLLOWING,
+        NOT_FOUND,
+        SELF
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardResponse {
+    // null for the global leaderboard
+    private String category;
+    private int rankedUsers;
+    private List<Entry> top;
+    // The requesting user's position; null if they have no completed hours yet
+    private Entry me;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private int rank;
+        private String userId;
+        private String name;
+        private int completedHours;
+    }
+}
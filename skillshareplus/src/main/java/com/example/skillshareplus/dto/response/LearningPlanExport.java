@@ -0,0 +1,40 @@
+package com.example.skillshareplus.dto.response;
+
+import com.example.skillshareplus.model.LearningModule;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of a learning plan NDJSON export; imports read the same format.
+ * Template-backed plans are exported fully resolved, so every line is self-contained.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningPlanExport {
+    // ID at export time; imported plans always get a new one
+    private String id;
+
+    // Only included in admin exports
+    private String userId;
+
+    private String title;
+
+    private String description;
+
+    private String category;
+
+    private int estimatedHours;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // Including task completion times, so progress survives a round trip
+    private List<LearningModule> modules = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningPlanPatchResponse {
+    private String planId;
+    // Plan version after the last operation
+    private Long version;
+    // IDs assigned to the elements added by ADD operations, in operation order
+    private List<String> addedIds;
+}
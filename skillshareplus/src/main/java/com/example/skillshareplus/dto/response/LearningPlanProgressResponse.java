@@ -0,0 +1,24 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningPlanProgressResponse {
+    private String planId;
+    private String moduleId;
+    private String taskId;
+    private LocalDateTime completedAt;
+    private int moduleCompletedMinutes;
+    private int moduleCompletedHours;
+    private int planCompletedMinutes;
+    private int planCompletedHours;
+    private Long version;
+}
@@ -21,4 +21,6 @@ public class LearningPlanResponse {
     private String category;
     private int estimatedHours;
     private int completedHours;
+    private String status;
+    private Long version;
 }
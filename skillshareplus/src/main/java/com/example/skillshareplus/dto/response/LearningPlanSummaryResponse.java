@@ -0,0 +1,23 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningPlanSummaryResponse {
+    private String id;
+    private String title;
+    private String category;
+    private int estimatedHours;
+    private int completedHours;
+    private int moduleCount;
+    private int taskCount;
+    private int completedTaskCount;
+    private int percentComplete;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,32 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningStatsResponse {
+    private int totalCompletedMinutes;
+    private int totalCompletedTasks;
+    // Consecutive days with a completed task, ending today or yesterday
+    private int currentStreak;
+    private int longestStreak;
+    private Map<String, Integer> minutesByCategory;
+    // Active days within the requested window, most recent first
+    private List<Day> days;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private int completedTasks;
+        private int completedMinutes;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteChangesResponse {
+    // In the order they happened; a note changed several times appears once, as it is now
+    private List<Change> changes;
+    // Pass back as since on the next sync; null when reset is set
+    private String nextToken;
+    // More changes are waiting; sync again right away
+    private boolean hasMore;
+    // The token is too old to know about every delete; drop local notes and sync without a token
+    private boolean reset;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private String id;
+        // Remove the note locally; title and content are not sent
+        private boolean deleted;
+        private String title;
+        private String content;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+}
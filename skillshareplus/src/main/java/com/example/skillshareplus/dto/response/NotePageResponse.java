@@ -0,0 +1,18 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotePageResponse {
+    // Most recently updated first
+    private List<NoteSummaryResponse> notes;
+    // Pass back as cursor to get the next page; null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
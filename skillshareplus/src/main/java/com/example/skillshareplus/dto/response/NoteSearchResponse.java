@@ -0,0 +1,40 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteSearchResponse {
+    private String query;
+    // Most relevant first
+    private List<Hit> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private String id;
+        private String title;
+        private double score;
+        private List<Highlight> titleHighlights;
+        // The part of the content around the first match
+        private String snippet;
+        private List<Highlight> snippetHighlights;
+    }
+
+    /**
+     * Character range [start, end) of a matched term within the title or snippet
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Highlight {
+        private int start;
+        private int end;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NoteSummaryResponse {
+    private String id;
+    private String title;
+    // The start of the content; fetch the note itself for all of it
+    private String preview;
+    private boolean truncated;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.example.skillshareplus.dto.response;
+
+import com.example.skillshareplus.model.PlanChange;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanChangesResponse {
+    private String planId;
+    // Current plan version; if the last change is older, the log has a gap and the plan should be refetched
+    private long version;
+    private List<Change> changes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private long version;
+        private PlanChange.Type type;
+        private Map<String, Object> changes;
+        private LocalDateTime createdAt;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanImportResponse {
+    private int imported;
+    private int failed;
+    // The first failures only; failed counts all of them
+    private List<LineError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        // 1-based line number in the upload
+        private long line;
+        private String message;
+    }
+}
@@ -20,6 +20,7 @@ public class PostResponse {
     private String id;
     private String userId;
     private String username;
+    private UserResponse author;
     private String description;
     private List<MediaResponse> mediaItems;
     private LocalDateTime createdAt;
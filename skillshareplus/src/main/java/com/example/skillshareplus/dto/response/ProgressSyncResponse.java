@@ -0,0 +1,54 @@
+package com.example.skillshareplus.dto.response;
+
+import com.example.skillshareplus.model.PlanStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncResponse {
+    private List<EventResult> events;
+    private List<PlanProgress> plans;
+
+    // Outcome for a single event
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EventResult {
+        private String eventId;
+        private Status status;
+    }
+
+    // Progress of a plan after the sync
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlanProgress {
+        private String planId;
+        private Long version;
+        private PlanStatus status;
+        private int completedTaskCount;
+        private int taskCount;
+        private int completedMinutes;
+        private int completedHours;
+    }
+
+    public enum Status {
+        // The task now reflects this event
+        APPLIED,
+        // A later event for the same task in this batch won
+        SUPERSEDED,
+        // The server already had a later change for the task
+        STALE,
+        // This event ID was synced before
+        DUPLICATE,
+        // The plan, module or task does not exist or is not the user's
+        NOT_FOUND,
+        // The plan kept changing concurrently; retry the event
+        CONFLICT
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryShapeResponse {
+    private String collection;
+    private String command;
+    // The filter (and sort or pipeline) with every value replaced by ?
+    private String shape;
+    private long count;
+    // Runs that took longer than the slow query threshold
+    private long slowCount;
+    private double totalMillis;
+    private double meanMillis;
+    private double p99Millis;
+    private double maxMillis;
+    // From the latest explain of a slow run; null if it was never explained
+    private String winningPlan;
+    private Long docsExamined;
+    private Long keysExamined;
+    private Long docsReturned;
+    private LocalDateTime explainedAt;
+}
@@ -0,0 +1,34 @@
+package com.example.skillshareplus.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateSearchResponse {
+    private String query;
+    // Matches across all pages
+    private int total;
+    private int page;
+    private int size;
+    // Most relevant first; alphabetical when there is no query
+    private List<TemplateResponse> templates;
+    private Facets facets;
+
+    /**
+     * Number of matching templates per value, for narrowing the search further
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Facets {
+        private Map<String, Integer> categories;
+        private Map<String, Integer> resourceTypes;
+        private Map<String, Integer> estimatedHours;
+    }
+}
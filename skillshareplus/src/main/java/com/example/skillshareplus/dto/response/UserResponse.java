@@ -23,11 +23,13 @@ public class UserResponse {
     private int followerCount;
     private int followingCount;
     private boolean isFollowing;
+    private boolean followsYou;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
     public static UserResponse fromUser(User targetUser, User currentUser) {
         boolean isFollowing = currentUser != null && currentUser.isFollowing(targetUser.getId());
+        boolean followsYou = currentUser != null && currentUser.isFollowedBy(targetUser.getId());
         return UserResponse.builder()
                 .id(targetUser.getId())
                 .email(targetUser.getEmail())
@@ -37,6 +39,7 @@ public class UserResponse {
                 .followingCount(targetUser.getFollowingCount())
                 .roles(targetUser.getRoles().stream().map(Enum::name).collect(Collectors.toList()))
                 .isFollowing(isFollowing)
+                .followsYou(followsYou)
                 .createdAt(targetUser.getCreatedAt())
                 .updatedAt(targetUser.getUpdatedAt())
                 .build();
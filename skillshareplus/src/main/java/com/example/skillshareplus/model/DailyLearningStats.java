@@ -0,0 +1,37 @@
+package com.example.skillshareplus.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One user's learning activity on one day, maintained incrementally as tasks are completed
+ * or reopened. Stats are read from these rollups instead of from the plans.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "dailyLearningStats")
+@CompoundIndex(name = "userId_date", def = "{'userId': 1, 'date': -1}")
+public class DailyLearningStats {
+    // userId:yyyy-MM-dd
+    @Id
+    private String id;
+    private String userId;
+    private LocalDate date;
+    private int completedTasks;
+    private int completedMinutes;
+    // Plan category -> completed minutes that day
+    private Map<String, Integer> minutesByCategory = new HashMap<>();
+
+    public static String idOf(String userId, LocalDate date) {
+        return userId + ":" + date;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.skillshareplus.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persisted leaderboard scores of one user, so a restart only has to recompute the users
+ * whose plans changed after the latest snapshot
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "leaderboardSnapshots")
+public class LeaderboardSnapshot {
+    // The user ID
+    @Id
+    private String id;
+
+    private List<CategoryHours> categories = new ArrayList<>();
+
+    @Indexed
+    private LocalDateTime takenAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryHours {
+        private String category;
+        private int completedHours;
+    }
+}
@@ -17,4 +17,5 @@ public class LearningModule {
     private List<LearningTask> tasks = new ArrayList<>();
     private int estimatedHours;
     private int completedHours;
+    private int completedMinutes;
 }
\ No newline at end of file
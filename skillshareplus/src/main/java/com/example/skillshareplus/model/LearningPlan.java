@@ -4,6 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -14,9 +18,18 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "learningPlans")
+// One index per user-scoped filter, so none of them falls back to a collection scan
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_status", def = "{'userId': 1, 'status': 1}"),
+        @CompoundIndex(name = "userId_category", def = "{'userId': 1, 'category': 1}"),
+        @CompoundIndex(name = "userId_estimatedHours", def = "{'userId': 1, 'estimatedHours': 1}")
+})
 public class LearningPlan {
     @Id
     private String id;
+    // Bumped by every write; stale writes are rejected instead of overwriting newer changes
+    @Version
+    private Long version;
     private String title;
     private String description;
     private String userId;
@@ -27,4 +40,21 @@ public class LearningPlan {
     private String category;
     private int estimatedHours;
     private int completedHours;
+    private int completedMinutes;
+    // Materialised on write so lists never have to walk the module tree
+    private int moduleCount;
+    private int taskCount;
+    private int completedTaskCount;
+    // Derived from the task counts and kept up to date by progress updates
+    private PlanStatus status = PlanStatus.NOT_STARTED;
+    // Templates: bumped on every change so instances can pin the revision they started from
+    private int revision;
+    // Plans created from a template reference it and only store their own overlay
+    private String templateId;
+    private int templateRevision;
+    private PlanOverlay overlay;
+    // Seeded templates: stable key of the seed they came from and a hash of its content
+    @Indexed(unique = true, sparse = true)
+    private String templateKey;
+    private String seedHash;
 }
@@ -18,4 +18,6 @@ public class LearningTask {
     private List<Resource> resources = new ArrayList<>();
     private int estimatedMinutes;
     private LocalDateTime completedAt;
+    // Time of the latest progress change applied to this task, for last-writer-wins sync
+    private LocalDateTime progressUpdatedAt;
 }
\ No newline at end of file
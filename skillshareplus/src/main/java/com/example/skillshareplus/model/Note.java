@@ -7,6 +7,9 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -16,17 +19,44 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "notes")
+@CompoundIndexes({
+        // Serves the listing's filter, sort and cursor condition without a scan or in-memory sort
+        @CompoundIndex(name = "userId_updatedAt", def = "{'userId': 1, 'updatedAt': -1, '_id': -1}"),
+        // Serves delta sync: changes of one user after a sequence, in order
+        @CompoundIndex(name = "userId_changeSeq", def = "{'userId': 1, 'changeSeq': 1}")
+})
 public class Note {
+    // Tombstones are kept this long, so clients that synced within it see every delete
+    public static final int TOMBSTONE_RETENTION_SECONDS = 30 * 24 * 60 * 60;
+
     @Id
     private String id;
     
     private String title;
+    // Null when the content is stored compressed
     private String content;
     private String userId;
+
+    // Large contents are stored zlib-compressed instead, see NoteContentCodec
+    private boolean contentCompressed;
+    private byte[] compressedContent;
+    // Kept plain for compressed contents, so listings never decompress
+    private String contentPreview;
+    // Of compressed contents, in code points
+    private Integer contentLength;
     
     @CreatedDate
     private LocalDateTime createdAt;
     
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    // Taken from a per-user counter on every change, including deletion
+    private Long changeSeq;
+
+    // Deleted notes stay as tombstones without title or content until they expire
+    private boolean deleted;
+
+    @Indexed(expireAfterSeconds = TOMBSTONE_RETENTION_SECONDS)
+    private LocalDateTime deletedAt;
 }
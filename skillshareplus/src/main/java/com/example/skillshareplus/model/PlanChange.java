@@ -0,0 +1,46 @@
+package com.example.skillshareplus.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One entry of a learning plan's append-only change log.
+ * Each entry records the plan version it produced and only the fields that changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "planChanges")
+@CompoundIndex(name = "planId_version", def = "{'planId': 1, 'version': 1}", unique = true)
+public class PlanChange {
+
+    @Id
+    private String id;
+
+    private String planId;
+
+    // Plan version after this change
+    private long version;
+
+    private Type type;
+
+    private String userId;
+
+    // Changed fields only, e.g. {"title": "..."}, {"moduleId": "...", "taskId": "..."} or {"op": "MOVE", "id": "..."}
+    private Map<String, Object> changes;
+
+    private LocalDateTime createdAt;
+
+    public enum Type {
+        CREATED, UPDATED, TASK_COMPLETED, STRUCTURE_CHANGED, PROGRESS_SYNCED
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.skillshareplus.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Per-user changes on top of a shared template revision.
+ * Plans created from a template store only this overlay; the template content is merged
+ * in at read time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanOverlay {
+    // Task ID -> completion time
+    private Map<String, LocalDateTime> completedTasks = new HashMap<>();
+
+    // Task ID -> time of the latest progress change, for last-writer-wins sync
+    private Map<String, LocalDateTime> progressUpdatedAt = new HashMap<>();
+
+    // Module, task or resource ID -> overridden fields
+    private Map<String, ItemEdit> edits = new HashMap<>();
+
+    // Modules that only exist in this plan, appended after the template modules
+    private List<LearningModule> addedModules = new ArrayList<>();
+
+    // Module ID -> tasks that only exist in this plan, appended to that module
+    private Map<String, List<LearningTask>> addedTasks = new HashMap<>();
+
+    // Task ID -> resources that only exist in this plan, appended to that task
+    private Map<String, List<Resource>> addedResources = new HashMap<>();
+
+    // Modules, tasks or resources hidden in this plan, whether from the template or added
+    private Set<String> removedIds = new HashSet<>();
+
+    // Overridden fields of a module, task or resource (description is a resource's notes); null means unchanged
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemEdit {
+        private String title;
+        private String description;
+        private Integer estimatedHours;
+        private Integer estimatedMinutes;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.skillshareplus.model;
+
+public enum PlanStatus {
+    NOT_STARTED, IN_PROGRESS, COMPLETED
+}
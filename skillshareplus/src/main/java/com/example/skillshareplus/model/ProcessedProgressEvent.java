@@ -0,0 +1,31 @@
+package com.example.skillshareplus.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key of a synced progress event. Keys expire after 30 days, long after any
+ * client would still be replaying the same offline queue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "processedProgressEvents")
+public class ProcessedProgressEvent {
+    // userId:eventId, so keys of different users never collide
+    @Id
+    private String id;
+
+    @Indexed(expireAfterSeconds = 30 * 24 * 60 * 60)
+    private LocalDateTime processedAt;
+
+    public static String idOf(String userId, String eventId) {
+        return userId + ":" + eventId;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.skillshareplus.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "jobCheckpoints")
+public class ReconciliationCheckpoint {
+
+    @Id
+    private String id;
+
+    private Status status;
+
+    // Last user ID fully processed; the next run resumes after it
+    private String lastUserId;
+
+    private long usersScanned;
+    private long missingFollowerEdgesAdded;
+    private long staleFollowerEdgesRemoved;
+    private long danglingEdgesRemoved;
+    private long countersFixed;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public enum Status {
+        RUNNING,
+        STOPPED,
+        COMPLETED,
+        FAILED
+    }
+}
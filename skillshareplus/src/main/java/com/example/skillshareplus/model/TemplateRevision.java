@@ -0,0 +1,33 @@
+package com.example.skillshareplus.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a template's modules at one revision.
+ * Plans created from a template reference a revision, so later template edits never
+ * change plans that were already started.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "templateRevisions")
+public class TemplateRevision {
+    @Id
+    private String id;
+    private String templateId;
+    private int revision;
+    private List<LearningModule> modules = new ArrayList<>();
+    private LocalDateTime createdAt;
+
+    public static String idOf(String templateId, int revision) {
+        return templateId + ":" + revision;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.skillshareplus.repository;
 
 import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.PlanStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,13 @@ public interface LearningPlanRepository extends MongoRepository<LearningPlan, St
     List<LearningPlan> findByUserId(String userId);
     List<LearningPlan> findByIsTemplateTrue();
     List<LearningPlan> findByUserIdAndIsTemplate(String userId, boolean isTemplate);
+
+    // Each filter below is served by a compound index on userId and the filtered field
+    List<LearningPlan> findByUserIdAndStatus(String userId, PlanStatus status);
+
+    List<LearningPlan> findByUserIdAndCategory(String userId, String category);
+
+    // Inclusive on both ends, unlike the derived Between keyword
+    @Query("{ 'userId': ?0, 'estimatedHours': { $gte: ?1, $lte: ?2 } }")
+    List<LearningPlan> findByUserIdAndEstimatedHoursBetween(String userId, int minHours, int maxHours);
 }
\ No newline at end of file
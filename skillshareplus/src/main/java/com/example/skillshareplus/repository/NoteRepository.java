@@ -2,9 +2,15 @@ package com.example.skillshareplus.repository;
 
 import com.example.skillshareplus.model.Note;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface NoteRepository extends MongoRepository<Note, String> {
     List<Note> findByUserId(String userId);
+
+    // Skips tombstones; notes written before deletion was soft have no deleted field
+    @Query("{ '_id': ?0, 'deleted': { $ne: true } }")
+    Optional<Note> findLiveById(String id);
 }
\ No newline at end of file
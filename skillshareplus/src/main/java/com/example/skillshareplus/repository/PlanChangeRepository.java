@@ -0,0 +1,14 @@
+package com.example.skillshareplus.repository;
+
+import com.example.skillshareplus.model.PlanChange;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlanChangeRepository extends MongoRepository<PlanChange, String> {
+    List<PlanChange> findByPlanIdAndVersionGreaterThanOrderByVersionAsc(String planId, long version);
+
+    void deleteByPlanId(String planId);
+}
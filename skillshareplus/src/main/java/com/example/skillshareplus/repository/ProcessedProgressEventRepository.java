@@ -0,0 +1,9 @@
+package com.example.skillshareplus.repository;
+
+import com.example.skillshareplus.model.ProcessedProgressEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProcessedProgressEventRepository extends MongoRepository<ProcessedProgressEvent, String> {
+}
@@ -2,6 +2,7 @@ package com.example.skillshareplus.repository;
 
 import com.example.skillshareplus.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,11 +10,15 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     
-    Optional<User> findByUsername(String username);
-    
     Optional<User> findByEmail(String email);
     
-    Boolean existsByUsername(String username);
-    
     Boolean existsByEmail(String email);
+
+    // Load only the follower IDs of a user
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'followers': 1 }")
+    Optional<User> findFollowersById(String id);
+
+    // Load only the followed user IDs of a user
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'following': 1 }")
+    Optional<User> findFollowingById(String id);
 }
\ No newline at end of file
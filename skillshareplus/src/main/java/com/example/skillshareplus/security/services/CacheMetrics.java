@@ -0,0 +1,39 @@
+package com.example.skillshareplus.security.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+
+/**
+ * Hit, miss and size meters of an in-process map cache, named like Micrometer's own cache
+ * meters (cache.gets by result, cache.size) so the usual hit-rate queries work on them.
+ * The cache map must be guarded by its own monitor.
+ */
+final class CacheMetrics {
+
+    private final Counter hits;
+    private final Counter misses;
+
+    CacheMetrics(MeterRegistry meterRegistry, String cacheName, Map<?, ?> cache) {
+        hits = Counter.builder("cache.gets").tag("cache", cacheName).tag("result", "hit")
+                .description("Cache lookups that found an entry")
+                .register(meterRegistry);
+        misses = Counter.builder("cache.gets").tag("cache", cacheName).tag("result", "miss")
+                .description("Cache lookups that did not find an entry")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", cache, map -> {
+                    synchronized (map) {
+                        return map.size();
+                    }
+                })
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    <T> T record(T cached) {
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.skillshareplus.security.services;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import com.example.skillshareplus.model.Post;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,6 +19,7 @@ import java.util.Map;
 public class CloudinaryService {
 
     private final Cloudinary cloudinary;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Upload a file to Cloudinary
@@ -34,6 +37,8 @@ public class CloudinaryService {
         log.info("Uploading file as type: {}, original content type: {}, size: {}", 
                  resourceType, file.getContentType(), file.getSize());
         
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             Map uploadResult = cloudinary.uploader().upload(
                 file.getBytes(),
@@ -52,11 +57,14 @@ public class CloudinaryService {
             
             Post.MediaType mediaType = isVideo ? Post.MediaType.VIDEO : Post.MediaType.PHOTO;
             log.info("File uploaded successfully to: {}", url);
+            outcome = "success";
             
             return new Post.Media(url, mediaType, publicId);
         } catch (Exception e) {
             log.error("Error uploading file to Cloudinary: {}", e.getMessage(), e);
             throw new IOException("Failed to upload file: " + e.getMessage(), e);
+        } finally {
+            sample.stop(timer("upload", resourceType, outcome));
         }
     }
     
@@ -75,6 +83,8 @@ public class CloudinaryService {
         String resourceType = isVideo ? "video" : "image";
         log.info("Deleting file from Cloudinary: publicId={}, resourceType={}", publicId, resourceType);
         
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             Map result = cloudinary.uploader().destroy(
                 publicId,
@@ -82,6 +92,7 @@ public class CloudinaryService {
             );
             
             String status = (String) result.get("result");
+            outcome = "ok".equals(status) ? "success" : "not_ok";
             if ("ok".equals(status)) {
                 log.info("Successfully deleted file from Cloudinary: {}", publicId);
             } else {
@@ -90,6 +101,18 @@ public class CloudinaryService {
         } catch (Exception e) {
             log.error("Error deleting file from Cloudinary: {}", e.getMessage(), e);
             throw new IOException("Failed to delete file: " + e.getMessage(), e);
+        } finally {
+            sample.stop(timer("destroy", resourceType, outcome));
         }
     }
+
+    private Timer timer(String operation, String resourceType, String outcome) {
+        return Timer.builder("cloudinary.requests")
+                .description("Calls to the Cloudinary API")
+                .tag("operation", operation)
+                .tag("resource_type", resourceType)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
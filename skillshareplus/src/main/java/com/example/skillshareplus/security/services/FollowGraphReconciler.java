@@ -0,0 +1,313 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.ReconciliationCheckpoint;
+import com.example.skillshareplus.model.User;
+import com.example.skillshareplus.repository.ReconciliationCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Background job that repairs drift between the followers/following sets and their counters.
+ *
+ * The following side is treated as the source of truth, since single follows and unfollows
+ * write it first: an edge U -> F exists iff F is in U.following. Users are walked in _id
+ * order in bounded batches; for each batch the other side of every edge is checked with a
+ * single aggregation that only returns the overlap with the batch, and repairs go out as
+ * unordered bulk writes. Progress is checkpointed after each batch so a stopped or failed
+ * run resumes where it left off, and the whole job is throttled to a configured ops/sec.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FollowGraphReconciler {
+
+    public static final String JOB_ID = "follow-graph";
+
+    private final MongoTemplate mongoTemplate;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final MeterRegistry meterRegistry;
+
+    // A plain ThreadPoolExecutor, so its queue can be measured
+    private final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "follow-graph-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean stopRequested;
+
+    @Value("${app.reconcile.follow.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.reconcile.follow.max-ops-per-second:500}")
+    private int maxOpsPerSecond;
+
+    @PostConstruct
+    void registerMetrics() {
+        new ExecutorServiceMetrics(executor, "follow-graph-reconciler", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Start or resume the reconciliation job in the background
+     * @param restart Ignore any previous checkpoint and scan from the first user
+     * @return The checkpoint the job starts from
+     */
+    public ReconciliationCheckpoint start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Follow graph reconciliation is already running");
+        }
+
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(JOB_ID)
+                .filter(existing -> !restart && existing.getStatus() != ReconciliationCheckpoint.Status.COMPLETED)
+                .orElseGet(() -> ReconciliationCheckpoint.builder()
+                        .id(JOB_ID)
+                        .startedAt(LocalDateTime.now())
+                        .build());
+
+        checkpoint.setStatus(ReconciliationCheckpoint.Status.RUNNING);
+        checkpoint.setFinishedAt(null);
+        checkpoint.setError(null);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        ReconciliationCheckpoint saved = checkpointRepository.save(checkpoint);
+
+        stopRequested = false;
+        executor.submit(() -> run(saved));
+        return saved;
+    }
+
+    /**
+     * Ask a running job to stop after its current batch
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * @return The latest checkpoint, if the job has ever run
+     */
+    public Optional<ReconciliationCheckpoint> status() {
+        return checkpointRepository.findById(JOB_ID);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested = true;
+        executor.shutdown();
+    }
+
+    private void run(ReconciliationCheckpoint checkpoint) {
+        log.info("Follow graph reconciliation started after userId={}", checkpoint.getLastUserId());
+        long startNanos = System.nanoTime();
+        long operations = 0;
+
+        try {
+            while (!stopRequested) {
+                List<User> batch = nextBatch(checkpoint.getLastUserId());
+                if (batch.isEmpty()) {
+                    checkpoint.setStatus(ReconciliationCheckpoint.Status.COMPLETED);
+                    checkpoint.setFinishedAt(LocalDateTime.now());
+                    break;
+                }
+
+                operations += reconcileBatch(batch, checkpoint);
+                checkpoint.setLastUserId(batch.get(batch.size() - 1).getId());
+                checkpoint.setUsersScanned(checkpoint.getUsersScanned() + batch.size());
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+
+                throttle(operations, startNanos);
+            }
+
+            if (stopRequested && checkpoint.getStatus() == ReconciliationCheckpoint.Status.RUNNING) {
+                checkpoint.setStatus(ReconciliationCheckpoint.Status.STOPPED);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            checkpoint.setStatus(ReconciliationCheckpoint.Status.STOPPED);
+        } catch (Exception e) {
+            log.error("Follow graph reconciliation failed after userId={}", checkpoint.getLastUserId(), e);
+            checkpoint.setStatus(ReconciliationCheckpoint.Status.FAILED);
+            checkpoint.setError(e.getMessage());
+        } finally {
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            running.set(false);
+        }
+
+        log.info("Follow graph reconciliation {}: scanned={}, missingFollowerEdgesAdded={}, staleFollowerEdgesRemoved={}, danglingEdgesRemoved={}, countersFixed={}",
+                checkpoint.getStatus(), checkpoint.getUsersScanned(), checkpoint.getMissingFollowerEdgesAdded(),
+                checkpoint.getStaleFollowerEdgesRemoved(), checkpoint.getDanglingEdgesRemoved(), checkpoint.getCountersFixed());
+    }
+
+    private List<User> nextBatch(String lastUserId) {
+        Query query = lastUserId == null
+                ? new Query()
+                : new Query(Criteria.where("id").gt(lastUserId));
+        query.with(Sort.by(Sort.Direction.ASC, "id")).limit(batchSize);
+        query.fields().include("followers", "following", "followerCount", "followingCount");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    /**
+     * Check and repair one batch of users
+     * @return Number of database operations issued, for throttling
+     */
+    private long reconcileBatch(List<User> batch, ReconciliationCheckpoint checkpoint) {
+        List<String> batchIds = batch.stream().map(User::getId).collect(Collectors.toList());
+
+        Set<String> referencedIds = new HashSet<>();
+        for (User user : batch) {
+            referencedIds.addAll(nullSafe(user.getFollowing()));
+            referencedIds.addAll(nullSafe(user.getFollowers()));
+        }
+
+        // For every referenced user, only the part of its sets that points back into this batch
+        AggregationOperation overlap = context -> new Document("$project", new Document()
+                .append("followers", new Document("$setIntersection", List.of(new Document("$ifNull", List.of("$followers", List.of())), batchIds)))
+                .append("following", new Document("$setIntersection", List.of(new Document("$ifNull", List.of("$following", List.of())), batchIds))));
+        TypedAggregation<User> aggregation = Aggregation.newAggregation(User.class,
+                Aggregation.match(Criteria.where("id").in(referencedIds)),
+                overlap);
+        Map<String, User> others = referencedIds.isEmpty()
+                ? Collections.emptyMap()
+                : mongoTemplate.aggregate(aggregation, User.class).getMappedResults().stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        BulkOperations edgeFixes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        BulkOperations counterFixes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        int edgeOps = 0;
+        int counterOps = 0;
+        // Users outside this batch that gained a follower; keyset order means their batch may already be done
+        Set<String> recountOutside = new HashSet<>();
+
+        // Working copies of each batch user's sets, updated as repairs are planned
+        Map<String, Set<String>> followingById = new HashMap<>();
+        Map<String, Set<String>> followersById = new HashMap<>();
+        for (User user : batch) {
+            followingById.put(user.getId(), new HashSet<>(nullSafe(user.getFollowing())));
+            followersById.put(user.getId(), new HashSet<>(nullSafe(user.getFollowers())));
+        }
+
+        for (User user : batch) {
+            String userId = user.getId();
+
+            for (String followedId : nullSafe(user.getFollowing())) {
+                User followed = others.get(followedId);
+                if (followed == null) {
+                    edgeFixes.updateOne(byId(userId), new Update().pull("following", followedId));
+                    followingById.get(userId).remove(followedId);
+                    checkpoint.setDanglingEdgesRemoved(checkpoint.getDanglingEdgesRemoved() + 1);
+                    edgeOps++;
+                } else if (!nullSafe(followed.getFollowers()).contains(userId)) {
+                    edgeFixes.updateOne(byId(followedId), new Update().addToSet("followers", userId));
+                    if (followersById.containsKey(followedId)) {
+                        followersById.get(followedId).add(userId);
+                    } else {
+                        recountOutside.add(followedId);
+                    }
+                    checkpoint.setMissingFollowerEdgesAdded(checkpoint.getMissingFollowerEdgesAdded() + 1);
+                    edgeOps++;
+                }
+            }
+
+            for (String followerId : nullSafe(user.getFollowers())) {
+                User follower = others.get(followerId);
+                if (follower == null) {
+                    edgeFixes.updateOne(byId(userId), new Update().pull("followers", followerId));
+                    followersById.get(userId).remove(followerId);
+                    checkpoint.setDanglingEdgesRemoved(checkpoint.getDanglingEdgesRemoved() + 1);
+                    edgeOps++;
+                } else if (!nullSafe(follower.getFollowing()).contains(userId)) {
+                    edgeFixes.updateOne(byId(userId), new Update().pull("followers", followerId));
+                    followersById.get(userId).remove(followerId);
+                    checkpoint.setStaleFollowerEdgesRemoved(checkpoint.getStaleFollowerEdgesRemoved() + 1);
+                    edgeOps++;
+                }
+            }
+        }
+
+        for (User user : batch) {
+            int followers = followersById.get(user.getId()).size();
+            int following = followingById.get(user.getId()).size();
+            if (user.getFollowerCount() != followers || user.getFollowingCount() != following) {
+                // Only applies if the sets still have the size we computed, so a concurrent follow is not overwritten
+                Query guarded = new Query(Criteria.where("id").is(user.getId())
+                        .and("followers").size(followers)
+                        .and("following").size(following));
+                counterFixes.updateOne(guarded, new Update()
+                        .set("followerCount", followers)
+                        .set("followingCount", following));
+                checkpoint.setCountersFixed(checkpoint.getCountersFixed() + 1);
+                counterOps++;
+            }
+        }
+
+        if (edgeOps > 0) {
+            edgeFixes.execute();
+        }
+        if (counterOps > 0) {
+            counterFixes.execute();
+        }
+        if (!recountOutside.isEmpty()) {
+            // Recounted from the stored set, so a concurrent follow is counted rather than overwritten
+            AggregationUpdate recount = AggregationUpdate.update().set("followerCount")
+                    .toValue(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("followers").then(List.of())));
+            long fixed = mongoTemplate.updateMulti(new Query(Criteria.where("id").in(recountOutside)), recount, User.class)
+                    .getModifiedCount();
+            checkpoint.setCountersFixed(checkpoint.getCountersFixed() + fixed);
+            counterOps++;
+        }
+
+        // One batch read, one aggregation, plus every write
+        return 2L + edgeOps + counterOps;
+    }
+
+    private void throttle(long operations, long startNanos) throws InterruptedException {
+        if (maxOpsPerSecond <= 0) {
+            return;
+        }
+        long expectedMillis = operations * 1000L / maxOpsPerSecond;
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (expectedMillis > elapsedMillis) {
+            Thread.sleep(expectedMillis - elapsedMillis);
+        }
+    }
+
+    private static Query byId(String userId) {
+        return new Query(Criteria.where("id").is(userId));
+    }
+
+    private static Set<String> nullSafe(Set<String> ids) {
+        return ids == null ? Collections.emptySet() : ids;
+    }
+}
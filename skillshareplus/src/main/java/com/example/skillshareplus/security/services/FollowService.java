@@ -1,19 +1,35 @@
 package com.example.skillshareplus.security.services;
 
+import com.example.skillshareplus.dto.response.BulkFollowResponse;
 import com.example.skillshareplus.exception.ResourceNotFoundException;
 import com.example.skillshareplus.model.User;
 import com.example.skillshareplus.repository.UserRepository;
+import com.mongodb.bulk.BulkWriteResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.*;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FollowService {
 
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Transactional
     public void followUser(String currentUserId, String targetUserId) {
@@ -77,4 +93,114 @@ public class FollowService {
         
         return currentUser.isFollowing(targetUserId);
     }
+
+    /**
+     * Follow many users at once.
+     * Targets are validated with a single $in query, then the current user's following set is
+     * changed in one atomic write whose previous value decides each target's outcome. The
+     * follower side of those edges goes out as one unordered bulk write, each update guarded
+     * on the edge, so replays and concurrent follows never double-count.
+     * @param currentUserId ID of the user following
+     * @param targetUserIds IDs of the users to follow
+     * @return Per-target outcome
+     */
+    public BulkFollowResponse bulkFollow(String currentUserId, List<String> targetUserIds) {
+        return bulkApply(currentUserId, targetUserIds, true);
+    }
+
+    /**
+     * Unfollow many users at once, mirroring {@link #bulkFollow(String, List)}
+     * @param currentUserId ID of the user unfollowing
+     * @param targetUserIds IDs of the users to unfollow
+     * @return Per-target outcome
+     */
+    public BulkFollowResponse bulkUnfollow(String currentUserId, List<String> targetUserIds) {
+        return bulkApply(currentUserId, targetUserIds, false);
+    }
+
+    private BulkFollowResponse bulkApply(String currentUserId, List<String> targetUserIds, boolean follow) {
+        List<String> requestedIds = targetUserIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        log.info("Bulk {} requested: currentUserId={}, targets={}",
+                follow ? "follow" : "unfollow", currentUserId, requestedIds.size());
+
+        // One round trip to learn which targets exist
+        BasicQuery lookup = new BasicQuery(new Document("_id", new Document("$in", requestedIds)), new Document("_id", 1));
+        Set<String> existing = mongoTemplate.find(lookup, User.class).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        List<String> candidates = requestedIds.stream()
+                .filter(id -> existing.contains(id) && !id.equals(currentUserId))
+                .collect(Collectors.toList());
+
+        // The current user's side is changed in one atomic write; the array as it was before that write
+        // tells exactly which edges this call added or removed, whatever ran concurrently
+        Set<String> changed = swapFollowing(currentUserId, candidates, follow);
+
+        List<BulkFollowResponse.TargetResult> results = new ArrayList<>();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (String targetUserId : requestedIds) {
+            BulkFollowResponse.Status status;
+            if (targetUserId.equals(currentUserId)) {
+                status = BulkFollowResponse.Status.SELF;
+            } else if (!existing.contains(targetUserId)) {
+                status = BulkFollowResponse.Status.NOT_FOUND;
+            } else if (changed.contains(targetUserId)) {
+                addEdgeOperation(bulkOps, currentUserId, targetUserId, follow);
+                status = follow ? BulkFollowResponse.Status.FOLLOWED : BulkFollowResponse.Status.UNFOLLOWED;
+            } else {
+                status = follow ? BulkFollowResponse.Status.ALREADY_FOLLOWING : BulkFollowResponse.Status.NOT_FOLLOWING;
+            }
+            results.add(new BulkFollowResponse.TargetResult(targetUserId, status));
+        }
+
+        if (!changed.isEmpty()) {
+            BulkWriteResult writeResult = bulkOps.execute();
+            log.info("Bulk {} applied: currentUserId={}, edges={}, targetsModified={}",
+                    follow ? "follow" : "unfollow", currentUserId, changed.size(), writeResult.getModifiedCount());
+        }
+
+        return new BulkFollowResponse(requestedIds.size(), changed.size(), results);
+    }
+
+    /**
+     * Add the candidates to, or remove them from, the current user's following set and recount it
+     * @return The candidates whose edge this write actually changed
+     */
+    private Set<String> swapFollowing(String currentUserId, List<String> candidates, boolean follow) {
+        Document following = new Document(follow ? "$setUnion" : "$setDifference", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$following", List.of())),
+                new Document("$literal", candidates)));
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(context -> new Document("$set", new Document("following", following)));
+        stages.add(context -> new Document("$set", new Document("followingCount", new Document("$size", "$following"))));
+
+        Query query = new Query(Criteria.where("id").is(currentUserId));
+        query.fields().include("following");
+        User before = mongoTemplate.findAndModify(query, AggregationUpdate.from(stages),
+                FindAndModifyOptions.options().returnNew(false), User.class);
+        if (before == null) {
+            throw new ResourceNotFoundException("Current user not found");
+        }
+
+        Set<String> previous = before.getFollowing() != null ? before.getFollowing() : Collections.emptySet();
+        return candidates.stream()
+                .filter(id -> follow != previous.contains(id))
+                .collect(Collectors.toSet());
+    }
+
+    // Guarded on the edge, so the follower counter only moves when the follower set does
+    private void addEdgeOperation(BulkOperations bulkOps, String currentUserId, String targetUserId, boolean follow) {
+        if (follow) {
+            bulkOps.updateOne(
+                    new Query(Criteria.where("id").is(targetUserId).and("followers").ne(currentUserId)),
+                    new Update().addToSet("followers", currentUserId).inc("followerCount", 1));
+        } else {
+            bulkOps.updateOne(
+                    new Query(Criteria.where("id").is(targetUserId).and("followers").is(currentUserId)),
+                    new Update().pull("followers", currentUserId).inc("followerCount", -1));
+        }
+    }
 }
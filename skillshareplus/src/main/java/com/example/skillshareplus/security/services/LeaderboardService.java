@@ -0,0 +1,373 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.LeaderboardResponse;
+import com.example.skillshareplus.model.LeaderboardSnapshot;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Global and per-category leaderboards by completed hours, kept in memory as ranked skip lists.
+ * Progress writes adjust the scores as they happen, so top-N and rank lookups never sort plans.
+ * Scores are periodically written to {@link LeaderboardSnapshot}s for the users changed since the
+ * last one, with their hours recomputed from Mongo rather than taken from the board, so any drift
+ * of the in-memory scores is corrected instead of persisted; on startup the snapshots are loaded
+ * and only users whose plans changed since are recomputed from Mongo.
+ * The boards are per instance: each instance only sees the adjustments made through it and
+ * converges with the others on its next catch-up or full rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardService {
+
+    public static final String UNCATEGORIZED = "Uncategorized";
+
+    // Plan writes stamp updatedAt before their adjustment reaches the board, so catch up with some overlap
+    private static final long CATCH_UP_OVERLAP_MINUTES = 5;
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RankedScores global = new RankedScores();
+    private final Map<String, RankedScores> categories = new HashMap<>();
+    // userId -> category -> completed hours, the source of truth for both boards
+    private final Map<String, Map<String, Integer>> hoursByUser = new HashMap<>();
+    private final Set<String> dirtyUsers = new HashSet<>();
+
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.leaderboard.snapshot-interval-seconds:300}")
+    private long snapshotIntervalSeconds;
+
+    @Value("${app.leaderboard.snapshot-max-age-hours:24}")
+    private long snapshotMaxAgeHours;
+
+    @Value("${app.leaderboard.max-limit:100}")
+    private int maxLimit;
+
+    @PostConstruct
+    void registerMetrics() {
+        new ExecutorServiceMetrics(scheduler, "leaderboard-snapshot", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Apply a change in a user's completed hours to the global and category boards
+     * @param userId The learner
+     * @param category Category of the plan that changed
+     * @param deltaHours Change in the plan's completed hours; may be negative
+     */
+    public void adjust(String userId, String category, int deltaHours) {
+        if (userId == null || deltaHours == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Map<String, Integer> userHours = hoursByUser.computeIfAbsent(userId, id -> new HashMap<>());
+            int categoryHours = Math.max(userHours.getOrDefault(categoryOf(category), 0) + deltaHours, 0);
+            setCategoryHours(userId, userHours, categoryOf(category), categoryHours);
+            global.put(userId, totalOf(userHours));
+            if (userHours.isEmpty()) {
+                hoursByUser.remove(userId);
+            }
+            dirtyUsers.add(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param category Category to rank by, or null for the global board
+     * @param userId The requesting user, whose own rank is included
+     * @param limit How many top entries to return
+     */
+    public LeaderboardResponse getLeaderboard(String category, String userId, int limit) {
+        int size = Math.min(Math.max(limit, 1), maxLimit);
+        String categoryKey = category == null || category.isBlank() ? null : categoryOf(category);
+
+        List<Map.Entry<String, Integer>> top;
+        int rankedUsers;
+        int myRank;
+        Integer myHours;
+        lock.readLock().lock();
+        try {
+            RankedScores board = categoryKey == null ? global : categories.get(categoryKey);
+            if (board == null) {
+                return new LeaderboardResponse(categoryKey, 0, Collections.emptyList(), null);
+            }
+            top = board.range(1, size);
+            rankedUsers = board.size();
+            myRank = board.rankOf(userId);
+            myHours = board.scoreOf(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Set<String> userIds = new HashSet<>();
+        top.forEach(entry -> userIds.add(entry.getKey()));
+        userIds.add(userId);
+        Map<String, String> names = namesOf(userIds);
+
+        List<LeaderboardResponse.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < top.size(); i++) {
+            String member = top.get(i).getKey();
+            entries.add(new LeaderboardResponse.Entry(i + 1, member, names.get(member), top.get(i).getValue()));
+        }
+        LeaderboardResponse.Entry me = myRank > 0
+                ? new LeaderboardResponse.Entry(myRank, userId, names.get(userId), myHours)
+                : null;
+        return new LeaderboardResponse(categoryKey, rankedUsers, entries, me);
+    }
+
+    /**
+     * Load the boards from the latest snapshots, or rebuild them from plans if there are none
+     * or they are too old, then start snapshotting
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime takenAt = latestSnapshotTime();
+            if (takenAt == null || takenAt.isBefore(LocalDateTime.now().minusHours(snapshotMaxAgeHours))) {
+                rebuild();
+            } else {
+                restore(takenAt);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduler.scheduleWithFixedDelay(this::snapshotSafely, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Recompute the hours of every user changed since the last snapshot from their plans,
+     * correct the boards with them and write them as the users' snapshots
+     */
+    public void snapshot() {
+        List<String> changedUsers;
+        LocalDateTime takenAt;
+        lock.writeLock().lock();
+        try {
+            // Taken before the plans are read, so a restore catches up anything written meanwhile
+            takenAt = LocalDateTime.now();
+            changedUsers = new ArrayList<>(dirtyUsers);
+            dirtyUsers.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (changedUsers.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Map<String, Integer>> changed = new HashMap<>();
+            for (int from = 0; from < changedUsers.size(); from += BATCH_SIZE) {
+                List<String> batch = changedUsers.subList(from, Math.min(from + BATCH_SIZE, changedUsers.size()));
+                Map<String, Map<String, Integer>> computed = computeHours(
+                        Criteria.where("isTemplate").is(false).and("userId").in(batch));
+                for (String userId : batch) {
+                    changed.put(userId, computed.getOrDefault(userId, Collections.emptyMap()));
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                changed.forEach(this::replaceUser);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            writeSnapshots(changed, takenAt);
+            log.debug("Leaderboard snapshot written for {} users", changed.size());
+        } catch (RuntimeException e) {
+            // Retry on the next run
+            lock.writeLock().lock();
+            try {
+                dirtyUsers.addAll(changedUsers);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        snapshotSafely();
+    }
+
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Leaderboard snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    private void rebuild() {
+        clear();
+        Map<String, Map<String, Integer>> computed = computeHours(Criteria.where("isTemplate").is(false));
+        computed.forEach(this::replaceUser);
+        dirtyUsers.addAll(computed.keySet());
+
+        // Snapshots of users without any completed hours left would otherwise be restored later
+        mongoTemplate.remove(new Query(Criteria.where("id").nin(computed.keySet())), LeaderboardSnapshot.class);
+        log.info("Leaderboard rebuilt from plans for {} users", computed.size());
+    }
+
+    private void restore(LocalDateTime takenAt) {
+        clear();
+        int restored = 0;
+        try (Stream<LeaderboardSnapshot> snapshots = mongoTemplate.stream(new Query(), LeaderboardSnapshot.class)) {
+            for (LeaderboardSnapshot snapshot : (Iterable<LeaderboardSnapshot>) snapshots::iterator) {
+                Map<String, Integer> userHours = new HashMap<>();
+                for (LeaderboardSnapshot.CategoryHours entry : snapshot.getCategories()) {
+                    userHours.put(entry.getCategory(), entry.getCompletedHours());
+                }
+                replaceUser(snapshot.getId(), userHours);
+                restored++;
+            }
+        }
+
+        Criteria changedPlans = Criteria.where("isTemplate").is(false)
+                .and("updatedAt").gte(takenAt.minusMinutes(CATCH_UP_OVERLAP_MINUTES));
+        List<String> changedUsers = mongoTemplate.findDistinct(new Query(changedPlans), "userId", LearningPlan.class, String.class);
+        if (!changedUsers.isEmpty()) {
+            Map<String, Map<String, Integer>> computed = computeHours(
+                    Criteria.where("isTemplate").is(false).and("userId").in(changedUsers));
+            for (String userId : changedUsers) {
+                replaceUser(userId, computed.getOrDefault(userId, Collections.emptyMap()));
+            }
+            dirtyUsers.addAll(changedUsers);
+        }
+        log.info("Leaderboard restored from {} snapshots, {} users caught up", restored, changedUsers.size());
+    }
+
+    private Map<String, Map<String, Integer>> computeHours(Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group("userId", "category").sum("completedHours").as("completedHours"));
+
+        Map<String, Map<String, Integer>> hours = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, LearningPlan.class, Document.class)) {
+            Document group = result.get("_id", Document.class);
+            Number completedHours = (Number) result.get("completedHours");
+            if (completedHours != null && completedHours.intValue() > 0) {
+                hours.computeIfAbsent(group.getString("userId"), id -> new HashMap<>())
+                        .merge(categoryOf(group.getString("category")), completedHours.intValue(), Integer::sum);
+            }
+        }
+        return hours;
+    }
+
+    private void writeSnapshots(Map<String, Map<String, Integer>> changed, LocalDateTime takenAt) {
+        List<Map.Entry<String, Map<String, Integer>>> entries = new ArrayList<>(changed.entrySet());
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LeaderboardSnapshot.class);
+            for (Map.Entry<String, Map<String, Integer>> entry : entries.subList(from, Math.min(from + BATCH_SIZE, entries.size()))) {
+                Query query = new Query(Criteria.where("id").is(entry.getKey()));
+                if (entry.getValue().isEmpty()) {
+                    bulkOps.remove(query);
+                    continue;
+                }
+                List<LeaderboardSnapshot.CategoryHours> categoryHours = new ArrayList<>();
+                entry.getValue().forEach((category, hours) -> categoryHours.add(new LeaderboardSnapshot.CategoryHours(category, hours)));
+                bulkOps.upsert(query, new Update().set("categories", categoryHours).set("takenAt", takenAt));
+            }
+            bulkOps.execute();
+        }
+    }
+
+    private LocalDateTime latestSnapshotTime() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "takenAt")).limit(1);
+        query.fields().include("takenAt");
+        LeaderboardSnapshot latest = mongoTemplate.findOne(query, LeaderboardSnapshot.class);
+        return latest != null ? latest.getTakenAt() : null;
+    }
+
+    private Map<String, String> namesOf(Collection<String> userIds) {
+        Query query = new Query(Criteria.where("id").in(userIds));
+        query.fields().include("firstName", "lastName");
+        Map<String, String> names = new HashMap<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            names.put(user.getId(), (user.getFirstName() + " " + user.getLastName()).trim());
+        }
+        return names;
+    }
+
+    // Callers hold the write lock
+    private void replaceUser(String userId, Map<String, Integer> newHours) {
+        Map<String, Integer> userHours = hoursByUser.computeIfAbsent(userId, id -> new HashMap<>());
+        for (String category : new ArrayList<>(userHours.keySet())) {
+            if (!newHours.containsKey(category)) {
+                setCategoryHours(userId, userHours, category, 0);
+            }
+        }
+        newHours.forEach((category, hours) -> setCategoryHours(userId, userHours, category, hours));
+        global.put(userId, totalOf(userHours));
+        if (userHours.isEmpty()) {
+            hoursByUser.remove(userId);
+        }
+    }
+
+    private void setCategoryHours(String userId, Map<String, Integer> userHours, String category, int hours) {
+        if (hours > 0) {
+            userHours.put(category, hours);
+        } else {
+            userHours.remove(category);
+        }
+        RankedScores board = categories.computeIfAbsent(category, key -> new RankedScores());
+        board.put(userId, hours);
+        if (board.size() == 0) {
+            categories.remove(category);
+        }
+    }
+
+    private void clear() {
+        global.clear();
+        categories.clear();
+        hoursByUser.clear();
+        dirtyUsers.clear();
+    }
+
+    private static int totalOf(Map<String, Integer> userHours) {
+        return userHours.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static String categoryOf(String category) {
+        return category == null || category.isBlank() ? UNCATEGORIZED : category;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.LearningModuleResponse;
+import com.example.skillshareplus.dto.response.LearningPlanResponse;
+import com.example.skillshareplus.dto.response.LearningTaskResponse;
+import com.example.skillshareplus.dto.response.ResourceResponse;
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.LearningTask;
+import com.example.skillshareplus.model.Resource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps learning plans to their API responses, with every module, task and resource.
+ */
+@Component
+@RequiredArgsConstructor
+public class LearningPlanMapper {
+
+    private final TemplateResolver templateResolver;
+
+    public LearningPlanResponse toResponse(LearningPlan storedPlan) {
+        // Template-backed plans get their modules merged in from the template revision
+        LearningPlan plan = templateResolver.resolve(storedPlan);
+        
+        LearningPlanResponse response = new LearningPlanResponse();
+        response.setId(plan.getId());
+        response.setTitle(plan.getTitle());
+        response.setDescription(plan.getDescription());
+        response.setCreatedAt(plan.getCreatedAt());
+        response.setUpdatedAt(plan.getUpdatedAt());
+        response.setCompletedHours(plan.getCompletedHours());
+        response.setStatus(plan.getStatus() == null ? null : plan.getStatus().name());
+        response.setVersion(plan.getVersion());
+        
+        List<LearningModuleResponse> moduleResponses = new ArrayList<>();
+        for (LearningModule module : plan.getModules()) {
+            LearningModuleResponse moduleResponse = new LearningModuleResponse();
+            moduleResponse.setId(module.getId());
+            moduleResponse.setTitle(module.getTitle());
+            moduleResponse.setDescription(module.getDescription());
+            moduleResponse.setEstimatedHours(module.getEstimatedHours());
+            moduleResponse.setCompletedHours(module.getCompletedHours());
+            
+            List<LearningTaskResponse> taskResponses = new ArrayList<>();
+            for (LearningTask task : module.getTasks()) {
+                LearningTaskResponse taskResponse = new LearningTaskResponse();
+                taskResponse.setId(task.getId());
+                taskResponse.setTitle(task.getTitle());
+                taskResponse.setDescription(task.getDescription());
+                taskResponse.setEstimatedMinutes(task.getEstimatedMinutes());
+                taskResponse.setCompletedAt(task.getCompletedAt());
+                
+                List<ResourceResponse> resourceResponses = new ArrayList<>();
+                for (Resource resource : task.getResources()) {
+                    ResourceResponse resourceResponse = new ResourceResponse();
+                    resourceResponse.setId(resource.getId());
+                    resourceResponse.setTitle(resource.getTitle());
+                    resourceResponse.setUrl(resource.getUrl());
+                    resourceResponse.setType(resource.getType());
+                    resourceResponse.setNotes(resource.getNotes());
+                    resourceResponses.add(resourceResponse);
+                }
+                
+                taskResponse.setResources(resourceResponses);
+                taskResponses.add(taskResponse);
+            }
+            
+            moduleResponse.setTasks(taskResponses);
+            moduleResponses.add(moduleResponse);
+        }
+        
+        response.setModules(moduleResponses);
+        return response;
+    }
+}
@@ -2,30 +2,80 @@ package com.example.skillshareplus.security.services;
 
 import com.example.skillshareplus.model.*;
 import com.example.skillshareplus.dto.request.LearningModuleRequest;
+import com.example.skillshareplus.dto.request.LearningPlanPatchRequest;
 import com.example.skillshareplus.dto.request.LearningPlanProgressRequest;
 import com.example.skillshareplus.dto.request.LearningPlanRequest;
 import com.example.skillshareplus.dto.request.LearningTaskRequest;
+import com.example.skillshareplus.dto.request.PlanPatchOperation;
 import com.example.skillshareplus.dto.request.ResourceRequest;
-import com.example.skillshareplus.dto.response.LearningModuleResponse;
+import com.example.skillshareplus.dto.response.LearningPlanPatchResponse;
+import com.example.skillshareplus.dto.response.LearningPlanProgressResponse;
 import com.example.skillshareplus.dto.response.LearningPlanResponse;
-import com.example.skillshareplus.dto.response.LearningTaskResponse;
-import com.example.skillshareplus.dto.response.ResourceResponse;
-import com.example.skillshareplus.dto.response.TemplateResponse;
+import com.example.skillshareplus.dto.response.LearningPlanSummaryResponse;
+import com.example.skillshareplus.dto.response.LearningStatsResponse;
+import com.example.skillshareplus.dto.response.PlanChangesResponse;
+import com.example.skillshareplus.exception.ConflictException;
 import com.example.skillshareplus.repository.LearningPlanRepository;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Slf4j
 public class LearningPlanService {
 
     @Autowired
     private LearningPlanRepository learningPlanRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TemplateCatalogService templateCatalogService;
+
+    @Autowired
+    private TemplateResolver templateResolver;
+
+    @Autowired
+    private LearningPlanMapper learningPlanMapper;
+
+    @Autowired
+    private PlanChangeLog planChangeLog;
+
+    @Autowired
+    private LearningStatsService learningStatsService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     public LearningPlanResponse createLearningPlan(LearningPlanRequest request) {
         // Get authenticated user
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -46,48 +96,65 @@ public class LearningPlanService {
         List<LearningModule> modules = new ArrayList<>();
         if (request.getModules() != null) {
             for (LearningModuleRequest moduleRequest : request.getModules()) {
-                LearningModule module = new LearningModule();
-                module.setId(UUID.randomUUID().toString());
-                module.setTitle(moduleRequest.getTitle());
-                module.setDescription(moduleRequest.getDescription());
-                module.setEstimatedHours(moduleRequest.getEstimatedHours());
-                module.setCompletedHours(0);
-                
-                // Process tasks
-                List<LearningTask> tasks = new ArrayList<>();
-                if (moduleRequest.getTasks() != null) {
-                    for (LearningTaskRequest taskRequest : moduleRequest.getTasks()) {
-                        LearningTask task = new LearningTask();
-                        task.setId(UUID.randomUUID().toString());
-                        task.setTitle(taskRequest.getTitle());
-                        task.setDescription(taskRequest.getDescription());
-                        task.setEstimatedMinutes(taskRequest.getEstimatedMinutes());
-                        
-                        // Process resources
-                        List<Resource> resources = new ArrayList<>();
-                        if (taskRequest.getResources() != null) {
-                            for (ResourceRequest resourceRequest : taskRequest.getResources()) {
-                                Resource resource = new Resource();
-                                resource.setId(UUID.randomUUID().toString());
-                                resource.setTitle(resourceRequest.getTitle());
-                                resource.setUrl(resourceRequest.getUrl());
-                                resource.setType(resourceRequest.getType());
-                                resource.setNotes(resourceRequest.getNotes());
-                                resources.add(resource);
-                            }
-                        }
-                        task.setResources(resources);
-                        tasks.add(task);
-                    }
-                }
-                module.setTasks(tasks);
-                modules.add(module);
+                modules.add(buildModule(moduleRequest));
             }
         }
         plan.setModules(modules);
+        updateStructureCounts(plan);
         
         LearningPlan savedPlan = learningPlanRepository.save(plan);
-        return convertToResponse(savedPlan);
+        planChangeLog.record(savedPlan.getId(), savedPlan.getVersion(), userId, PlanChange.Type.CREATED, Collections.emptyMap());
+        if (savedPlan.isTemplate()) {
+            templateCatalogService.invalidate();
+        }
+        return learningPlanMapper.toResponse(savedPlan);
+    }
+
+    private LearningModule buildModule(LearningModuleRequest moduleRequest) {
+        LearningModule module = new LearningModule();
+        module.setId(UUID.randomUUID().toString());
+        module.setTitle(moduleRequest.getTitle());
+        module.setDescription(moduleRequest.getDescription());
+        module.setEstimatedHours(moduleRequest.getEstimatedHours());
+        module.setCompletedHours(0);
+        
+        // Process tasks
+        List<LearningTask> tasks = new ArrayList<>();
+        if (moduleRequest.getTasks() != null) {
+            for (LearningTaskRequest taskRequest : moduleRequest.getTasks()) {
+                tasks.add(buildTask(taskRequest));
+            }
+        }
+        module.setTasks(tasks);
+        return module;
+    }
+
+    private LearningTask buildTask(LearningTaskRequest taskRequest) {
+        LearningTask task = new LearningTask();
+        task.setId(UUID.randomUUID().toString());
+        task.setTitle(taskRequest.getTitle());
+        task.setDescription(taskRequest.getDescription());
+        task.setEstimatedMinutes(taskRequest.getEstimatedMinutes());
+        
+        // Process resources
+        List<Resource> resources = new ArrayList<>();
+        if (taskRequest.getResources() != null) {
+            for (ResourceRequest resourceRequest : taskRequest.getResources()) {
+                resources.add(buildResource(resourceRequest));
+            }
+        }
+        task.setResources(resources);
+        return task;
+    }
+
+    private Resource buildResource(ResourceRequest resourceRequest) {
+        Resource resource = new Resource();
+        resource.setId(UUID.randomUUID().toString());
+        resource.setTitle(resourceRequest.getTitle());
+        resource.setUrl(resourceRequest.getUrl());
+        resource.setType(resourceRequest.getType());
+        resource.setNotes(resourceRequest.getNotes());
+        return resource;
     }
 
     public LearningPlanResponse getLearningPlanById(String id) {
@@ -100,7 +167,7 @@ public class LearningPlanService {
             LearningPlan plan = planOptional.get();
             // Allow access to templates by everyone
             if (plan.isTemplate() || plan.getUserId().equals(userId)) {
-                return convertToResponse(plan);
+                return learningPlanMapper.toResponse(plan);
             } else {
                 throw new RuntimeException("Not authorized to access this learning plan");
             }
@@ -109,40 +176,78 @@ public class LearningPlanService {
         }
     }
 
-    public List<LearningPlanResponse> getUserLearningPlans() {
+    /**
+     * Lists the current user's plans as summaries.
+     * Module, task and completion counts are computed by MongoDB in a projection,
+     * so only a handful of scalar fields per plan leave the database.
+     * @return Plan summaries, most recently updated first
+     */
+    public List<LearningPlanSummaryResponse> getUserLearningPlans() {
         // Get authenticated user
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = user.getId();
         
-        List<LearningPlan> plans = learningPlanRepository.findByUserIdAndIsTemplate(userId, false);
-        return plans.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return findPlanSummaries(Criteria.where("userId").is(userId).and("isTemplate").is(false));
     }
 
-    public List<TemplateResponse> getTemplates() {
-        List<LearningPlan> templates = learningPlanRepository.findByIsTemplateTrue();
-        
-        return templates.stream()
-                .map(plan -> {
-                    TemplateResponse response = new TemplateResponse();
-                    response.setId(plan.getId());
-                    response.setTitle(plan.getTitle());
-                    response.setDescription(plan.getDescription());
-                    response.setCategory(plan.getCategory());
-                    response.setEstimatedHours(plan.getEstimatedHours());
-                    response.setModuleCount(plan.getModules().size());
-                    
-                    int taskCount = plan.getModules().stream()
-                            .mapToInt(module -> module.getTasks().size())
-                            .sum();
-                    response.setTaskCount(taskCount);
-                    
-                    return response;
-                })
-                .collect(Collectors.toList());
+    private List<LearningPlanSummaryResponse> findPlanSummaries(Criteria criteria) {
+        Document modules = new Document("$ifNull", List.of("$modules", List.of()));
+        Document tasks = new Document("$ifNull", List.of("$$this.tasks", List.of()));
+        Document completedTasks = new Document("$filter", new Document("input", tasks)
+                .append("as", "task")
+                .append("cond", new Document("$ne", Arrays.asList(new Document("$ifNull", Arrays.asList("$$task.completedAt", null)), null))));
+        
+        // Template-backed plans keep no modules of their own: use their materialised counts and overlay
+        Document templateBacked = new Document("$ifNull", Arrays.asList("$templateId", false));
+        Document overlayCompleted = new Document("$size", new Document("$objectToArray",
+                new Document("$ifNull", Arrays.asList("$overlay.completedTasks", new Document()))));
+        
+        TypedAggregation<LearningPlan> aggregation = Aggregation.newAggregation(LearningPlan.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "updatedAt")),
+                context -> new Document("$project", new Document("title", 1)
+                        .append("category", 1)
+                        .append("estimatedHours", 1)
+                        .append("completedHours", 1)
+                        .append("updatedAt", 1)
+                        .append("moduleCount", new Document("$cond", Arrays.asList(templateBacked,
+                                "$moduleCount",
+                                new Document("$size", modules))))
+                        .append("taskCount", new Document("$cond", Arrays.asList(templateBacked,
+                                "$taskCount",
+                                new Document("$reduce", new Document("input", modules)
+                                        .append("initialValue", 0)
+                                        .append("in", new Document("$add", List.of("$$value", new Document("$size", tasks))))))))
+                        .append("completedTaskCount", new Document("$cond", Arrays.asList(templateBacked,
+                                overlayCompleted,
+                                new Document("$reduce", new Document("input", modules)
+                                        .append("initialValue", 0)
+                                        .append("in", new Document("$add", List.of("$$value", new Document("$size", completedTasks))))))))));
+        
+        List<LearningPlanSummaryResponse> summaries = mongoTemplate
+                .aggregate(aggregation, LearningPlanSummaryResponse.class)
+                .getMappedResults();
+        summaries.forEach(summary -> summary.setPercentComplete(summary.getTaskCount() == 0
+                ? 0
+                : summary.getCompletedTaskCount() * 100 / summary.getTaskCount()));
+        return summaries;
+    }
+
+    /**
+     * Returns the template catalog from the in-memory snapshot.
+     * @return The current catalog snapshot with its ETag
+     */
+    public TemplateCatalogService.Snapshot getTemplates() {
+        return templateCatalogService.getCatalog();
     }
 
+    /**
+     * Creates a plan for the current user from a template.
+     * The template content is not copied: the plan references the template's current
+     * revision and only stores an overlay of the user's own progress and changes.
+     * @param templateId The template ID
+     * @return The new plan, resolved against the template
+     */
     public LearningPlanResponse createPlanFromTemplate(String templateId) {
         // Get authenticated user
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -151,6 +256,8 @@ public class LearningPlanService {
         Optional<LearningPlan> templateOptional = learningPlanRepository.findById(templateId);
         if (templateOptional.isPresent() && templateOptional.get().isTemplate()) {
             LearningPlan template = templateOptional.get();
+            templateResolver.ensureSnapshot(template);
+            
             LearningPlan newPlan = new LearningPlan();
             
             // Copy basic info
@@ -164,158 +271,926 @@ public class LearningPlanService {
             newPlan.setEstimatedHours(template.getEstimatedHours());
             newPlan.setCompletedHours(0);
             
-            // Deep copy modules, tasks, and resources with new IDs
-            List<LearningModule> newModules = new ArrayList<>();
-            for (LearningModule templateModule : template.getModules()) {
-                LearningModule newModule = new LearningModule();
-                newModule.setId(UUID.randomUUID().toString());
-                newModule.setTitle(templateModule.getTitle());
-                newModule.setDescription(templateModule.getDescription());
-                newModule.setEstimatedHours(templateModule.getEstimatedHours());
-                newModule.setCompletedHours(0);
-                
-                List<LearningTask> newTasks = new ArrayList<>();
-                for (LearningTask templateTask : templateModule.getTasks()) {
-                    LearningTask newTask = new LearningTask();
-                    newTask.setId(UUID.randomUUID().toString());
-                    newTask.setTitle(templateTask.getTitle());
-                    newTask.setDescription(templateTask.getDescription());
-                    newTask.setEstimatedMinutes(templateTask.getEstimatedMinutes());
-                    
-                    List<Resource> newResources = new ArrayList<>();
-                    for (Resource templateResource : templateTask.getResources()) {
-                        Resource newResource = new Resource();
-                        newResource.setId(UUID.randomUUID().toString());
-                        newResource.setTitle(templateResource.getTitle());
-                        newResource.setUrl(templateResource.getUrl());
-                        newResource.setType(templateResource.getType());
-                        newResource.setNotes(templateResource.getNotes());
-                        newResources.add(newResource);
-                    }
-                    newTask.setResources(newResources);
-                    newTasks.add(newTask);
-                }
-                newModule.setTasks(newTasks);
-                newModules.add(newModule);
-            }
-            newPlan.setModules(newModules);
+            // Reference the template revision instead of copying its modules
+            newPlan.setTemplateId(template.getId());
+            newPlan.setTemplateRevision(template.getRevision());
+            newPlan.setOverlay(new PlanOverlay());
+            newPlan.setModules(new ArrayList<>());
+            newPlan.setModuleCount(template.getModules().size());
+            newPlan.setTaskCount(template.getModules().stream()
+                    .mapToInt(module -> module.getTasks().size())
+                    .sum());
             
             LearningPlan savedPlan = learningPlanRepository.save(newPlan);
-            return convertToResponse(savedPlan);
+            planChangeLog.record(savedPlan.getId(), savedPlan.getVersion(), userId, PlanChange.Type.CREATED,
+                    Map.of("templateId", template.getId(), "templateRevision", template.getRevision()));
+            return learningPlanMapper.toResponse(savedPlan);
         } else {
             throw new RuntimeException("Template not found");
         }
     }
 
-    public LearningPlanResponse updateProgress(String planId, LearningPlanProgressRequest request) {
+    /**
+     * Marks a task as completed with a single atomic pipeline update.
+     * The task is addressed by ID and the module and plan minute and hour counters, the
+     * completed task count and the status are all derived in the same write, so the request
+     * size does not depend on the plan size and concurrent updates from several devices never
+     * overwrite each other.
+     * @param planId The learning plan ID
+     * @param request The module and task to mark as completed
+     * @return The progress delta for the affected task, module and plan
+     */
+    public LearningPlanProgressResponse updateProgress(String planId, LearningPlanProgressRequest request) {
         // Get authenticated user
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = user.getId();
         
-        Optional<LearningPlan> planOptional = learningPlanRepository.findById(planId);
-        if (planOptional.isPresent()) {
-            LearningPlan plan = planOptional.get();
-            
-            if (!plan.getUserId().equals(userId)) {
-                throw new RuntimeException("Not authorized to update this learning plan");
+        Query referenceQuery = new Query(Criteria.where("id").is(planId));
+        referenceQuery.fields().include("templateId");
+        LearningPlan reference = mongoTemplate.findOne(referenceQuery, LearningPlan.class);
+        if (reference != null && reference.getTemplateId() != null) {
+            return updateOverlayProgress(planId, userId, request);
+        }
+        
+        Document task = findTaskProgress(planId, request.getModuleId(), request.getTaskId(), userId);
+        
+        // Plans created before minute counters existed are migrated once on their first update
+        if (!task.containsKey("planCompletedMinutes")) {
+            backfillCompletedMinutes(planId);
+            task = findTaskProgress(planId, request.getModuleId(), request.getTaskId(), userId);
+        }
+        
+        // Already completed: progress updates are idempotent
+        if (task.get("completedAt") != null) {
+            return toProgressResponse(planId, request, task);
+        }
+        
+        int minutes = task.getInteger("estimatedMinutes", 0);
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Only matches while the task is still open, so a replay cannot count the minutes twice
+        Query query = new Query(Criteria.where("id").is(planId)
+                .and("userId").is(userId)
+                .and("modules").elemMatch(Criteria.where("id").is(request.getModuleId())
+                        .and("tasks").elemMatch(Criteria.where("id").is(request.getTaskId())
+                                .and("completedAt").is(null)
+                                .and("estimatedMinutes").is(minutes))));
+        query.fields().include("version", "category", "isTemplate", "completedMinutes", "completedTaskCount", "taskCount", "modules.id", "modules.completedMinutes");
+        
+        // Counters, hours and status (COMPLETED once the last task is done) move in the same write
+        PlanStructureUpdates structure = new PlanStructureUpdates(
+                idFieldOf(LearningModule.class), idFieldOf(LearningTask.class), idFieldOf(Resource.class));
+        AggregationUpdate update = structure.completeTask(request.getModuleId(), request.getTaskId(), minutes,
+                Date.from(now.atZone(ZoneId.systemDefault()).toInstant()));
+        
+        LearningPlan updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+        
+        if (updated == null) {
+            // Someone else completed or edited the task in between; report the state they left
+            Document current = findTaskProgress(planId, request.getModuleId(), request.getTaskId(), userId);
+            if (current.get("completedAt") != null) {
+                return toProgressResponse(planId, request, current);
             }
+            throw new RuntimeException("Learning plan was modified concurrently, please retry");
+        }
+        
+        int moduleMinutes = updated.getModules().stream()
+                .filter(module -> request.getModuleId().equals(module.getId()))
+                .mapToInt(LearningModule::getCompletedMinutes)
+                .findFirst()
+                .orElse(0);
+        recordTaskCompleted(planId, updated.getVersion(), userId, request, now);
+        learningStatsService.recordCompletion(userId, updated.getCategory(), now, minutes);
+        if (!updated.isTemplate()) {
+            int previousHours = (updated.getCompletedMinutes() - minutes) / 60;
+            leaderboardService.adjust(userId, updated.getCategory(), updated.getCompletedMinutes() / 60 - previousHours);
+        }
+        
+        return LearningPlanProgressResponse.builder()
+                .planId(planId)
+                .moduleId(request.getModuleId())
+                .taskId(request.getTaskId())
+                .completedAt(now)
+                .moduleCompletedMinutes(moduleMinutes)
+                .moduleCompletedHours(moduleMinutes / 60)
+                .planCompletedMinutes(updated.getCompletedMinutes())
+                .planCompletedHours(updated.getCompletedMinutes() / 60)
+                .version(updated.getVersion())
+                .build();
+    }
+
+    /**
+     * Progress for template-backed plans: the completion is recorded in the plan's overlay
+     * with one conditional pipeline update, so the template itself is never written.
+     */
+    private LearningPlanProgressResponse updateOverlayProgress(String planId, String userId, LearningPlanProgressRequest request) {
+        LearningPlan plan = learningPlanRepository.findById(planId)
+                .orElseThrow(() -> new RuntimeException("Learning plan not found"));
+        if (!plan.getUserId().equals(userId)) {
+            throw new RuntimeException("Not authorized to update this learning plan");
+        }
+        
+        LearningPlan resolved = templateResolver.resolve(plan);
+        LearningModule module = resolved.getModules().stream()
+                .filter(candidate -> candidate.getId().equals(request.getModuleId()))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Module not found"));
+        LearningTask task = module.getTasks().stream()
+                .filter(candidate -> candidate.getId().equals(request.getTaskId()))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+        
+        LocalDateTime completedAt = task.getCompletedAt();
+        int moduleMinutes = module.getCompletedMinutes();
+        int planMinutes = plan.getCompletedMinutes();
+        Long version = plan.getVersion();
+        
+        if (completedAt == null) {
+            String completionField = "overlay.completedTasks." + request.getTaskId();
+            LocalDateTime now = LocalDateTime.now();
             
-            boolean moduleFound = false;
-            boolean taskFound = false;
+            Query query = new Query(Criteria.where("id").is(planId)
+                    .and("userId").is(userId)
+                    .and(completionField).exists(false));
+            query.fields().include("version", "completedMinutes", "completedTaskCount", "taskCount");
+            PlanStructureUpdates structure = new PlanStructureUpdates(
+                    idFieldOf(LearningModule.class), idFieldOf(LearningTask.class), idFieldOf(Resource.class));
+            AggregationUpdate update = structure.completeOverlayTask(request.getTaskId(), task.getEstimatedMinutes(),
+                    Date.from(now.atZone(ZoneId.systemDefault()).toInstant()));
             
-            for (LearningModule module : plan.getModules()) {
-                if (module.getId().equals(request.getModuleId())) {
-                    moduleFound = true;
-                    
-                    for (LearningTask task : module.getTasks()) {
-                        if (task.getId().equals(request.getTaskId())) {
-                            taskFound = true;
-                            task.setCompletedAt(LocalDateTime.now());
-                            break;
-                        }
-                    }
-                    
-                    // Update module completed hours
-                    updateModuleHours(module);
-                    break;
-                }
+            LearningPlan updated = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+            if (updated == null) {
+                // Completed concurrently by another device
+                return updateOverlayProgress(planId, userId, request);
             }
             
-            if (!moduleFound) {
+            completedAt = now;
+            moduleMinutes += task.getEstimatedMinutes();
+            planMinutes = updated.getCompletedMinutes();
+            version = updated.getVersion();
+            recordTaskCompleted(planId, version, userId, request, now);
+            learningStatsService.recordCompletion(userId, plan.getCategory(), now, task.getEstimatedMinutes());
+            leaderboardService.adjust(userId, plan.getCategory(), planMinutes / 60 - (planMinutes - task.getEstimatedMinutes()) / 60);
+        }
+        
+        return LearningPlanProgressResponse.builder()
+                .planId(planId)
+                .moduleId(request.getModuleId())
+                .taskId(request.getTaskId())
+                .completedAt(completedAt)
+                .moduleCompletedMinutes(moduleMinutes)
+                .moduleCompletedHours(moduleMinutes / 60)
+                .planCompletedMinutes(planMinutes)
+                .planCompletedHours(planMinutes / 60)
+                .version(version)
+                .build();
+    }
+
+    private void recordTaskCompleted(String planId, Long version, String userId, LearningPlanProgressRequest request, LocalDateTime completedAt) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("moduleId", request.getModuleId());
+        changes.put("taskId", request.getTaskId());
+        changes.put("completedAt", completedAt);
+        planChangeLog.record(planId, version, userId, PlanChange.Type.TASK_COMPLETED, changes);
+    }
+
+    /**
+     * Reads just one task's progress fields and its module and plan counters,
+     * without loading the rest of the plan into the application
+     */
+    private Document findTaskProgress(String planId, String moduleId, String taskId, String userId) {
+        TypedAggregation<LearningPlan> aggregation = Aggregation.newAggregation(LearningPlan.class,
+                Aggregation.match(Criteria.where("id").is(planId)),
+                Aggregation.unwind("modules"),
+                Aggregation.match(Criteria.where("modules.id").is(moduleId)),
+                Aggregation.unwind("modules.tasks"),
+                Aggregation.match(Criteria.where("modules.tasks.id").is(taskId)),
+                Aggregation.project("userId", "version")
+                        .and("completedMinutes").as("planCompletedMinutes")
+                        .and("modules.completedMinutes").as("moduleCompletedMinutes")
+                        .and("modules.tasks.estimatedMinutes").as("estimatedMinutes")
+                        .and("modules.tasks.completedAt").as("completedAt")
+                        .andExclude("_id"));
+        
+        Document task = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (task == null) {
+            if (!learningPlanRepository.existsById(planId)) {
+                throw new RuntimeException("Learning plan not found");
+            }
+            Query moduleQuery = new Query(Criteria.where("id").is(planId).and("modules.id").is(moduleId));
+            if (!mongoTemplate.exists(moduleQuery, LearningPlan.class)) {
                 throw new RuntimeException("Module not found");
             }
-            
-            if (!taskFound) {
-                throw new RuntimeException("Task not found");
+            throw new RuntimeException("Task not found");
+        }
+        
+        if (!userId.equals(task.getString("userId"))) {
+            throw new RuntimeException("Not authorized to update this learning plan");
+        }
+        return task;
+    }
+
+    /**
+     * Plans stored before status was materialised get their task counts and status
+     * computed once at startup, so the status filter sees every plan. Written straight to
+     * the collection, so the migration leaves the plans' versions alone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillStatus() {
+        Query legacy = new Query(Criteria.where("status").exists(false));
+        legacy.fields().include("modules", "overlay.completedTasks", "templateId", "taskCount");
+        
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(LearningPlan.class));
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        int total = 0;
+        try (Stream<LearningPlan> plans = mongoTemplate.stream(legacy, LearningPlan.class)) {
+            for (LearningPlan plan : (Iterable<LearningPlan>) plans::iterator) {
+                List<Bson> updates = new ArrayList<>();
+                int taskCount;
+                int completedTaskCount;
+                if (plan.getTemplateId() != null) {
+                    taskCount = plan.getTaskCount();
+                    completedTaskCount = plan.getOverlay() == null ? 0 : plan.getOverlay().getCompletedTasks().size();
+                } else {
+                    updateStructureCounts(plan);
+                    taskCount = plan.getTaskCount();
+                    completedTaskCount = (int) plan.getModules().stream()
+                            .flatMap(module -> module.getTasks().stream())
+                            .filter(task -> task.getCompletedAt() != null)
+                            .count();
+                    updates.add(Updates.set("moduleCount", plan.getModuleCount()));
+                    updates.add(Updates.set("taskCount", taskCount));
+                }
+                updates.add(Updates.set("completedTaskCount", completedTaskCount));
+                updates.add(Updates.set("status", PlanStructureUpdates.statusOf(completedTaskCount, taskCount).name()));
+                writes.add(new UpdateOneModel<>(
+                        Filters.and(Filters.eq("_id", storedId(plan.getId())), Filters.exists("status", false)),
+                        Updates.combine(updates)));
+                total++;
+                
+                if (writes.size() == 500) {
+                    collection.bulkWrite(writes);
+                    writes.clear();
+                }
             }
-            
-            // Update overall plan completed hours
-            updatePlanHours(plan);
-            
-            plan.setUpdatedAt(LocalDateTime.now());
-            LearningPlan savedPlan = learningPlanRepository.save(plan);
-            return convertToResponse(savedPlan);
-        } else {
-            throw new RuntimeException("Learning plan not found");
+        }
+        if (!writes.isEmpty()) {
+            collection.bulkWrite(writes);
+        }
+        if (total > 0) {
+            log.info("Backfilled status of {} learning plans", total);
         }
     }
 
+    /**
+     * One-time migration of a plan without minute counters: recompute them from the tasks
+     */
+    private void backfillCompletedMinutes(String planId) {
+        LearningPlan plan = learningPlanRepository.findById(planId)
+                .orElseThrow(() -> new RuntimeException("Learning plan not found"));
+        plan.getModules().forEach(this::updateModuleHours);
+        updatePlanHours(plan);
+        
+        // Straight to the collection: a migration is not a change of the plan, so its version stays
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(LearningPlan.class)).updateOne(
+                Filters.and(Filters.eq("_id", storedId(planId)), Filters.exists("completedMinutes", false)),
+                Updates.combine(
+                        Updates.set("modules", plan.getModules().stream().map(this::toDocument).collect(Collectors.toList())),
+                        Updates.set("completedMinutes", plan.getCompletedMinutes()),
+                        Updates.set("completedHours", plan.getCompletedHours())));
+    }
+
+    /**
+     * String IDs that are valid ObjectIds are stored as ObjectIds by the mapping layer;
+     * writes that bypass it have to address them the same way
+     */
+    static Object storedId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * Embedded IDs are persisted under the field name the mapping layer assigns them,
+     * which array filters have to use verbatim since they are not mapped
+     */
+    private String idFieldOf(Class<?> embeddedType) {
+        return mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(embeddedType)
+                .getRequiredIdProperty()
+                .getFieldName();
+    }
+
+    private LearningPlanProgressResponse toProgressResponse(String planId, LearningPlanProgressRequest request, Document task) {
+        int moduleMinutes = task.getInteger("moduleCompletedMinutes", 0);
+        int planMinutes = task.getInteger("planCompletedMinutes", 0);
+        Date completedAt = task.getDate("completedAt");
+        return LearningPlanProgressResponse.builder()
+                .planId(planId)
+                .moduleId(request.getModuleId())
+                .taskId(request.getTaskId())
+                .completedAt(completedAt == null ? null : LocalDateTime.ofInstant(completedAt.toInstant(), ZoneId.systemDefault()))
+                .moduleCompletedMinutes(moduleMinutes)
+                .moduleCompletedHours(moduleMinutes / 60)
+                .planCompletedMinutes(planMinutes)
+                .planCompletedHours(planMinutes / 60)
+                .version(task.get("version") == null ? null : ((Number) task.get("version")).longValue())
+                .build();
+    }
+
+    private void updateStructureCounts(LearningPlan plan) {
+        plan.setModuleCount(plan.getModules().size());
+        plan.setTaskCount(plan.getModules().stream()
+                .mapToInt(module -> module.getTasks().size())
+                .sum());
+    }
+
     private void updateModuleHours(LearningModule module) {
         if (module.getTasks() == null || module.getTasks().isEmpty()) {
+            module.setCompletedMinutes(0);
             module.setCompletedHours(0);
             return;
         }
 
-        // Calculate completed hours
+        // Calculate completed minutes and hours
         int totalCompletedMinutes = module.getTasks().stream()
                 .filter(task -> task.getCompletedAt() != null)
                 .mapToInt(LearningTask::getEstimatedMinutes)
                 .sum();
         
+        module.setCompletedMinutes(totalCompletedMinutes);
         module.setCompletedHours(totalCompletedMinutes / 60);
     }
 
     private void updatePlanHours(LearningPlan plan) {
         if (plan.getModules() == null || plan.getModules().isEmpty()) {
+            plan.setCompletedMinutes(0);
             plan.setCompletedHours(0);
             return;
         }
         
-        // Calculate completed hours
-        int totalCompletedHours = plan.getModules().stream()
-                .mapToInt(LearningModule::getCompletedHours)
+        // Calculate completed minutes and hours
+        int totalCompletedMinutes = plan.getModules().stream()
+                .mapToInt(LearningModule::getCompletedMinutes)
                 .sum();
         
-        plan.setCompletedHours(totalCompletedHours);
+        plan.setCompletedMinutes(totalCompletedMinutes);
+        plan.setCompletedHours(totalCompletedMinutes / 60);
     }
 
+    /**
+     * Updates a plan's own fields with a version-checked $set.
+     * Modules, tasks and progress are not part of the write, so they can never be overwritten;
+     * if the plan changed since the client's version, the update is rejected with a conflict.
+     * @param planId The learning plan ID
+     * @param request The new field values and the version they were based on
+     * @return The updated plan
+     */
     public LearningPlanResponse updateLearningPlan(String planId, LearningPlanRequest request) {
         // Get authenticated user
         User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         String userId = user.getId();
         
-        Optional<LearningPlan> planOptional = learningPlanRepository.findById(planId);
-        if (planOptional.isPresent()) {
-            LearningPlan plan = planOptional.get();
+        Query referenceQuery = new Query(Criteria.where("id").is(planId));
+        referenceQuery.fields().include("userId", "version", "isTemplate", "category");
+        LearningPlan current = mongoTemplate.findOne(referenceQuery, LearningPlan.class);
+        if (current == null) {
+            throw new RuntimeException("Learning plan not found");
+        }
+        if (!current.getUserId().equals(userId)) {
+            throw new RuntimeException("Not authorized to update this learning plan");
+        }
+        
+        Long expectedVersion = request.getVersion() != null ? request.getVersion() : current.getVersion();
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("title", request.getTitle());
+        changes.put("description", request.getDescription());
+        changes.put("category", request.getCategory());
+        changes.put("estimatedHours", request.getEstimatedHours());
+        
+        Update update = new Update().inc("version", 1).set("updatedAt", LocalDateTime.now());
+        changes.forEach(update::set);
+        if (current.isTemplate()) {
+            // Existing instances keep the revision they were created from
+            update.inc("revision", 1);
+        }
+        
+        LearningPlan savedPlan = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(planId).and("version").is(expectedVersion)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                LearningPlan.class);
+        if (savedPlan == null) {
+            throw new ConflictException("Learning plan was modified since version " + expectedVersion);
+        }
+        
+        planChangeLog.record(planId, savedPlan.getVersion(), userId, PlanChange.Type.UPDATED, changes);
+        if (savedPlan.isTemplate()) {
+            templateCatalogService.invalidate();
+        } else if (!Objects.equals(current.getCategory(), savedPlan.getCategory())) {
+            // The plan's hours move to the new category's leaderboard
+            leaderboardService.adjust(userId, current.getCategory(), -savedPlan.getCompletedHours());
+            leaderboardService.adjust(userId, savedPlan.getCategory(), savedPlan.getCompletedHours());
+        }
+        return learningPlanMapper.toResponse(savedPlan);
+    }
+
+    /**
+     * Applies a structural diff (add, move, rename or remove modules, tasks and resources by ID).
+     * Every operation becomes one array update addressed by ID that also shifts the counters by
+     * the element's contribution, computed from the plan's structure (IDs, progress and counters,
+     * no text). The operations run one at a time, each a findAndModify guarded on the version
+     * left by the one before it that returns the structure for the next: a concurrent write or a
+     * missing element stops the chain, and the operations applied up to that point are kept and
+     * recorded in the change log. Plans created from a template are edited through their overlay
+     * instead, see patchOverlay.
+     * @param planId The learning plan ID
+     * @param request The operations and the version they were based on
+     * @return The new version and the IDs of added elements
+     */
+    public LearningPlanPatchResponse patchLearningPlan(String planId, LearningPlanPatchRequest request) {
+        // Get authenticated user
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String userId = user.getId();
+        
+        Query referenceQuery = new Query(Criteria.where("id").is(planId));
+        referenceQuery.fields().include("userId", "version", "templateId", "isTemplate", "category", "completedHours");
+        LearningPlan current = mongoTemplate.findOne(referenceQuery, LearningPlan.class);
+        if (current == null) {
+            throw new RuntimeException("Learning plan not found");
+        }
+        if (!current.getUserId().equals(userId)) {
+            throw new RuntimeException("Not authorized to update this learning plan");
+        }
+        
+        List<PlanPatchOperation> operations = request.getOperations();
+        operations.forEach(this::validatePatchOperation);
+        
+        long expectedVersion = request.getVersion() != null
+                ? request.getVersion()
+                : current.getVersion() == null ? 0 : current.getVersion();
+        if (current.getTemplateId() != null) {
+            return patchOverlay(planId, userId, current, operations, expectedVersion);
+        }
+        
+        // The counters are shifted rather than recomputed, so they have to exist first
+        if (mongoTemplate.exists(new Query(Criteria.where("id").is(planId).and("completedMinutes").exists(false)), LearningPlan.class)) {
+            backfillCompletedMinutes(planId);
+        }
+        
+        PlanStructureUpdates structure = new PlanStructureUpdates(
+                idFieldOf(LearningModule.class), idFieldOf(LearningTask.class), idFieldOf(Resource.class));
+        LearningPlan plan = mongoTemplate.findOne(structureQuery(planId, expectedVersion), LearningPlan.class);
+        
+        List<String> addedIds = new ArrayList<>();
+        int applied = 0;
+        // Of the last write that went through, so a later conflict still reports and adjusts what was applied
+        long version = expectedVersion;
+        int completedHours = current.getCompletedHours();
+        RuntimeException failure = null;
+        for (PlanPatchOperation operation : operations) {
+            String outcome = applied + " of " + operations.size() + " operations were applied";
+            if (plan == null) {
+                failure = new ConflictException("Learning plan was modified since version " + version + "; " + outcome);
+                break;
+            }
             
-            if (!plan.getUserId().equals(userId)) {
-                throw new RuntimeException("Not authorized to update this learning plan");
+            Map<String, Object> change = new LinkedHashMap<>();
+            UpdateDefinition update = patchOperation(plan, operation, structure, current.isTemplate(), change);
+            if (update == null) {
+                String target = operation.getTarget().name().charAt(0) + operation.getTarget().name().substring(1).toLowerCase(Locale.ROOT);
+                failure = new RuntimeException(target + " or its destination not found; " + outcome);
+                break;
+            }
+            
+            plan = mongoTemplate.findAndModify(structureQuery(planId, version), update,
+                    FindAndModifyOptions.options().returnNew(true), LearningPlan.class);
+            if (plan == null) {
+                failure = new ConflictException("Learning plan was modified since version " + version + "; " + outcome);
+                break;
+            }
+            version = plan.getVersion();
+            completedHours = plan.getCompletedHours();
+            planChangeLog.record(planId, version, userId, PlanChange.Type.STRUCTURE_CHANGED, change);
+            if (operation.getOp() == PlanPatchOperation.Op.ADD) {
+                addedIds.add((String) change.get("id"));
+            }
+            applied++;
+        }
+        
+        if (applied > 0 && current.isTemplate()) {
+            templateCatalogService.invalidate();
+        }
+        if (!current.isTemplate() && completedHours != current.getCompletedHours()) {
+            // Removing completed tasks or modules lowers the plan's completed hours
+            leaderboardService.adjust(userId, current.getCategory(), completedHours - current.getCompletedHours());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return new LearningPlanPatchResponse(planId, version, addedIds);
+    }
+
+    private static Query structureQuery(String planId, long version) {
+        Query query = new Query(Criteria.where("id").is(planId).and("version").is(version));
+        query.fields().include(PlanStructureUpdates.STRUCTURE_FIELDS);
+        return query;
+    }
+
+    private void validatePatchOperation(PlanPatchOperation operation) {
+        boolean needsId = operation.getOp() != PlanPatchOperation.Op.ADD;
+        boolean needsParent = operation.getTarget() != PlanPatchOperation.Target.MODULE
+                && (operation.getOp() == PlanPatchOperation.Op.ADD || operation.getOp() == PlanPatchOperation.Op.MOVE);
+        if (needsId && operation.getId() == null) {
+            throw new IllegalArgumentException(operation.getOp() + " " + operation.getTarget() + " requires an id");
+        }
+        if (needsParent && operation.getParentId() == null) {
+            throw new IllegalArgumentException(operation.getOp() + " " + operation.getTarget() + " requires a parentId");
+        }
+        if (operation.getOp() == PlanPatchOperation.Op.RENAME && operation.getTitle() == null && operation.getDescription() == null) {
+            throw new IllegalArgumentException("RENAME requires a title or description");
+        }
+        if (operation.getOp() == PlanPatchOperation.Op.ADD) {
+            Object element = switch (operation.getTarget()) {
+                case MODULE -> operation.getModule();
+                case TASK -> operation.getTask();
+                case RESOURCE -> operation.getResource();
+            };
+            if (element == null) {
+                throw new IllegalArgumentException("ADD " + operation.getTarget() + " requires the " + operation.getTarget().name().toLowerCase(Locale.ROOT) + " to add");
+            }
+        }
+    }
+
+    /**
+     * Builds the single update for one patch operation; on a template the same update bumps
+     * the revision, since instances keep the snapshot of the revision they were created from
+     * @param plan The plan's structure at the version the update will be guarded on
+     * @param change Filled with the compact change log entry for the operation
+     * @return The update, or null if the element or its destination does not exist
+     */
+    private UpdateDefinition patchOperation(LearningPlan plan, PlanPatchOperation operation, PlanStructureUpdates structure,
+                                            boolean template, Map<String, Object> change) {
+        change.put("op", operation.getOp());
+        change.put("target", operation.getTarget());
+        String id = operation.getId();
+        if (operation.getParentId() != null && operation.getTarget() != PlanPatchOperation.Target.MODULE) {
+            change.put("parentId", operation.getParentId());
+        }
+        
+        UpdateDefinition update = switch (operation.getOp()) {
+            case ADD -> {
+                Object element = switch (operation.getTarget()) {
+                    case MODULE -> buildModule(operation.getModule());
+                    case TASK -> buildTask(operation.getTask());
+                    case RESOURCE -> buildResource(operation.getResource());
+                };
+                Document document = toDocument(element);
+                id = document.getString(idFieldOf(element.getClass()));
+                change.put("title", document.getString("title"));
+                
+                Update added = switch (operation.getTarget()) {
+                    case MODULE -> structure.addModule(plan, (LearningModule) element, document, operation.getPosition());
+                    case TASK -> structure.addTask(plan, operation.getParentId(), document, operation.getPosition());
+                    case RESOURCE -> structure.addResource(plan, operation.getParentId(), document, operation.getPosition());
+                };
+                yield added != null && template ? added.inc("revision", 1) : added;
+            }
+            case REMOVE -> {
+                Update removed = switch (operation.getTarget()) {
+                    case MODULE -> structure.removeModule(plan, id);
+                    case TASK -> structure.removeTask(plan, id);
+                    case RESOURCE -> structure.removeResource(plan, id);
+                };
+                yield removed != null && template ? removed.inc("revision", 1) : removed;
+            }
+            case MOVE -> {
+                AggregationUpdate moved = switch (operation.getTarget()) {
+                    case MODULE -> structure.moveModule(plan, id, operation.getPosition());
+                    case TASK -> structure.moveTask(plan, id, operation.getParentId(), operation.getPosition());
+                    case RESOURCE -> structure.moveResource(plan, id, operation.getParentId(), operation.getPosition());
+                };
+                yield moved != null && template
+                        ? moved.set("revision").toValue(ArithmeticOperators.valueOf("revision").add(1))
+                        : moved;
+            }
+            case RENAME -> rename(plan, operation, template, change);
+        };
+        
+        change.put("id", id);
+        if (operation.getPosition() != null) {
+            change.put("position", operation.getPosition());
+        }
+        return update;
+    }
+
+    /**
+     * A plain positional $set: renames never change counters or progress
+     * @return The update, or null if the element does not exist
+     */
+    private Update rename(LearningPlan plan, PlanPatchOperation operation, boolean template, Map<String, Object> change) {
+        String id = operation.getId();
+        Update update = new Update().inc("version", 1).set("updatedAt", LocalDateTime.now());
+        String path;
+        String descriptionField = "description";
+        String moduleIdField = idFieldOf(LearningModule.class);
+        String taskIdField = idFieldOf(LearningTask.class);
+        String resourceIdField = idFieldOf(Resource.class);
+        boolean exists;
+        switch (operation.getTarget()) {
+            case MODULE -> {
+                path = "modules.$[m].";
+                update.filterArray(Criteria.where("m." + moduleIdField).is(id));
+                exists = plan.getModules().stream().anyMatch(module -> id.equals(module.getId()));
+            }
+            case TASK -> {
+                path = "modules.$[m].tasks.$[t].";
+                update.filterArray(Criteria.where("m.tasks." + taskIdField).is(id))
+                        .filterArray(Criteria.where("t." + taskIdField).is(id));
+                exists = plan.getModules().stream()
+                        .flatMap(module -> module.getTasks().stream())
+                        .anyMatch(task -> id.equals(task.getId()));
+            }
+            default -> {
+                path = "modules.$[m].tasks.$[t].resources.$[r].";
+                descriptionField = "notes";
+                update.filterArray(Criteria.where("m.tasks.resources." + resourceIdField).is(id))
+                        .filterArray(Criteria.where("t.resources." + resourceIdField).is(id))
+                        .filterArray(Criteria.where("r." + resourceIdField).is(id));
+                exists = plan.getModules().stream()
+                        .flatMap(module -> module.getTasks().stream())
+                        .flatMap(task -> task.getResources().stream())
+                        .anyMatch(resource -> id.equals(resource.getId()));
+            }
+        }
+        if (!exists) {
+            return null;
+        }
+        if (operation.getTitle() != null) {
+            update.set(path + "title", operation.getTitle());
+            change.put("title", operation.getTitle());
+        }
+        if (operation.getDescription() != null) {
+            update.set(path + descriptionField, operation.getDescription());
+            change.put("description", operation.getDescription());
+        }
+        if (template) {
+            update.inc("revision", 1);
+        }
+        return update;
+    }
+
+    /**
+     * Structural edits of a template-backed plan are written to its overlay, never to the
+     * template: additions are appended to the overlay's own modules, tasks or resources,
+     * renames become field edits and removals hide the element and drop its progress.
+     * The overlay has no ordering of its own, so MOVE and positioned ADD are rejected.
+     * Each operation is computed from the plan resolved at the version the previous one
+     * left and applied with one findAndModify guarded on that version, together with the
+     * counters recomputed from the result.
+     */
+    private LearningPlanPatchResponse patchOverlay(String planId, String userId, LearningPlan current,
+                                                   List<PlanPatchOperation> operations, long expectedVersion) {
+        for (PlanPatchOperation operation : operations) {
+            if (operation.getOp() == PlanPatchOperation.Op.MOVE
+                    || (operation.getOp() == PlanPatchOperation.Op.ADD && operation.getPosition() != null)) {
+                throw new IllegalArgumentException("Plans created from a template keep the template's order; "
+                        + operation.getOp() + " with a position is not supported");
+            }
+        }
+        
+        List<String> addedIds = new ArrayList<>();
+        int applied = 0;
+        int completedHours = current.getCompletedHours();
+        RuntimeException failure = null;
+        for (PlanPatchOperation operation : operations) {
+            long version = expectedVersion + applied;
+            String outcome = applied + " of " + operations.size() + " operations were applied";
+            Query versionQuery = new Query(Criteria.where("id").is(planId).and("version").is(version));
+            LearningPlan plan = mongoTemplate.findOne(versionQuery, LearningPlan.class);
+            if (plan == null) {
+                failure = new ConflictException("Learning plan was modified since version " + version + "; " + outcome);
+                break;
+            }
+            if (plan.getOverlay() == null) {
+                plan.setOverlay(new PlanOverlay());
             }
             
-            plan.setTitle(request.getTitle());
-            plan.setDescription(request.getDescription());
-            plan.setCategory(request.getCategory());
-            plan.setEstimatedHours(request.getEstimatedHours());
-            plan.setUpdatedAt(LocalDateTime.now());
+            Map<String, Object> change = new LinkedHashMap<>();
+            change.put("op", operation.getOp());
+            change.put("target", operation.getTarget());
+            Update update = addOverlayOperation(templateResolver.resolve(plan), operation, change, addedIds);
+            if (update == null) {
+                String target = operation.getTarget().name().charAt(0) + operation.getTarget().name().substring(1).toLowerCase(Locale.ROOT);
+                failure = new RuntimeException(target + " or its destination not found; " + outcome);
+                break;
+            }
             
-            // For simplicity, we're not updating the full structure (modules, tasks) in this method
-            // In a real application, you might want to handle this more carefully
+            // The in-memory overlay already carries the change, so resolving again gives the new counters
+            LearningPlan patched = templateResolver.resolve(plan);
+            int taskCount = 0;
+            int completedTaskCount = 0;
+            int completedMinutes = 0;
+            for (LearningModule module : patched.getModules()) {
+                for (LearningTask task : module.getTasks()) {
+                    taskCount++;
+                    if (task.getCompletedAt() != null) {
+                        completedTaskCount++;
+                        completedMinutes += task.getEstimatedMinutes();
+                    }
+                }
+            }
+            update.set("moduleCount", patched.getModules().size())
+                    .set("taskCount", taskCount)
+                    .set("completedTaskCount", completedTaskCount)
+                    .set("completedMinutes", completedMinutes)
+                    .set("completedHours", completedMinutes / 60)
+                    .set("status", PlanStructureUpdates.statusOf(completedTaskCount, taskCount))
+                    .inc("version", 1)
+                    .set("updatedAt", LocalDateTime.now());
             
-            LearningPlan savedPlan = learningPlanRepository.save(plan);
-            return convertToResponse(savedPlan);
-        } else {
+            if (mongoTemplate.findAndModify(versionQuery, update, LearningPlan.class) == null) {
+                failure = new ConflictException("Learning plan was modified since version " + version + "; " + outcome);
+                break;
+            }
+            planChangeLog.record(planId, version + 1, userId, PlanChange.Type.STRUCTURE_CHANGED, change);
+            completedHours = completedMinutes / 60;
+            applied++;
+        }
+        
+        // Removing completed tasks or modules lowers the plan's completed hours
+        if (completedHours != current.getCompletedHours()) {
+            leaderboardService.adjust(userId, current.getCategory(), completedHours - current.getCompletedHours());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return new LearningPlanPatchResponse(planId, expectedVersion + applied, addedIds);
+    }
+
+    /**
+     * Builds the overlay update for one patch operation and applies the same change to the
+     * plan's in-memory overlay
+     * @param resolved The plan resolved against its template, with its overlay
+     * @return The update, or null if the element or its destination does not exist
+     */
+    private Update addOverlayOperation(LearningPlan resolved, PlanPatchOperation operation,
+                                       Map<String, Object> change, List<String> addedIds) {
+        PlanOverlay overlay = resolved.getOverlay();
+        Map<String, LearningModule> modules = new HashMap<>();
+        Map<String, LearningTask> tasks = new HashMap<>();
+        Map<String, Resource> resources = new HashMap<>();
+        for (LearningModule module : resolved.getModules()) {
+            modules.put(module.getId(), module);
+            for (LearningTask task : module.getTasks()) {
+                tasks.put(task.getId(), task);
+                for (Resource resource : task.getResources()) {
+                    resources.put(resource.getId(), resource);
+                }
+            }
+        }
+        Map<String, ?> targets = switch (operation.getTarget()) {
+            case MODULE -> modules;
+            case TASK -> tasks;
+            case RESOURCE -> resources;
+        };
+        
+        Update update = new Update();
+        String id = operation.getId();
+        switch (operation.getOp()) {
+            case ADD -> {
+                String parentId = operation.getParentId();
+                if (operation.getTarget() != PlanPatchOperation.Target.MODULE) {
+                    Map<String, ?> parents = operation.getTarget() == PlanPatchOperation.Target.TASK ? modules : tasks;
+                    if (!parents.containsKey(parentId)) {
+                        return null;
+                    }
+                    change.put("parentId", parentId);
+                }
+                switch (operation.getTarget()) {
+                    case MODULE -> {
+                        LearningModule module = buildModule(operation.getModule());
+                        overlay.getAddedModules().add(module);
+                        update.push("overlay.addedModules", toDocument(module));
+                        id = module.getId();
+                        change.put("title", module.getTitle());
+                    }
+                    case TASK -> {
+                        LearningTask task = buildTask(operation.getTask());
+                        overlay.getAddedTasks().computeIfAbsent(parentId, key -> new ArrayList<>()).add(task);
+                        update.push("overlay.addedTasks." + parentId, toDocument(task));
+                        id = task.getId();
+                        change.put("title", task.getTitle());
+                    }
+                    case RESOURCE -> {
+                        Resource resource = buildResource(operation.getResource());
+                        overlay.getAddedResources().computeIfAbsent(parentId, key -> new ArrayList<>()).add(resource);
+                        update.push("overlay.addedResources." + parentId, toDocument(resource));
+                        id = resource.getId();
+                        change.put("title", resource.getTitle());
+                    }
+                }
+                addedIds.add(id);
+            }
+            case RENAME -> {
+                if (!targets.containsKey(id)) {
+                    return null;
+                }
+                PlanOverlay.ItemEdit edit = overlay.getEdits().computeIfAbsent(id, key -> new PlanOverlay.ItemEdit());
+                if (operation.getTitle() != null) {
+                    edit.setTitle(operation.getTitle());
+                    update.set("overlay.edits." + id + ".title", operation.getTitle());
+                    change.put("title", operation.getTitle());
+                }
+                if (operation.getDescription() != null) {
+                    edit.setDescription(operation.getDescription());
+                    update.set("overlay.edits." + id + ".description", operation.getDescription());
+                    change.put("description", operation.getDescription());
+                }
+            }
+            case REMOVE -> {
+                if (!targets.containsKey(id)) {
+                    return null;
+                }
+                overlay.getRemovedIds().add(id);
+                update.addToSet("overlay.removedIds", id);
+                
+                // Progress of removed tasks goes with them, so the overlay's completions stay countable
+                List<LearningTask> removedTasks = switch (operation.getTarget()) {
+                    case MODULE -> modules.get(id).getTasks();
+                    case TASK -> List.of(tasks.get(id));
+                    case RESOURCE -> List.of();
+                };
+                for (LearningTask task : removedTasks) {
+                    overlay.getCompletedTasks().remove(task.getId());
+                    overlay.getProgressUpdatedAt().remove(task.getId());
+                    update.unset("overlay.completedTasks." + task.getId())
+                            .unset("overlay.progressUpdatedAt." + task.getId());
+                }
+            }
+            case MOVE -> throw new IllegalStateException("MOVE is rejected before any overlay operation runs");
+        }
+        
+        change.put("id", id);
+        return update;
+    }
+
+    private Document toDocument(Object element) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(element, document);
+        document.remove("_class");
+        return document;
+    }
+
+    /**
+     * Returns the current user's learning statistics from their daily rollups.
+     * @param days How many recent days to list individually
+     * @return Totals, streaks, category breakdown and recent daily activity
+     */
+    public LearningStatsResponse getStats(int days) {
+        // Get authenticated user
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return learningStatsService.getStats(user.getId(), days);
+    }
+
+    /**
+     * Returns the changes made to a plan after a given version, so clients can catch up
+     * without downloading the whole plan again.
+     * @param planId The learning plan ID
+     * @param sinceVersion The last version the client has seen
+     * @return The current version and every change after the given one
+     */
+    public PlanChangesResponse getChangesSince(String planId, long sinceVersion) {
+        // Get authenticated user
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String userId = user.getId();
+        
+        Query referenceQuery = new Query(Criteria.where("id").is(planId));
+        referenceQuery.fields().include("userId", "version", "isTemplate");
+        LearningPlan current = mongoTemplate.findOne(referenceQuery, LearningPlan.class);
+        if (current == null) {
             throw new RuntimeException("Learning plan not found");
         }
+        if (!current.isTemplate() && !current.getUserId().equals(userId)) {
+            throw new RuntimeException("Not authorized to access this learning plan");
+        }
+        
+        long currentVersion = current.getVersion() == null ? 0 : current.getVersion();
+        return planChangeLog.since(planId, currentVersion, sinceVersion);
+    }
+
+    /**
+     * Plans stored before versioning have no version field; without one, the mapping layer
+     * would treat them as new documents on save
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillVersions() {
+        long updated = mongoTemplate.getCollection(mongoTemplate.getCollectionName(LearningPlan.class)).updateMany(
+                Filters.exists("version", false),
+                Updates.set("version", 0L)).getModifiedCount();
+        if (updated > 0) {
+            log.info("Backfilled version of {} learning plans", updated);
+        }
     }
 
     public void deleteLearningPlan(String planId) {
@@ -332,251 +1207,33 @@ public class LearningPlanService {
             }
             
             learningPlanRepository.delete(plan);
+            planChangeLog.deleteForPlan(planId);
+            if (plan.isTemplate()) {
+                templateCatalogService.invalidate();
+            } else {
+                leaderboardService.adjust(userId, plan.getCategory(), -plan.getCompletedHours());
+            }
         } else {
             throw new RuntimeException("Learning plan not found");
         }
     }
 
-    private LearningPlanResponse convertToResponse(LearningPlan plan) {
-        LearningPlanResponse response = new LearningPlanResponse();
-        response.setId(plan.getId());
-        response.setTitle(plan.getTitle());
-        response.setDescription(plan.getDescription());
-        response.setCreatedAt(plan.getCreatedAt());
-        response.setUpdatedAt(plan.getUpdatedAt());
-        response.setCompletedHours(plan.getCompletedHours());
-        
-        List<LearningModuleResponse> moduleResponses = new ArrayList<>();
-        for (LearningModule module : plan.getModules()) {
-            LearningModuleResponse moduleResponse = new LearningModuleResponse();
-            moduleResponse.setId(module.getId());
-            moduleResponse.setTitle(module.getTitle());
-            moduleResponse.setDescription(module.getDescription());
-            moduleResponse.setEstimatedHours(module.getEstimatedHours());
-            moduleResponse.setCompletedHours(module.getCompletedHours());
-            
-            List<LearningTaskResponse> taskResponses = new ArrayList<>();
-            for (LearningTask task : module.getTasks()) {
-                LearningTaskResponse taskResponse = new LearningTaskResponse();
-                taskResponse.setId(task.getId());
-                taskResponse.setTitle(task.getTitle());
-                taskResponse.setDescription(task.getDescription());
-                taskResponse.setEstimatedMinutes(task.getEstimatedMinutes());
-                taskResponse.setCompletedAt(task.getCompletedAt());
-                
-                List<ResourceResponse> resourceResponses = new ArrayList<>();
-                for (Resource resource : task.getResources()) {
-                    ResourceResponse resourceResponse = new ResourceResponse();
-                    resourceResponse.setId(resource.getId());
-                    resourceResponse.setTitle(resource.getTitle());
-                    resourceResponse.setUrl(resource.getUrl());
-                    resourceResponse.setType(resource.getType());
-                    resourceResponse.setNotes(resource.getNotes());
-                    resourceResponses.add(resourceResponse);
-                }
-                
-                taskResponse.setResources(resourceResponses);
-                taskResponses.add(taskResponse);
-            }
-            
-            moduleResponse.setTasks(taskResponses);
-            moduleResponses.add(moduleResponse);
-        }
-        
-        response.setModules(moduleResponses);
-        return response;
-    }
-    
-    // Method to create predefined templates
-    public void createPredefinedTemplates() {
-        // Check if templates already exist
-        List<LearningPlan> existingTemplates = learningPlanRepository.findByIsTemplateTrue();
-        if (!existingTemplates.isEmpty()) {
-            return; // Templates already exist
-        }
-        
-        // Create Java Development Template
-        LearningPlan javaPlan = new LearningPlan();
-        javaPlan.setTitle("Java Development Learning Path");
-        javaPlan.setDescription("A comprehensive path to learn Java development from basics to advanced topics");
-        javaPlan.setUserId("system");
-        javaPlan.setCreatedAt(LocalDateTime.now());
-        javaPlan.setUpdatedAt(LocalDateTime.now());
-        javaPlan.setTemplate(true);
-        javaPlan.setCategory("Programming");
-        javaPlan.setEstimatedHours(120);
-        
-        // Module 1: Java Basics
-        LearningModule javaBasics = new LearningModule();
-        javaBasics.setId(UUID.randomUUID().toString());
-        javaBasics.setTitle("Java Basics");
-        javaBasics.setDescription("Learn the fundamentals of Java programming");
-        javaBasics.setEstimatedHours(20);
-        
-        List<LearningTask> javaBasicsTasks = new ArrayList<>();
-        
-        LearningTask task1 = new LearningTask();
-        task1.setId(UUID.randomUUID().toString());
-        task1.setTitle("Java Syntax and Structure");
-        task1.setDescription("Learn about Java syntax, variables, and basic operations");
-        task1.setEstimatedMinutes(120);
-        
-        List<Resource> task1Resources = new ArrayList<>();
-        task1Resources.add(new Resource(UUID.randomUUID().toString(), 
-                "Java Programming for Beginners", 
-                "https://example.com/java-beginners", 
-                ResourceType.ARTICLE, 
-                "Good introduction to Java syntax"));
-        task1.setResources(task1Resources);
-        
-        javaBasicsTasks.add(task1);
-        
-        LearningTask task2 = new LearningTask();
-        task2.setId(UUID.randomUUID().toString());
-        task2.setTitle("Control Flow in Java");
-        task2.setDescription("Learn about if-else statements, loops, and switch statements");
-        task2.setEstimatedMinutes(180);
-        
-        List<Resource> task2Resources = new ArrayList<>();
-        task2Resources.add(new Resource(UUID.randomUUID().toString(), 
-                "Control Flow in Java", 
-                "https://example.com/java-control-flow", 
-                ResourceType.VIDEO, 
-                "Complete tutorial on control flow statements"));
-        task2.setResources(task2Resources);
-        
-        javaBasicsTasks.add(task2);
-        
-        javaBasics.setTasks(javaBasicsTasks);
-        
-        // Module 2: Object-Oriented Programming
-        LearningModule oopModule = new LearningModule();
-        oopModule.setId(UUID.randomUUID().toString());
-        oopModule.setTitle("Object-Oriented Programming");
-        oopModule.setDescription("Learn OOP principles in Java");
-        oopModule.setEstimatedHours(25);
-        
-        List<LearningTask> oopTasks = new ArrayList<>();
-        
-        LearningTask oopTask1 = new LearningTask();
-        oopTask1.setId(UUID.randomUUID().toString());
-        oopTask1.setTitle("Classes and Objects");
-        oopTask1.setDescription("Learn how to create and use classes and objects in Java");
-        oopTask1.setEstimatedMinutes(240);
-        
-        List<Resource> oopTask1Resources = new ArrayList<>();
-        oopTask1Resources.add(new Resource(UUID.randomUUID().toString(), 
-                "Java Classes and Objects", 
-                "https://example.com/java-classes", 
-                ResourceType.VIDEO, 
-                "Detailed explanation of classes and objects"));
-        oopTask1.setResources(oopTask1Resources);
-        
-        oopTasks.add(oopTask1);
-        
-        LearningTask oopTask2 = new LearningTask();
-        oopTask2.setId(UUID.randomUUID().toString());
-        oopTask2.setTitle("Inheritance and Polymorphism");
-        oopTask2.setDescription("Learn about inheritance, interfaces, and polymorphism");
-        oopTask2.setEstimatedMinutes(300);
-        
-        List<Resource> oopTask2Resources = new ArrayList<>();
-        oopTask2Resources.add(new Resource(UUID.randomUUID().toString(), 
-                "Java Inheritance Tutorial", 
-                "https://example.com/java-inheritance", 
-                ResourceType.ARTICLE, 
-                "Comprehensive guide to inheritance"));
-        oopTask2Resources.add(new Resource(UUID.randomUUID().toString(), 
-                "Polymorphism in Java", 
-                "https://example.com/java-polymorphism", 
-                ResourceType.VIDEO, 
-                "Video tutorial on polymorphism"));
-        oopTask2.setResources(oopTask2Resources);
-        
-        oopTasks.add(oopTask2);
-        
-        oopModule.setTasks(oopTasks);
-        
-        // Add modules to Java plan
-        List<LearningModule> javaModules = new ArrayList<>();
-        javaModules.add(javaBasics);
-        javaModules.add(oopModule);
-        javaPlan.setModules(javaModules);
-        
-        // Create Spring Boot Template
-        LearningPlan springPlan = new LearningPlan();
-        springPlan.setTitle("Spring Boot Development Path");
-        springPlan.setDescription("Learn Spring Boot framework for building enterprise applications");
-        springPlan.setUserId("system");
-        springPlan.setCreatedAt(LocalDateTime.now());
-        springPlan.setUpdatedAt(LocalDateTime.now());
-        springPlan.setTemplate(true);
-        springPlan.setCategory("Web Development");
-        springPlan.setEstimatedHours(80);
-        
-        // Module 1: Spring Boot Basics
-        LearningModule springBasics = new LearningModule();
-        springBasics.setId(UUID.randomUUID().toString());
-        springBasics.setTitle("Spring Boot Fundamentals");
-        springBasics.setDescription("Learn the fundamentals of Spring Boot framework");
-        springBasics.setEstimatedHours(15);
-        
-        List<LearningTask> springBasicsTasks = new ArrayList<>();
-        
-        LearningTask springTask1 = new LearningTask();
-        springTask1.setId(UUID.randomUUID().toString());
-        springTask1.setTitle("Spring Boot Introduction");
-        springTask1.setDescription("Introduction to Spring Boot framework and its benefits");
-        springTask1.setEstimatedMinutes(180);
-        
-        List<Resource> springTask1Resources = new ArrayList<>();
-        springTask1Resources.add(new Resource(UUID.randomUUID().toString(), 
-                "Spring Boot Introduction", 
-                "https://example.com/spring-boot-intro", 
-                ResourceType.ARTICLE, 
-                "Official Spring Boot documentation"));
-        springTask1.setResources(springTask1Resources);
-        
-        springBasicsTasks.add(springTask1);
-        
-        LearningTask springTask2 = new LearningTask();
-        springTask2.setId(UUID.randomUUID().toString());
-        springTask2.setTitle("Creating RESTful APIs");
-        springTask2.setDescription("Learn how to create RESTful APIs with Spring Boot");
-        springTask2.setEstimatedMinutes(240);
-        
-        List<Resource> springTask2Resources = new ArrayList<>();
-        springTask2Resources.add(new Resource(UUID.randomUUID().toString(), 
-                "Building a RESTful Web Service", 
-                "https://example.com/spring-boot-rest", 
-                ResourceType.EXERCISE, 
-                "Hands-on tutorial for building RESTful APIs"));
-        springTask2.setResources(springTask2Resources);
-        
-        springBasicsTasks.add(springTask2);
-        
-        springBasics.setTasks(springBasicsTasks);
-        
-        // Add modules to Spring plan
-        List<LearningModule> springModules = new ArrayList<>();
-        springModules.add(springBasics);
-        springPlan.setModules(springModules);
-        
-        // Save templates
-        learningPlanRepository.save(javaPlan);
-        learningPlanRepository.save(springPlan);
-    }
-
     /**
      * Retrieves learning plans by their status for the current user.
      * @param status The status to filter learning plans by
      * @return List of learning plans matching the specified status
      */
     public List<LearningPlanResponse> getLearningPlansByStatus(String status) {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-        return learningPlanRepository.findByUserIdAndStatus(userId, status)
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        PlanStatus planStatus;
+        try {
+            planStatus = PlanStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+        return learningPlanRepository.findByUserIdAndStatus(user.getId(), planStatus)
                 .stream()
-                .map(this::convertToResponse)
+                .map(learningPlanMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
@@ -586,10 +1243,10 @@ public class LearningPlanService {
      * @return List of learning plans in the specified category
      */
     public List<LearningPlanResponse> getLearningPlansByCategory(String category) {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-        return learningPlanRepository.findByUserIdAndCategory(userId, category)
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return learningPlanRepository.findByUserIdAndCategory(user.getId(), category)
                 .stream()
-                .map(this::convertToResponse)
+                .map(learningPlanMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
@@ -600,10 +1257,10 @@ public class LearningPlanService {
      * @return List of learning plans within the specified time range
      */
     public List<LearningPlanResponse> getLearningPlansByTimeRange(int minHours, int maxHours) {
-        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-        return learningPlanRepository.findByUserIdAndEstimatedHoursBetween(userId, minHours, maxHours)
+        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return learningPlanRepository.findByUserIdAndEstimatedHoursBetween(user.getId(), minHours, maxHours)
                 .stream()
-                .map(this::convertToResponse)
+                .map(learningPlanMapper::toResponse)
                 .collect(Collectors.toList());
     }
 }
\ No newline at end of file
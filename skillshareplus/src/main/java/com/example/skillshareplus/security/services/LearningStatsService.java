@@ -0,0 +1,239 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.LearningStatsResponse;
+import com.example.skillshareplus.model.DailyLearningStats;
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.LearningTask;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Learner statistics kept as daily rollups per user.
+ * Every completed or reopened task is applied as an $inc upsert on the rollup of the day it
+ * was completed, so reading stats touches one small document per active day instead of
+ * every task of every plan.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LearningStatsService {
+
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final int BATCH_SIZE = 500;
+    private static final String MIGRATIONS = "migrations";
+    private static final String BACKFILL_MIGRATION = "learningStatsBackfill";
+
+    private final MongoTemplate mongoTemplate;
+    private final TemplateResolver templateResolver;
+
+    /**
+     * Count a task completion
+     * @param userId The learner
+     * @param category Category of the plan the task belongs to
+     * @param completedAt When the task was completed
+     * @param minutes The task's estimated minutes
+     */
+    public void recordCompletion(String userId, String category, LocalDateTime completedAt, int minutes) {
+        record(List.of(Delta.completed(userId, category, completedAt, minutes)));
+    }
+
+    /**
+     * Apply a batch of completion changes in one unordered bulk write
+     */
+    public void record(Collection<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Merge changes to the same day first so each rollup gets one update
+        Map<String, Delta> merged = new LinkedHashMap<>();
+        for (Delta delta : deltas) {
+            merged.merge(DailyLearningStats.idOf(delta.userId, delta.date), delta, Delta::plus);
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyLearningStats.class);
+        for (Map.Entry<String, Delta> entry : merged.entrySet()) {
+            Delta delta = entry.getValue();
+            Update update = new Update()
+                    .setOnInsert("userId", delta.userId)
+                    .setOnInsert("date", delta.date)
+                    .inc("completedTasks", delta.tasks)
+                    .inc("completedMinutes", delta.minutes);
+            delta.minutesByCategory.forEach((category, minutes) -> update.inc("minutesByCategory." + category, minutes));
+            bulkOps.upsert(new Query(Criteria.where("id").is(entry.getKey())), update);
+        }
+        bulkOps.execute();
+    }
+
+    /**
+     * @param userId The learner
+     * @param days How many recent days to list individually
+     * @return Totals, streaks, category breakdown and recent daily activity
+     */
+    public LearningStatsResponse getStats(String userId, int days) {
+        Query query = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "date"));
+        List<DailyLearningStats> rollups = mongoTemplate.find(query, DailyLearningStats.class);
+
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = today.minusDays(Math.max(days, 1) - 1L);
+        int totalMinutes = 0;
+        int totalTasks = 0;
+        Map<String, Integer> minutesByCategory = new TreeMap<>();
+        List<LearningStatsResponse.Day> recent = new ArrayList<>();
+        List<LocalDate> activeDays = new ArrayList<>();
+
+        for (DailyLearningStats rollup : rollups) {
+            totalMinutes += rollup.getCompletedMinutes();
+            totalTasks += rollup.getCompletedTasks();
+            rollup.getMinutesByCategory().forEach((category, minutes) -> minutesByCategory.merge(category, minutes, Integer::sum));
+            // Days whose completions were all reopened stay behind with zero counts
+            if (rollup.getCompletedTasks() > 0) {
+                activeDays.add(rollup.getDate());
+                if (!rollup.getDate().isBefore(windowStart)) {
+                    recent.add(new LearningStatsResponse.Day(rollup.getDate(), rollup.getCompletedTasks(), rollup.getCompletedMinutes()));
+                }
+            }
+        }
+        minutesByCategory.values().removeIf(minutes -> minutes <= 0);
+
+        // Active days are most recent first; a streak is still current if it ended yesterday
+        int currentStreak = 0;
+        if (!activeDays.isEmpty() && !activeDays.get(0).isBefore(today.minusDays(1))) {
+            currentStreak = 1;
+            while (currentStreak < activeDays.size()
+                    && activeDays.get(currentStreak).equals(activeDays.get(currentStreak - 1).minusDays(1))) {
+                currentStreak++;
+            }
+        }
+        int longestStreak = 0;
+        int run = 0;
+        for (int i = 0; i < activeDays.size(); i++) {
+            run = i > 0 && activeDays.get(i).equals(activeDays.get(i - 1).minusDays(1)) ? run + 1 : 1;
+            longestStreak = Math.max(longestStreak, run);
+        }
+
+        return new LearningStatsResponse(totalMinutes, totalTasks, currentStreak, longestStreak, minutesByCategory, recent);
+    }
+
+    /**
+     * Plans completed before rollups existed are counted once. The run is claimed with a
+     * marker in the migrations collection and marked done when it finishes, so an instance
+     * starting while or after another one backfills never counts the same tasks again;
+     * completions after the claim are left to the live path.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        Document claim = new Document("_id", BACKFILL_MIGRATION).append("startedAt", cutoff);
+        if (!mongoTemplate.exists(new Query(Criteria.where("_id").is(BACKFILL_MIGRATION)), MIGRATIONS)
+                && mongoTemplate.exists(new Query(), DailyLearningStats.class)) {
+            // Rollups from before the marker existed: that backfill already ran, record it as done
+            claim.append("completedAt", cutoff);
+        }
+        try {
+            mongoTemplate.insert(claim, MIGRATIONS);
+            if (claim.get("completedAt") != null) {
+                return;
+            }
+        } catch (DuplicateKeyException e) {
+            Document marker = mongoTemplate.findById(BACKFILL_MIGRATION, Document.class, MIGRATIONS);
+            if (marker != null && marker.get("completedAt") == null) {
+                // Rerunning a partial backfill would count its tasks twice
+                log.warn("Learning stats backfill started at {} never completed; the rollups may be missing older completions",
+                        marker.get("startedAt"));
+            }
+            return;
+        }
+
+        Query query = new Query(Criteria.where("isTemplate").is(false));
+        query.fields().include("userId", "category", "templateId", "templateRevision", "overlay",
+                "modules.id", "modules.tasks.id", "modules.tasks.estimatedMinutes", "modules.tasks.completedAt");
+
+        List<Delta> pending = new ArrayList<>();
+        int total = 0;
+        try (Stream<LearningPlan> plans = mongoTemplate.stream(query, LearningPlan.class)) {
+            for (LearningPlan plan : (Iterable<LearningPlan>) plans::iterator) {
+                for (LearningModule module : templateResolver.resolve(plan).getModules()) {
+                    for (LearningTask task : module.getTasks()) {
+                        if (task.getCompletedAt() != null && task.getCompletedAt().isBefore(cutoff)) {
+                            pending.add(Delta.completed(plan.getUserId(), plan.getCategory(), task.getCompletedAt(), task.getEstimatedMinutes()));
+                        }
+                    }
+                }
+                if (pending.size() >= BATCH_SIZE) {
+                    total += pending.size();
+                    record(pending);
+                    pending.clear();
+                }
+            }
+        }
+        total += pending.size();
+        record(pending);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(BACKFILL_MIGRATION)),
+                new Update().set("completedAt", LocalDateTime.now()).set("tasks", total), MIGRATIONS);
+
+        if (total > 0) {
+            log.info("Backfilled learning stats from {} completed tasks", total);
+        }
+    }
+
+    /**
+     * A change to one user's rollup for one day
+     */
+    public static final class Delta {
+        private final String userId;
+        private final LocalDate date;
+        private final int tasks;
+        private final int minutes;
+        private final Map<String, Integer> minutesByCategory;
+
+        private Delta(String userId, LocalDate date, int tasks, int minutes, Map<String, Integer> minutesByCategory) {
+            this.userId = userId;
+            this.date = date;
+            this.tasks = tasks;
+            this.minutes = minutes;
+            this.minutesByCategory = minutesByCategory;
+        }
+
+        public static Delta completed(String userId, String category, LocalDateTime completedAt, int minutes) {
+            return new Delta(userId, completedAt.toLocalDate(), 1, minutes, Map.of(categoryKey(category), minutes));
+        }
+
+        public static Delta reopened(String userId, String category, LocalDateTime completedAt, int minutes) {
+            return new Delta(userId, completedAt.toLocalDate(), -1, -minutes, Map.of(categoryKey(category), -minutes));
+        }
+
+        private Delta plus(Delta other) {
+            Map<String, Integer> categories = new HashMap<>(minutesByCategory);
+            other.minutesByCategory.forEach((category, value) -> categories.merge(category, value, Integer::sum));
+            return new Delta(userId, date, tasks + other.tasks, minutes + other.minutes, categories);
+        }
+
+        // Categories become field names, which cannot contain dots or start with $
+        private static String categoryKey(String category) {
+            if (category == null || category.isBlank()) {
+                return UNCATEGORIZED;
+            }
+            String key = category.replace('.', '_');
+            return key.startsWith("$") ? "_" + key.substring(1) : key;
+        }
+    }
+}
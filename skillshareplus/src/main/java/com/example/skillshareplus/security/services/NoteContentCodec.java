@@ -0,0 +1,105 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.Note;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores large note contents zlib-compressed. A compressed note keeps its preview and length
+ * in plain fields, so listings never decompress; the content itself is only inflated when
+ * someone asks for all of it.
+ */
+public final class NoteContentCodec {
+
+    // Not worth a compressed copy unless it saves at least an eighth
+    private static final int MIN_SAVING_DIVISOR = 8;
+
+    private NoteContentCodec() {
+    }
+
+    /**
+     * Compress the note's content in place if it is above the threshold and compresses well,
+     * otherwise make sure it is stored plain
+     */
+    static void pack(Note note, int thresholdBytes, int previewLength) {
+        String content = content(note);
+        note.setContent(content);
+        note.setContentCompressed(false);
+        note.setCompressedContent(null);
+        note.setContentPreview(null);
+        note.setContentLength(null);
+        if (content == null) {
+            return;
+        }
+
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < thresholdBytes) {
+            return;
+        }
+        byte[] compressed = deflate(raw);
+        if (compressed.length > raw.length - raw.length / MIN_SAVING_DIVISOR) {
+            return;
+        }
+
+        int codePoints = content.codePointCount(0, content.length());
+        note.setContent(null);
+        note.setContentCompressed(true);
+        note.setCompressedContent(compressed);
+        note.setContentPreview(content.substring(0, content.offsetByCodePoints(0, Math.min(previewLength, codePoints))));
+        note.setContentLength(codePoints);
+    }
+
+    /**
+     * The note's full content, inflated if it is stored compressed. Plain content wins, as it
+     * is what an edit sets before the note is packed again
+     */
+    public static String content(Note note) {
+        if (note.getContent() != null || !note.isContentCompressed() || note.getCompressedContent() == null) {
+            return note.getContent();
+        }
+        return new String(inflate(note.getCompressedContent()), StandardCharsets.UTF_8);
+    }
+
+    static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated note content");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt compressed note content", e));
+        } finally {
+            inflater.end();
+        }
+    }
+}
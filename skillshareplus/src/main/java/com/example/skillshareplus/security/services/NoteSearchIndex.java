@@ -0,0 +1,527 @@
+package com.example.skillshareplus.security.services;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Positional inverted index over note titles and contents, with posting lists kept in
+ * primitive int arrays. Notes get increasing ordinals, so every posting list stays sorted
+ * and a note is updated by retiring its old ordinal and appending a new one; retired
+ * ordinals are dropped by compacting once they make up a quarter of the index.
+ * Title terms take the first positions of a note and content terms follow after a gap,
+ * so phrases never span the two and title matches can be boosted.
+ * Thread-safe: searches share a read lock, changes take the write lock.
+ */
+final class NoteSearchIndex {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int CONTENT_POSITION_GAP = 16;
+    private static final int MAX_CLAUSES = 16;
+    private static final float TITLE_BOOST = 2f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<String, Integer> userOrdinals = new HashMap<>();
+    private final List<String> userIds = new ArrayList<>();
+    private final BitSet retired = new BitSet();
+
+    private String[] noteIds = new String[1024];
+    private int[] userOf = new int[1024];
+    private int[] lengthOf = new int[1024];
+    private int[] titleLengthOf = new int[1024];
+    private int docCount;
+    private int retiredCount;
+    private long liveLength;
+
+    /**
+     * A search result; the note's text is not kept in the index
+     */
+    static final class Hit {
+        final String noteId;
+        final double score;
+
+        Hit(String noteId, double score) {
+            this.noteId = noteId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Add a note, or replace the indexed version of it
+     */
+    void put(String noteId, String userId, String title, String content) {
+        List<String> titleTerms = NoteTextAnalyzer.terms(title);
+        List<String> contentTerms = NoteTextAnalyzer.terms(content);
+
+        lock.writeLock().lock();
+        try {
+            retireLocked(noteId);
+            addLocked(noteId, userId, titleTerms, contentTerms);
+            compactIfNeededLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String noteId) {
+        lock.writeLock().lock();
+        try {
+            retireLocked(noteId);
+            compactIfNeededLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search within one user's notes; every clause must match
+     * @param userId Owner of the notes to search
+     * @param clauses Parsed query, see {@link NoteTextAnalyzer#parseQuery}
+     * @param limit Maximum number of hits
+     * @return Best hits first, scored with BM25 and title matches counted double
+     */
+    List<Hit> search(String userId, List<List<String>> clauses, int limit) {
+        if (clauses.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<List<String>> used = clauses.size() > MAX_CLAUSES ? clauses.subList(0, MAX_CLAUSES) : clauses;
+
+        lock.readLock().lock();
+        try {
+            Integer user = userOrdinals.get(userId);
+            if (user == null) {
+                return Collections.emptyList();
+            }
+
+            // Resolve every term; a term that occurs nowhere means nothing can match
+            Postings[][] clausePostings = new Postings[used.size()][];
+            double[] idf = new double[used.size()];
+            Postings lead = null;
+            int liveDocs = ordinals.size();
+            for (int c = 0; c < used.size(); c++) {
+                List<String> terms = used.get(c);
+                clausePostings[c] = new Postings[terms.size()];
+                for (int t = 0; t < terms.size(); t++) {
+                    Postings termPostings = postings.get(terms.get(t));
+                    if (termPostings == null) {
+                        return Collections.emptyList();
+                    }
+                    clausePostings[c][t] = termPostings;
+                    // Postings of retired notes are counted until compaction, so df can exceed liveDocs
+                    int df = Math.min(termPostings.size, liveDocs);
+                    idf[c] += Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                    if (lead == null || termPostings.size < lead.size) {
+                        lead = termPostings;
+                    }
+                }
+            }
+
+            double averageLength = liveDocs == 0 ? 1 : Math.max(1, (double) liveLength / liveDocs);
+            PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(hit -> hit.score));
+            float[] counts = new float[2];
+            for (int i = 0; i < lead.size; i++) {
+                int doc = lead.docs[i];
+                if (userOf[doc] != user || retired.get(doc)) {
+                    continue;
+                }
+
+                double score = 0;
+                double lengthNorm = K1 * (1 - B + B * lengthOf[doc] / averageLength);
+                boolean matched = true;
+                for (int c = 0; c < clausePostings.length && matched; c++) {
+                    matched = countMatches(clausePostings[c], doc, titleLengthOf[doc], counts);
+                    double tf = counts[0] + (TITLE_BOOST - 1) * counts[1];
+                    score += idf[c] * tf * (K1 + 1) / (tf + lengthNorm);
+                }
+                if (!matched) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(new Hit(noteIds[doc], score));
+                } else if (score > top.peek().score) {
+                    top.poll();
+                    top.add(new Hit(noteIds[doc], score));
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble((Hit hit) -> -hit.score));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts occurrences of a term or phrase in one note
+     * @param counts Receives the total count and the count within the title
+     * @return Whether there was at least one occurrence
+     */
+    private static boolean countMatches(Postings[] phrase, int doc, int titleLength, float[] counts) {
+        int[] index = new int[phrase.length];
+        for (int t = 0; t < phrase.length; t++) {
+            index[t] = Arrays.binarySearch(phrase[t].docs, 0, phrase[t].size, doc);
+            if (index[t] < 0) {
+                return false;
+            }
+        }
+
+        Postings first = phrase[0];
+        int from = first.positionStart(index[0]);
+        int to = first.positionEnd(index[0]);
+        int total = 0;
+        int inTitle = 0;
+        for (int p = from; p < to; p++) {
+            int position = first.positions[p];
+            boolean matched = true;
+            for (int t = 1; t < phrase.length && matched; t++) {
+                Postings next = phrase[t];
+                matched = Arrays.binarySearch(next.positions, next.positionStart(index[t]), next.positionEnd(index[t]), position + t) >= 0;
+            }
+            if (matched) {
+                total++;
+                if (position < titleLength) {
+                    inTitle++;
+                }
+            }
+        }
+        counts[0] = total;
+        counts[1] = inTitle;
+        return total > 0;
+    }
+
+    private void addLocked(String noteId, String userId, List<String> titleTerms, List<String> contentTerms) {
+        int doc = docCount++;
+        if (doc == noteIds.length) {
+            int capacity = noteIds.length * 2;
+            noteIds = Arrays.copyOf(noteIds, capacity);
+            userOf = Arrays.copyOf(userOf, capacity);
+            lengthOf = Arrays.copyOf(lengthOf, capacity);
+            titleLengthOf = Arrays.copyOf(titleLengthOf, capacity);
+        }
+
+        Integer user = userOrdinals.get(userId);
+        if (user == null) {
+            user = userIds.size();
+            userOrdinals.put(userId, user);
+            userIds.add(userId);
+        }
+        noteIds[doc] = noteId;
+        userOf[doc] = user;
+        lengthOf[doc] = titleTerms.size() + contentTerms.size();
+        titleLengthOf[doc] = titleTerms.size();
+        ordinals.put(noteId, doc);
+        liveLength += lengthOf[doc];
+
+        // Positions of each term in this note, in order
+        Map<String, int[]> termPositions = new LinkedHashMap<>();
+        int contentStart = titleTerms.size() + CONTENT_POSITION_GAP;
+        for (int i = 0; i < titleTerms.size(); i++) {
+            appendPosition(termPositions, titleTerms.get(i), i);
+        }
+        for (int i = 0; i < contentTerms.size(); i++) {
+            appendPosition(termPositions, contentTerms.get(i), contentStart + i);
+        }
+        for (Map.Entry<String, int[]> entry : termPositions.entrySet()) {
+            int[] positions = entry.getValue();
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings())
+                    .add(doc, positions, 1, positions[0]);
+        }
+    }
+
+    // Slot 0 holds the count, the positions follow
+    private static void appendPosition(Map<String, int[]> termPositions, String term, int position) {
+        int[] positions = termPositions.get(term);
+        if (positions == null) {
+            positions = new int[4];
+        } else if (positions[0] + 1 == positions.length) {
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        }
+        positions[++positions[0]] = position;
+        termPositions.put(term, positions);
+    }
+
+    private void retireLocked(String noteId) {
+        Integer doc = ordinals.remove(noteId);
+        if (doc != null) {
+            retired.set(doc);
+            retiredCount++;
+            liveLength -= lengthOf[doc];
+        }
+    }
+
+    private void compactIfNeededLocked() {
+        if (retiredCount < 64 || retiredCount * 4 < docCount) {
+            return;
+        }
+
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (retired.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            remap[doc] = live;
+            noteIds[live] = noteIds[doc];
+            userOf[live] = userOf[doc];
+            lengthOf[live] = lengthOf[doc];
+            titleLengthOf[live] = titleLengthOf[doc];
+            ordinals.put(noteIds[live], live);
+            live++;
+        }
+        Arrays.fill(noteIds, live, docCount, null);
+
+        Iterator<Postings> iterator = postings.values().iterator();
+        while (iterator.hasNext()) {
+            Postings termPostings = iterator.next();
+            termPostings.compact(remap);
+            if (termPostings.size == 0) {
+                iterator.remove();
+            }
+        }
+        docCount = live;
+        retired.clear();
+        retiredCount = 0;
+    }
+
+    /**
+     * Write every live note's postings, so the index can be restored without re-analysing text
+     */
+    void writeSnapshot(OutputStream out) throws IOException {
+        // Varints are written a byte at a time
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        lock.readLock().lock();
+        try {
+            // Live notes get dense ordinals in the snapshot
+            int[] remap = new int[docCount];
+            int live = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                remap[doc] = retired.get(doc) ? -1 : live++;
+            }
+
+            data.writeInt(FORMAT_VERSION);
+            data.writeInt(live);
+            for (int doc = 0; doc < docCount; doc++) {
+                if (remap[doc] >= 0) {
+                    data.writeUTF(noteIds[doc]);
+                    data.writeUTF(userIds.get(userOf[doc]));
+                    writeVarInt(data, lengthOf[doc]);
+                    writeVarInt(data, titleLengthOf[doc]);
+                }
+            }
+
+            data.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings termPostings = entry.getValue();
+                int liveCount = 0;
+                for (int i = 0; i < termPostings.size; i++) {
+                    if (remap[termPostings.docs[i]] >= 0) {
+                        liveCount++;
+                    }
+                }
+                data.writeUTF(entry.getKey());
+                writeVarInt(data, liveCount);
+                int previousDoc = 0;
+                for (int i = 0; i < termPostings.size; i++) {
+                    int doc = remap[termPostings.docs[i]];
+                    if (doc < 0) {
+                        continue;
+                    }
+                    writeVarInt(data, doc - previousDoc);
+                    previousDoc = doc;
+                    int from = termPostings.positionStart(i);
+                    int to = termPostings.positionEnd(i);
+                    writeVarInt(data, to - from);
+                    int previousPosition = 0;
+                    for (int p = from; p < to; p++) {
+                        writeVarInt(data, termPostings.positions[p] - previousPosition);
+                        previousPosition = termPostings.positions[p];
+                    }
+                }
+            }
+            data.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index with a snapshot written by {@link #writeSnapshot}
+     */
+    void readSnapshot(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        int format = data.readInt();
+        if (format != FORMAT_VERSION) {
+            throw new IOException("Unsupported note index format " + format);
+        }
+
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            int count = data.readInt();
+            int[] ordinalOfSnapshotDoc = new int[count];
+            for (int i = 0; i < count; i++) {
+                String noteId = data.readUTF();
+                String userId = data.readUTF();
+                int length = readVarInt(data);
+                int titleLength = readVarInt(data);
+                addLocked(noteId, userId, Collections.emptyList(), Collections.emptyList());
+                int doc = docCount - 1;
+                lengthOf[doc] = length;
+                titleLengthOf[doc] = titleLength;
+                liveLength += length;
+                ordinalOfSnapshotDoc[i] = doc;
+            }
+
+            int termCount = data.readInt();
+            for (int t = 0; t < termCount; t++) {
+                String term = data.readUTF();
+                int size = readVarInt(data);
+                Postings termPostings = new Postings(size);
+                int doc = 0;
+                int[] positions = new int[8];
+                for (int i = 0; i < size; i++) {
+                    doc += readVarInt(data);
+                    int frequency = readVarInt(data);
+                    if (positions.length < frequency) {
+                        positions = new int[Math.max(frequency, positions.length * 2)];
+                    }
+                    int position = 0;
+                    for (int p = 0; p < frequency; p++) {
+                        position += readVarInt(data);
+                        positions[p] = position;
+                    }
+                    termPostings.add(ordinalOfSnapshotDoc[doc], positions, 0, frequency);
+                }
+                postings.put(term, termPostings);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearLocked() {
+        postings.clear();
+        ordinals.clear();
+        userOrdinals.clear();
+        userIds.clear();
+        retired.clear();
+        Arrays.fill(noteIds, 0, docCount, null);
+        docCount = 0;
+        retiredCount = 0;
+        liveLength = 0;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in note index");
+    }
+
+    /**
+     * Notes containing one term, in ordinal order, each with its positions
+     */
+    private static final class Postings {
+        private int[] docs;
+        // End of each note's positions in the shared positions array
+        private int[] positionEnds;
+        private int[] positions;
+        private int size;
+        private int positionCount;
+
+        private Postings() {
+            this(2);
+        }
+
+        private Postings(int capacity) {
+            docs = new int[Math.max(capacity, 1)];
+            positionEnds = new int[Math.max(capacity, 1)];
+            positions = new int[Math.max(capacity, 2)];
+        }
+
+        private void add(int doc, int[] source, int from, int count) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                positionEnds = Arrays.copyOf(positionEnds, size * 2);
+            }
+            if (positionCount + count > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, positionCount + count));
+            }
+            System.arraycopy(source, from, positions, positionCount, count);
+            positionCount += count;
+            docs[size] = doc;
+            positionEnds[size] = positionCount;
+            size++;
+        }
+
+        private int positionStart(int i) {
+            return i == 0 ? 0 : positionEnds[i - 1];
+        }
+
+        private int positionEnd(int i) {
+            return positionEnds[i];
+        }
+
+        private void compact(int[] remap) {
+            int kept = 0;
+            int keptPositions = 0;
+            // Start of the current note's positions before compaction; positionEnds is overwritten as we go
+            int from = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                int to = positionEnds[i];
+                if (doc < 0) {
+                    from = to;
+                    continue;
+                }
+                System.arraycopy(positions, from, positions, keptPositions, to - from);
+                keptPositions += to - from;
+                docs[kept] = doc;
+                positionEnds[kept] = keptPositions;
+                kept++;
+                from = to;
+            }
+            size = kept;
+            positionCount = keptPositions;
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.NoteSearchResponse;
+import com.example.skillshareplus.model.Note;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-text search over each user's note titles and contents, served from an in-process
+ * {@link NoteSearchIndex} that is updated as notes are created, edited and deleted.
+ * The index is persisted to GridFS as segments: a base segment holding the analysed
+ * postings, followed by delta segments holding only the notes changed since. A restart
+ * loads the base, replays the deltas and re-indexes only notes updated after the last
+ * segment, instead of re-analysing every note.
+ * Only a single instance is supported: segment sequence numbers come from this instance's
+ * own counter, a new base deletes every older segment, and the index only sees the notes
+ * changed through this instance, so several instances would overwrite each other's segments
+ * and miss each other's edits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NoteSearchService {
+
+    private static final String SEGMENT_PREFIX = "note-index-";
+    private static final int DELTA_FORMAT_VERSION = 1;
+    private static final int SNIPPET_LEAD = 40;
+    // Notes saved just before a segment was taken may have been indexed just after it
+    private static final long CATCH_UP_OVERLAP_SECONDS = 60;
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final NoteSearchIndex index = new NoteSearchIndex();
+    // Changes not yet in a segment; a null value marks a deleted note. Guarded by itself
+    private final Map<String, Note> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "note-index-persist");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by the monitor of this service
+    private long lastSequence;
+    private int deltasSinceBase;
+
+    @Value("${app.notes.search.max-results:50}")
+    private int maxResults;
+
+    @Value("${app.notes.search.snippet-length:160}")
+    private int snippetLength;
+
+    @Value("${app.notes.search.persist-interval-seconds:60}")
+    private long persistIntervalSeconds;
+
+    @Value("${app.notes.search.max-delta-segments:20}")
+    private int maxDeltaSegments;
+
+    @PostConstruct
+    void registerMetrics() {
+        new ExecutorServiceMetrics(scheduler, "note-index-persist", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("notes.search.indexed", index, NoteSearchIndex::size)
+                .description("Notes in the search index")
+                .register(meterRegistry);
+        Gauge.builder("notes.search.pending", pending, changes -> {
+                    synchronized (changes) {
+                        return changes.size();
+                    }
+                })
+                .description("Note changes not yet persisted in an index segment")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Index a created or edited note
+     */
+    public void index(Note note) {
+        if (note.getUserId() == null) {
+            return;
+        }
+        index.put(note.getId(), note.getUserId(), note.getTitle(), NoteContentCodec.content(note));
+        synchronized (pending) {
+            pending.remove(note.getId());
+            pending.put(note.getId(), note);
+        }
+    }
+
+    public void remove(String noteId) {
+        index.remove(noteId);
+        synchronized (pending) {
+            pending.remove(noteId);
+            pending.put(noteId, null);
+        }
+    }
+
+    /**
+     * Search the user's notes
+     * @param userId Owner of the notes
+     * @param query Terms that must all occur; "quoted text" must occur as a phrase
+     * @param limit Maximum number of results
+     * @return Best matches first, with highlighted title and content snippet
+     */
+    public NoteSearchResponse search(String userId, String query, int limit) {
+        List<List<String>> clauses = NoteTextAnalyzer.parseQuery(query);
+        List<NoteSearchIndex.Hit> hits = index.search(userId, clauses, Math.min(Math.max(limit, 1), maxResults));
+        if (hits.isEmpty()) {
+            return new NoteSearchResponse(query, Collections.emptyList());
+        }
+
+        List<String> ids = hits.stream().map(hit -> hit.noteId).toList();
+        Query notesQuery = new Query(Criteria.where("id").in(ids).and("userId").is(userId).and("deleted").ne(true));
+        notesQuery.fields().include("title", "content", "contentCompressed", "compressedContent");
+        Map<String, Note> notes = new HashMap<>();
+        for (Note note : mongoTemplate.find(notesQuery, Note.class)) {
+            notes.put(note.getId(), note);
+        }
+
+        Set<String> terms = new HashSet<>();
+        clauses.forEach(terms::addAll);
+        List<NoteSearchResponse.Hit> results = new ArrayList<>();
+        for (NoteSearchIndex.Hit hit : hits) {
+            Note note = notes.get(hit.noteId);
+            if (note == null) {
+                // Deleted without the index hearing about it; drop it from the index too
+                remove(hit.noteId);
+                continue;
+            }
+            String title = note.getTitle() != null ? note.getTitle() : "";
+            String content = Objects.requireNonNullElse(NoteContentCodec.content(note), "");
+            int snippetStart = snippetStart(content, terms);
+            String snippet = content.substring(snippetStart, Math.min(content.length(), snippetStart + snippetLength));
+            results.add(new NoteSearchResponse.Hit(note.getId(), title, hit.score,
+                    highlights(title, terms), snippet, highlights(snippet, terms)));
+        }
+        return new NoteSearchResponse(query, results);
+    }
+
+    /**
+     * Load the index from its segments, or build it from all notes if there are none
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime loadedUpTo = null;
+        try {
+            loadedUpTo = loadSegments();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load note search index segments, rebuilding: {}", e.getMessage());
+        }
+
+        if (loadedUpTo == null) {
+            index.clear();
+            long indexed = indexNotes(new Query(Criteria.where("deleted").ne(true)), false);
+            log.info("Note search index built from {} notes", indexed);
+            synchronized (this) {
+                // The base written on the first run covers everything
+                deltasSinceBase = maxDeltaSegments;
+            }
+        } else {
+            Date since = Date.from(loadedUpTo.minusSeconds(CATCH_UP_OVERLAP_SECONDS).atZone(ZoneId.systemDefault()).toInstant());
+            long indexed = indexNotes(new Query(Criteria.where("updatedAt").gte(since)), true);
+            log.info("Note search index loaded with {} notes, {} caught up", index.size(), indexed);
+        }
+
+        // Changes made through the API while loading may have been overwritten
+        List<Note> changes = new ArrayList<>();
+        List<String> deletions = new ArrayList<>();
+        synchronized (pending) {
+            pending.forEach((noteId, note) -> {
+                if (note == null) {
+                    deletions.add(noteId);
+                } else {
+                    changes.add(note);
+                }
+            });
+        }
+        changes.forEach(note -> index.put(note.getId(), note.getUserId(), note.getTitle(), NoteContentCodec.content(note)));
+        deletions.forEach(index::remove);
+
+        scheduler.execute(this::persistSafely);
+        scheduler.scheduleWithFixedDelay(this::persistSafely, persistIntervalSeconds, persistIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Write the pending changes as a delta segment, or the whole index as a new base segment
+     * once there are enough deltas to make replaying them slow
+     */
+    public synchronized void persist() throws IOException {
+        Map<String, Note> changes;
+        synchronized (pending) {
+            if (pending.isEmpty() && deltasSinceBase < maxDeltaSegments) {
+                return;
+            }
+            changes = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        LocalDateTime takenAt = LocalDateTime.now();
+
+        try {
+            if (deltasSinceBase >= maxDeltaSegments) {
+                writeSegment(true, takenAt, index.size(), index::writeSnapshot);
+                deltasSinceBase = 0;
+                // Older segments are covered by the new base
+                gridFsTemplate.delete(new Query(Criteria.where("filename").regex("^" + SEGMENT_PREFIX)
+                        .and("metadata.seq").lt(lastSequence)));
+            } else {
+                writeSegment(false, takenAt, changes.size(), out -> writeDelta(changes, out));
+                deltasSinceBase++;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Retry on the next run, without overwriting anything newer
+            synchronized (pending) {
+                changes.forEach(pending::putIfAbsent);
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        persistSafely();
+    }
+
+    private void persistSafely() {
+        try {
+            persist();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Persisting the note search index failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return When the last loaded segment was taken, or null if there is no base segment
+     */
+    private LocalDateTime loadSegments() throws IOException {
+        // New segments must sort after every existing one, even if none of them can be read
+        GridFSFile latest = gridFsTemplate.findOne(new Query(Criteria.where("filename").regex("^" + SEGMENT_PREFIX))
+                .with(Sort.by(Sort.Direction.DESC, "metadata.seq")).limit(1));
+        if (latest == null) {
+            return null;
+        }
+        synchronized (this) {
+            lastSequence = latest.getMetadata().getLong("seq");
+        }
+
+        Query baseQuery = new Query(Criteria.where("filename").regex("^" + SEGMENT_PREFIX).and("metadata.base").is(true))
+                .with(Sort.by(Sort.Direction.DESC, "metadata.seq"));
+        GridFSFile base = gridFsTemplate.findOne(baseQuery.limit(1));
+        if (base == null) {
+            return null;
+        }
+        try (InputStream in = open(base)) {
+            index.readSnapshot(in);
+        }
+        long sequence = base.getMetadata().getLong("seq");
+        Date takenAt = base.getMetadata().getDate("takenAt");
+
+        int deltas = 0;
+        Query deltaQuery = new Query(Criteria.where("filename").regex("^" + SEGMENT_PREFIX).and("metadata.seq").gt(sequence))
+                .with(Sort.by(Sort.Direction.ASC, "metadata.seq"));
+        for (GridFSFile delta : gridFsTemplate.find(deltaQuery)) {
+            try (InputStream in = open(delta)) {
+                readDelta(in);
+            }
+            sequence = delta.getMetadata().getLong("seq");
+            takenAt = delta.getMetadata().getDate("takenAt");
+            deltas++;
+        }
+
+        synchronized (this) {
+            lastSequence = sequence;
+            deltasSinceBase = deltas;
+        }
+        return LocalDateTime.ofInstant(takenAt.toInstant(), ZoneId.systemDefault());
+    }
+
+    /**
+     * @param catchUp Also record the notes as pending, so the next segment holds them; a full
+     *                build is covered by the base written after it instead
+     */
+    private long indexNotes(Query query, boolean catchUp) {
+        query.fields().include("userId", "title", "content", "contentCompressed", "compressedContent", "deleted");
+        long indexed = 0;
+        try (Stream<Note> notes = mongoTemplate.stream(query.cursorBatchSize(1000), Note.class)) {
+            for (Note note : (Iterable<Note>) notes::iterator) {
+                if (note.getUserId() == null) {
+                    continue;
+                }
+                if (catchUp && note.isDeleted()) {
+                    remove(note.getId());
+                } else if (catchUp) {
+                    index(note);
+                } else {
+                    index.put(note.getId(), note.getUserId(), note.getTitle(), NoteContentCodec.content(note));
+                }
+                indexed++;
+            }
+        }
+        return indexed;
+    }
+
+    private interface SegmentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    // Large bases are staged in temp files rather than held in memory
+    private void writeSegment(boolean base, LocalDateTime takenAt, int notes, SegmentWriter writer) throws IOException {
+        long sequence = lastSequence + 1;
+        Path raw = Files.createTempFile(SEGMENT_PREFIX, ".bin");
+        Path compressed = Files.createTempFile(SEGMENT_PREFIX, ".gz");
+        try {
+            // Compressed afterwards, so a base only holds the index lock for the plain write
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(raw), 1 << 16)) {
+                writer.write(out);
+            }
+            try (InputStream in = Files.newInputStream(raw);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), 1 << 16)) {
+                in.transferTo(out);
+            }
+            Document metadata = new Document("seq", sequence)
+                    .append("base", base)
+                    .append("notes", notes)
+                    .append("takenAt", Date.from(takenAt.atZone(ZoneId.systemDefault()).toInstant()));
+            try (InputStream in = Files.newInputStream(compressed)) {
+                gridFsTemplate.store(in, SEGMENT_PREFIX + sequence, "application/gzip", metadata);
+            }
+            lastSequence = sequence;
+            log.debug("Note search index {} segment {} written with {} notes", base ? "base" : "delta", sequence, notes);
+        } finally {
+            Files.deleteIfExists(raw);
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    private InputStream open(GridFSFile file) throws IOException {
+        return new BufferedInputStream(new GZIPInputStream(gridFsTemplate.getResource(file).getInputStream(), 1 << 16));
+    }
+
+    private static void writeDelta(Map<String, Note> changes, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(DELTA_FORMAT_VERSION);
+        data.writeInt(changes.size());
+        for (Map.Entry<String, Note> change : changes.entrySet()) {
+            Note note = change.getValue();
+            data.writeUTF(change.getKey());
+            data.writeBoolean(note != null);
+            if (note != null) {
+                data.writeUTF(note.getUserId());
+                writeText(data, note.getTitle());
+                writeText(data, NoteContentCodec.content(note));
+            }
+        }
+        data.flush();
+    }
+
+    private void readDelta(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int format = data.readInt();
+        if (format != DELTA_FORMAT_VERSION) {
+            throw new IOException("Unsupported note index delta format " + format);
+        }
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            String noteId = data.readUTF();
+            if (data.readBoolean()) {
+                String userId = data.readUTF();
+                index.put(noteId, userId, readText(data), readText(data));
+            } else {
+                index.remove(noteId);
+            }
+        }
+    }
+
+    // writeUTF is limited to 64KB, note contents are not
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Start the snippet a little before the first matching term, at a word boundary
+     */
+    private static int snippetStart(String content, Set<String> terms) {
+        int[] first = {-1};
+        NoteTextAnalyzer.analyze(content, (term, start, end) -> {
+            if (first[0] < 0 && terms.contains(term)) {
+                first[0] = start;
+            }
+        });
+        if (first[0] <= SNIPPET_LEAD) {
+            return 0;
+        }
+        int start = first[0] - SNIPPET_LEAD;
+        int space = content.indexOf(' ', start);
+        return space >= 0 && space < first[0] ? space + 1 : start;
+    }
+
+    private static List<NoteSearchResponse.Highlight> highlights(String text, Set<String> terms) {
+        List<NoteSearchResponse.Highlight> highlights = new ArrayList<>();
+        NoteTextAnalyzer.analyze(text, (term, start, end) -> {
+            if (terms.contains(term)) {
+                highlights.add(new NoteSearchResponse.Highlight(start, end));
+            }
+        });
+        return highlights;
+    }
+}
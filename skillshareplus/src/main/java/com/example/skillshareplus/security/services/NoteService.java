@@ -0,0 +1,485 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.NoteChangesResponse;
+import com.example.skillshareplus.dto.response.NotePageResponse;
+import com.example.skillshareplus.dto.response.NoteSummaryResponse;
+import com.example.skillshareplus.model.Note;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Writes notes and lists them a page at a time, most recently updated first.
+ * Pages are addressed by a cursor holding the (updatedAt, id) of the last note returned,
+ * so each page is one range scan of the userId/updatedAt index no matter how deep it is,
+ * and only titles and a bounded content preview are sent.
+ * Every write also takes the next value of a per-user change sequence, so clients can sync
+ * just the notes created, updated or deleted since their last sync. A sequence is recorded
+ * as in flight in the user's counter until its write has landed, and sync tokens never move
+ * past the lowest one in flight, so a slower write can't commit behind a token already handed out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NoteService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_CHANGES = 500;
+
+    private static final String COUNTERS = "counters";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.notes.preview-length:200}")
+    private int previewLength;
+
+    @Value("${app.notes.compression.threshold-bytes:4096}")
+    private int compressionThresholdBytes;
+
+    @Value("${app.notes.sync.reservation-timeout-seconds:30}")
+    private long reservationTimeoutSeconds;
+
+    /**
+     * @param userId Owner of the notes
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size Page size
+     */
+    public NotePageResponse listNotes(String userId, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Criteria criteria = Criteria.where("userId").is(userId).and("deleted").ne(true);
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor after = Cursor.decode(cursor);
+            criteria.orOperator(
+                    Criteria.where("updatedAt").lt(after.updatedAt),
+                    Criteria.where("updatedAt").is(after.updatedAt).and("id").lt(new ObjectId(after.id)));
+        }
+
+        // Compressed notes carry their own preview and length, so nothing is decompressed here
+        ConditionalOperators.IfNull previewSource = ConditionalOperators.ifNull("contentPreview").orIfNull("content").then("");
+        ConditionalOperators.IfNull content = ConditionalOperators.ifNull("content").then("");
+        TypedAggregation<Note> aggregation = Aggregation.newAggregation(Note.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "updatedAt", "id")),
+                // One extra note tells whether there is a next page
+                Aggregation.limit(pageSize + 1L),
+                Aggregation.project("title", "createdAt", "updatedAt")
+                        .and(StringOperators.valueOf(previewSource).substringCP(0, previewLength)).as("preview")
+                        .and(ConditionalOperators.ifNull("contentLength")
+                                .thenValueOf(StringOperators.valueOf(content).lengthCP())).as("contentLength"));
+
+        List<NoteSummaryResponse> notes = new ArrayList<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, Document.class)) {
+            notes.add(NoteSummaryResponse.builder()
+                    .id(result.getObjectId("_id").toHexString())
+                    .title(result.getString("title"))
+                    .preview(result.getString("preview"))
+                    .truncated(result.getInteger("contentLength", 0) > previewLength)
+                    .createdAt(toLocalDateTime(result.getDate("createdAt")))
+                    .updatedAt(toLocalDateTime(result.getDate("updatedAt")))
+                    .build());
+        }
+
+        boolean hasMore = notes.size() > pageSize;
+        if (hasMore) {
+            notes.remove(pageSize);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            NoteSummaryResponse last = notes.get(notes.size() - 1);
+            nextCursor = new Cursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return new NotePageResponse(notes, nextCursor, hasMore);
+    }
+
+    /**
+     * Save a created or edited note under the next change sequence of its owner, compressing
+     * large contents
+     * @return The saved note, with its content readable as usual
+     */
+    public Note save(Note note) {
+        String content = NoteContentCodec.content(note);
+        NoteContentCodec.pack(note, compressionThresholdBytes, previewLength);
+        long seq = reserveChangeSeqs(note.getUserId(), 1);
+        try {
+            note.setChangeSeq(seq);
+            Note saved = mongoTemplate.save(note);
+            saved.setContent(content);
+            return saved;
+        } finally {
+            releaseChangeSeqs(note.getUserId(), seq);
+        }
+    }
+
+    /**
+     * Write an edited title and content of a note under the next change sequence of its owner,
+     * unless the note has been deleted in the meantime
+     * @return The updated note, with its content readable as usual, or empty if it is gone
+     */
+    public Optional<Note> update(Note note) {
+        String content = NoteContentCodec.content(note);
+        NoteContentCodec.pack(note, compressionThresholdBytes, previewLength);
+        long seq = reserveChangeSeqs(note.getUserId(), 1);
+        try {
+            Update update = new Update()
+                    .set("title", note.getTitle())
+                    .set("contentCompressed", note.isContentCompressed())
+                    .set("updatedAt", note.getUpdatedAt())
+                    .set("changeSeq", seq);
+            setOrUnset(update, "content", note.getContent());
+            setOrUnset(update, "compressedContent", note.getCompressedContent());
+            setOrUnset(update, "contentPreview", note.getContentPreview());
+            setOrUnset(update, "contentLength", note.getContentLength());
+
+            Note updated = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("id").is(note.getId())
+                            .and("userId").is(note.getUserId())
+                            .and("deleted").ne(true)),
+                    update,
+                    FindAndModifyOptions.options().returnNew(true),
+                    Note.class);
+            if (updated == null) {
+                return Optional.empty();
+            }
+            updated.setContent(content);
+            return Optional.of(updated);
+        } finally {
+            releaseChangeSeqs(note.getUserId(), seq);
+        }
+    }
+
+    private static void setOrUnset(Update update, String field, Object value) {
+        if (value == null) {
+            update.unset(field);
+        } else {
+            update.set(field, value);
+        }
+    }
+
+    /**
+     * The full content of a note, decompressed if needed
+     */
+    public String contentOf(Note note) {
+        return NoteContentCodec.content(note);
+    }
+
+    /**
+     * Replace a note with a tombstone, so syncing clients learn about the delete
+     */
+    public void delete(Note note) {
+        LocalDateTime now = LocalDateTime.now();
+        note.setTitle(null);
+        note.setContent(null);
+        note.setContentCompressed(false);
+        note.setCompressedContent(null);
+        note.setDeleted(true);
+        note.setDeletedAt(now);
+        note.setUpdatedAt(now);
+        save(note);
+    }
+
+    /**
+     * Notes created, updated or deleted after a sync token, in change order
+     * @param userId Owner of the notes
+     * @param since The nextToken of the previous sync, or null to sync from the start
+     * @param limit Maximum number of changes
+     */
+    public NoteChangesResponse getChanges(String userId, String since, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CHANGES);
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        SyncToken token = since == null || since.isBlank() ? null : SyncToken.decode(since);
+        if (token != null && token.syncStartedAt.plusSeconds(Note.TOMBSTONE_RETENTION_SECONDS).isBefore(startedAt)) {
+            // Tombstones of deletes after this token may already have expired
+            return new NoteChangesResponse(Collections.emptyList(), null, false, true);
+        }
+        long after = token == null ? 0 : token.changeSeq;
+        // Read before the notes, so every sequence up to it has either landed or been abandoned
+        long visible = visibleChangeSeq(userId);
+
+        Query query = new Query(Criteria.where("userId").is(userId).and("changeSeq").gt(after).lte(visible))
+                .with(Sort.by(Sort.Direction.ASC, "changeSeq"))
+                .limit(pageSize + 1);
+        List<Note> notes = mongoTemplate.find(query, Note.class);
+
+        boolean hasMore = notes.size() > pageSize;
+        if (hasMore) {
+            notes.remove(pageSize);
+        }
+        List<NoteChangesResponse.Change> changes = new ArrayList<>();
+        for (Note note : notes) {
+            changes.add(NoteChangesResponse.Change.builder()
+                    .id(note.getId())
+                    .deleted(note.isDeleted())
+                    .title(note.getTitle())
+                    .content(NoteContentCodec.content(note))
+                    .createdAt(note.getCreatedAt())
+                    .updatedAt(note.getUpdatedAt())
+                    .build());
+        }
+
+        long nextSeq = notes.isEmpty() ? after : notes.get(notes.size() - 1).getChangeSeq();
+        // Until the client has caught up, the token keeps the time its sync began: a delete
+        // in a later page may be older than this request but must not have expired
+        LocalDateTime syncStartedAt = hasMore && token != null ? token.syncStartedAt : startedAt;
+        return new NoteChangesResponse(changes, new SyncToken(nextSeq, syncStartedAt).encode(), hasMore, false);
+    }
+
+    /**
+     * Reserve a block of change sequences of a user, recorded as in flight until it is released.
+     * Reservations older than the timeout are dropped, so a crashed write can't hold syncs back
+     * @return The first sequence of the block
+     */
+    private long reserveChangeSeqs(String userId, int count) {
+        Date now = new Date();
+        Date abandonedBefore = new Date(now.getTime() - reservationTimeoutSeconds * 1000);
+        List<AggregationOperation> stages = new ArrayList<>();
+        // In one stage, so $seq is still the previous value
+        stages.add(context -> new Document("$set", new Document()
+                .append("seq", new Document("$add", List.of(new Document("$ifNull", Arrays.asList("$seq", 0L)), (long) count)))
+                .append("pending", new Document("$filter", new Document()
+                        .append("input", new Document("$ifNull", Arrays.asList("$pending", List.of())))
+                        .append("cond", new Document("$gt", List.of("$$this.reservedAt", abandonedBefore)))))));
+        stages.add(context -> new Document("$set", new Document("pending", new Document("$concatArrays", List.of("$pending",
+                List.of(new Document("from", new Document("$subtract", List.of("$seq", count - 1L)))
+                        .append("reservedAt", now)))))));
+
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is("notes:" + userId)),
+                AggregationUpdate.from(stages),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class,
+                COUNTERS);
+        return counter.get("seq", Number.class).longValue() - count + 1;
+    }
+
+    /**
+     * Mark a reserved block as no longer in flight, whether its write landed or failed
+     * @param from The first sequence of the block
+     */
+    private void releaseChangeSeqs(String userId, long from) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("notes:" + userId)),
+                new Update().pull("pending", new Document("from", from)),
+                COUNTERS);
+    }
+
+    /**
+     * The highest change sequence of a user below every reservation still in flight
+     */
+    private long visibleChangeSeq(String userId) {
+        Document counter = mongoTemplate.findOne(new Query(Criteria.where("_id").is("notes:" + userId)), Document.class, COUNTERS);
+        if (counter == null) {
+            return 0;
+        }
+        long visible = counter.get("seq", Number.class).longValue();
+        Date abandonedBefore = new Date(System.currentTimeMillis() - reservationTimeoutSeconds * 1000);
+        for (Document reservation : counter.getList("pending", Document.class, List.of())) {
+            if (reservation.getDate("reservedAt").after(abandonedBefore)) {
+                visible = Math.min(visible, reservation.get("from", Number.class).longValue() - 1);
+            }
+        }
+        return visible;
+    }
+
+    /**
+     * Notes written before change sequences existed get them once, a block per user at a time,
+     * so the first sync of each client includes them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillChangeSequences() {
+        Query query = new Query(Criteria.where("changeSeq").is(null))
+                .with(Sort.by(Sort.Direction.ASC, "userId"));
+        query.fields().include("userId");
+
+        String userId = null;
+        List<String> noteIds = new ArrayList<>();
+        long assigned = 0;
+        try (Stream<Note> notes = mongoTemplate.stream(query.cursorBatchSize(1000), Note.class)) {
+            for (Note note : (Iterable<Note>) notes::iterator) {
+                if (!noteIds.isEmpty() && (!Objects.equals(note.getUserId(), userId) || noteIds.size() >= 1000)) {
+                    assigned += assignChangeSeqs(userId, noteIds);
+                    noteIds.clear();
+                }
+                userId = note.getUserId();
+                noteIds.add(note.getId());
+            }
+        }
+        assigned += assignChangeSeqs(userId, noteIds);
+        if (assigned > 0) {
+            log.info("Assigned change sequences to {} notes", assigned);
+        }
+    }
+
+    private int assignChangeSeqs(String userId, List<String> noteIds) {
+        if (noteIds.isEmpty() || userId == null) {
+            return 0;
+        }
+        long from = reserveChangeSeqs(userId, noteIds.size());
+        try {
+            long seq = from;
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+            for (String noteId : noteIds) {
+                // Only if no write has assigned one in the meantime
+                bulkOps.updateOne(new Query(Criteria.where("id").is(noteId).and("changeSeq").is(null)),
+                        Update.update("changeSeq", seq++));
+            }
+            bulkOps.execute();
+        } finally {
+            releaseChangeSeqs(userId, from);
+        }
+        return noteIds.size();
+    }
+
+    /**
+     * Compress large notes written before contents were compressed. Their change sequence is
+     * kept, since what clients see does not change
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void compressLargeContents() {
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("contentCompressed").ne(true),
+                Criteria.expr(ComparisonOperators.valueOf(
+                        StringOperators.valueOf(ConditionalOperators.ifNull("content").then("")).lengthBytes())
+                        .greaterThanEqualToValue(compressionThresholdBytes))));
+        query.fields().include("content");
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+        int batched = 0;
+        long compressed = 0;
+        try (Stream<Note> notes = mongoTemplate.stream(query.cursorBatchSize(100), Note.class)) {
+            for (Note note : (Iterable<Note>) notes::iterator) {
+                String content = note.getContent();
+                NoteContentCodec.pack(note, compressionThresholdBytes, previewLength);
+                if (!note.isContentCompressed()) {
+                    continue;
+                }
+                // Only if the content was not edited in the meantime
+                bulkOps.updateOne(new Query(Criteria.where("id").is(note.getId()).and("content").is(content)),
+                        new Update()
+                                .unset("content")
+                                .set("contentCompressed", true)
+                                .set("compressedContent", note.getCompressedContent())
+                                .set("contentPreview", note.getContentPreview())
+                                .set("contentLength", note.getContentLength()));
+                compressed++;
+                if (++batched == 100) {
+                    bulkOps.execute();
+                    bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+                    batched = 0;
+                }
+            }
+        }
+        if (batched > 0) {
+            bulkOps.execute();
+        }
+        if (compressed > 0) {
+            log.info("Compressed the content of {} notes", compressed);
+        }
+    }
+
+    /**
+     * Notes written before timestamps were set explicitly have no updatedAt and would never
+     * be listed; they get the creation time encoded in their ObjectId
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTimestamps() {
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("updatedAt").toValue(ConditionalOperators.ifNull("createdAt")
+                        .then(ConvertOperators.valueOf("_id").convertToDate()))
+                .set("createdAt").toValue(ConditionalOperators.ifNull("createdAt")
+                        .then(ConvertOperators.valueOf("_id").convertToDate()));
+        long updated = mongoTemplate.updateMulti(
+                new Query(Criteria.where("updatedAt").is(null)), update, Note.class).getModifiedCount();
+        if (updated > 0) {
+            log.info("Backfilled timestamps of {} notes", updated);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private static final class SyncToken {
+        private final long changeSeq;
+        private final LocalDateTime syncStartedAt;
+
+        private SyncToken(long changeSeq, LocalDateTime syncStartedAt) {
+            this.changeSeq = changeSeq;
+            this.syncStartedAt = syncStartedAt;
+        }
+
+        private String encode() {
+            String raw = changeSeq + "|" + syncStartedAt;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static SyncToken decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Invalid sync token");
+                }
+                return new SyncToken(Long.parseLong(raw.substring(0, separator)), LocalDateTime.parse(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+        }
+    }
+
+    private static final class Cursor {
+        private final LocalDateTime updatedAt;
+        private final String id;
+
+        private Cursor(LocalDateTime updatedAt, String id) {
+            this.updatedAt = updatedAt;
+            this.id = id;
+        }
+
+        private String encode() {
+            String raw = updatedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                String id = raw.substring(separator + 1);
+                if (separator < 0 || !ObjectId.isValid(id)) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), id);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
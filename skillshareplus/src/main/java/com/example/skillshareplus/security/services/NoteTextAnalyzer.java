@@ -0,0 +1,123 @@
+package com.example.skillshareplus.security.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits note text into lowercase, stemmed terms. Letters and digits form tokens; anything
+ * else separates them. Stemming is a light English suffix stripper (plurals, -ing, -ed, -ly),
+ * applied the same way to notes and queries so that "running" finds "runs".
+ */
+final class NoteTextAnalyzer {
+
+    // Longer runs are not words (hashes, base64) and would only bloat the dictionary
+    private static final int MAX_TOKEN_LENGTH = 40;
+
+    private NoteTextAnalyzer() {
+    }
+
+    /**
+     * Receives each term with the character range it came from
+     */
+    interface TokenConsumer {
+        void accept(String term, int start, int end);
+    }
+
+    static void analyze(String text, TokenConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(codePoint = text.codePointAt(i))) {
+                i += Character.charCount(codePoint);
+            }
+            if (i - start <= MAX_TOKEN_LENGTH) {
+                consumer.accept(stem(text.substring(start, i).toLowerCase(Locale.ROOT)), start, i);
+            }
+        }
+    }
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        analyze(text, (term, start, end) -> terms.add(term));
+        return terms;
+    }
+
+    /**
+     * Parses a query into clauses: every quoted phrase is one clause of consecutive terms,
+     * every other term is a clause of its own
+     */
+    static List<List<String>> parseQuery(String query) {
+        List<List<String>> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        boolean inPhrase = false;
+        for (String part : query.split("\"", -1)) {
+            if (inPhrase) {
+                List<String> phrase = terms(part);
+                if (!phrase.isEmpty()) {
+                    clauses.add(phrase);
+                }
+            } else {
+                for (String term : terms(part)) {
+                    clauses.add(List.of(term));
+                }
+            }
+            inPhrase = !inPhrase;
+        }
+        return clauses;
+    }
+
+    static String stem(String word) {
+        int length = word.length();
+        if (length <= 3 || !Character.isLetter(word.charAt(length - 1))) {
+            return word;
+        }
+
+        String stem = word;
+        if (stem.endsWith("ies") && length > 4) {
+            stem = stem.substring(0, length - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, length - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, length - 1);
+        }
+
+        if (stem.endsWith("ing") && hasVowel(stem, stem.length() - 3) && stem.length() > 5) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && !stem.endsWith("eed") && hasVowel(stem, stem.length() - 2) && stem.length() > 4) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        } else if (stem.endsWith("ly") && stem.length() > 5) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        return stem;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(word.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "running" -> "runn" -> "run", but "falling" keeps its double l
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length >= 2 && stem.charAt(length - 1) == stem.charAt(length - 2) && "lsz".indexOf(stem.charAt(length - 1)) < 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
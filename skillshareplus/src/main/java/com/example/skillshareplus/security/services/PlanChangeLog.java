@@ -0,0 +1,87 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.PlanChangesResponse;
+import com.example.skillshareplus.model.PlanChange;
+import com.example.skillshareplus.repository.PlanChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of learning plan changes, keyed by the plan version each change produced.
+ * Entries are written after the plan itself, so a failure in between leaves a gap rather
+ * than a phantom change; clients detect the gap from the plan version and refetch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlanChangeLog {
+
+    private final PlanChangeRepository planChangeRepository;
+
+    /**
+     * Append a change
+     * @param planId The changed plan
+     * @param version The plan version produced by the change
+     * @param userId The user who made the change
+     * @param type What kind of change it was
+     * @param changes The changed fields only
+     */
+    public void record(String planId, Long version, String userId, PlanChange.Type type, Map<String, Object> changes) {
+        try {
+            planChangeRepository.insert(PlanChange.builder()
+                    .planId(planId)
+                    .version(version == null ? 0 : version)
+                    .type(type)
+                    .userId(userId)
+                    .changes(changes)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (DuplicateKeyException e) {
+            // Versions are produced by the plan document, so the entry is already there
+            log.warn("Change {} of plan {} already recorded", version, planId);
+        }
+    }
+
+    /**
+     * Append many changes in one batch insert, e.g. the creation of imported plans
+     */
+    public void recordAll(List<PlanChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            planChangeRepository.insert(changes);
+        } catch (DuplicateKeyException e) {
+            log.warn("Some of {} changes were already recorded", changes.size());
+        }
+    }
+
+    /**
+     * @param planId The plan
+     * @param currentVersion The plan's current version
+     * @param sinceVersion The last version the client has seen
+     * @return Every change after the given version, oldest first
+     */
+    public PlanChangesResponse since(String planId, long currentVersion, long sinceVersion) {
+        List<PlanChangesResponse.Change> changes = planChangeRepository
+                .findByPlanIdAndVersionGreaterThanOrderByVersionAsc(planId, sinceVersion).stream()
+                .map(change -> new PlanChangesResponse.Change(
+                        change.getVersion(), change.getType(), change.getChanges(), change.getCreatedAt()))
+                .collect(Collectors.toList());
+        return new PlanChangesResponse(planId, currentVersion, changes);
+    }
+
+    /**
+     * Drop the history of a deleted plan
+     */
+    public void deleteForPlan(String planId) {
+        planChangeRepository.deleteByPlanId(planId);
+    }
+}
@@ -0,0 +1,391 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.LearningTask;
+import com.example.skillshareplus.model.PlanStatus;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds the updates used to restructure a learning plan and record progress inside MongoDB.
+ * Additions and removals are array operators on the one array they change ($push at a
+ * position, $pull, addressed through array filters) and adjust the counters and status by
+ * the element's own contribution, read from the plan's structure at the version the update
+ * is guarded on. A move has to pull and insert in the same array, which operators cannot
+ * combine in one update, so moves are pipelines that rewrite only the array they reorder.
+ * Task completions are pipelines too, so the status follows from the counters in the same write.
+ * Field paths in pipelines and array filters are raw document paths, since they are not mapped.
+ */
+final class PlanStructureUpdates {
+
+    /**
+     * The part of a plan the updates are computed from: IDs, progress and counters, no text
+     */
+    static final String[] STRUCTURE_FIELDS = {
+            "version", "isTemplate", "moduleCount", "taskCount", "completedTaskCount", "completedMinutes", "completedHours",
+            "modules.id", "modules.completedMinutes", "modules.tasks.id", "modules.tasks.estimatedMinutes",
+            "modules.tasks.completedAt", "modules.tasks.resources.id"};
+
+    private final String moduleId;
+    private final String taskId;
+    private final String resourceId;
+
+    /**
+     * @param moduleId Field name of an embedded module's ID
+     * @param taskId Field name of an embedded task's ID
+     * @param resourceId Field name of an embedded resource's ID
+     */
+    PlanStructureUpdates(String moduleId, String taskId, String resourceId) {
+        this.moduleId = moduleId;
+        this.taskId = taskId;
+        this.resourceId = resourceId;
+    }
+
+    /**
+     * @param plan The plan's structure
+     * @param module The new module
+     * @param document The new module as stored
+     * @param position Index to insert at; null appends
+     */
+    Update addModule(LearningPlan plan, LearningModule module, Document document, Integer position) {
+        Update update = push(new Update(), "modules", document, position);
+        return withCounters(update, plan, 1, module.getTasks().size(), 0, 0);
+    }
+
+    /**
+     * @return The update, or null if the parent module does not exist
+     */
+    Update addTask(LearningPlan plan, String parentModuleId, Document task, Integer position) {
+        if (findModule(plan, parentModuleId) == null) {
+            return null;
+        }
+        Update update = push(new Update(), "modules.$[m].tasks", task, position)
+                .filterArray(Criteria.where("m." + moduleId).is(parentModuleId));
+        return withCounters(update, plan, 0, 1, 0, 0);
+    }
+
+    /**
+     * @return The update, or null if the parent task does not exist
+     */
+    Update addResource(LearningPlan plan, String parentTaskId, Document resource, Integer position) {
+        LearningModule module = findModuleOfTask(plan, parentTaskId);
+        if (module == null) {
+            return null;
+        }
+        Update update = push(new Update(), "modules.$[m].tasks.$[t].resources", resource, position)
+                .filterArray(Criteria.where("m." + moduleId).is(module.getId()))
+                .filterArray(Criteria.where("t." + taskId).is(parentTaskId));
+        return withCounters(update, plan, 0, 0, 0, 0);
+    }
+
+    /**
+     * @return The update, or null if the module does not exist
+     */
+    Update removeModule(LearningPlan plan, String id) {
+        LearningModule module = findModule(plan, id);
+        if (module == null) {
+            return null;
+        }
+        List<LearningTask> completed = module.getTasks().stream().filter(task -> task.getCompletedAt() != null).toList();
+        Update update = new Update().pull("modules", new Document(moduleId, id));
+        return withCounters(update, plan, -1, -module.getTasks().size(), -completed.size(), -minutesOf(completed));
+    }
+
+    /**
+     * @return The update, or null if the task does not exist
+     */
+    Update removeTask(LearningPlan plan, String id) {
+        LearningModule module = findModuleOfTask(plan, id);
+        if (module == null) {
+            return null;
+        }
+        LearningTask task = findTask(module, id);
+        Update update = new Update()
+                .pull("modules.$[m].tasks", new Document(taskId, id))
+                .filterArray(Criteria.where("m." + moduleId).is(module.getId()));
+        if (task.getCompletedAt() == null) {
+            return withCounters(update, plan, 0, -1, 0, 0);
+        }
+        int moduleMinutes = module.getCompletedMinutes() - task.getEstimatedMinutes();
+        update.inc("modules.$[m].completedMinutes", -task.getEstimatedMinutes())
+                .set("modules.$[m].completedHours", moduleMinutes / 60);
+        return withCounters(update, plan, 0, -1, -1, -task.getEstimatedMinutes());
+    }
+
+    /**
+     * @return The update, or null if the resource does not exist
+     */
+    Update removeResource(LearningPlan plan, String id) {
+        for (LearningModule module : plan.getModules()) {
+            for (LearningTask task : module.getTasks()) {
+                if (task.getResources().stream().anyMatch(resource -> id.equals(resource.getId()))) {
+                    Update update = new Update()
+                            .pull("modules.$[m].tasks.$[t].resources", new Document(resourceId, id))
+                            .filterArray(Criteria.where("m." + moduleId).is(module.getId()))
+                            .filterArray(Criteria.where("t." + taskId).is(task.getId()));
+                    return withCounters(update, plan, 0, 0, 0, 0);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The update, or null if the module does not exist
+     */
+    AggregationUpdate moveModule(LearningPlan plan, String id, Integer position) {
+        if (findModule(plan, id) == null) {
+            return null;
+        }
+        return reorder(new Document("modules",
+                insertAt(without("$modules", moduleId, id), find("$modules", moduleId, id), position)));
+    }
+
+    /**
+     * Moving a completed task to another module also moves its minutes between the two modules
+     * @return The update, or null if the task or the destination module does not exist
+     */
+    AggregationUpdate moveTask(LearningPlan plan, String id, String targetModuleId, Integer position) {
+        LearningModule source = findModuleOfTask(plan, id);
+        if (source == null || findModule(plan, targetModuleId) == null) {
+            return null;
+        }
+        LearningTask task = findTask(source, id);
+        int minutes = task.getCompletedAt() == null || source.getId().equals(targetModuleId) ? 0 : task.getEstimatedMinutes();
+
+        Document tasks = arrayOf("$$m.tasks");
+        Document moduleMinutes = new Document("$add", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$$m.completedMinutes", 0)),
+                new Document("$switch", new Document("branches", Arrays.asList(
+                        new Document("case", new Document("$eq", Arrays.asList("$$m." + moduleId, targetModuleId))).append("then", minutes),
+                        new Document("case", new Document("$eq", Arrays.asList("$$m." + moduleId, source.getId()))).append("then", -minutes)))
+                        .append("default", 0))));
+        Document moved = new Document("tasks", new Document("$cond", Arrays.asList(
+                new Document("$eq", Arrays.asList("$$m." + moduleId, targetModuleId)),
+                insertAt(without(tasks, taskId, id), "$$moved", position),
+                without(tasks, taskId, id))));
+        if (minutes > 0) {
+            moved.append("completedMinutes", moduleMinutes).append("completedHours", hours(moduleMinutes));
+        }
+        return reorder(new Document("modules", new Document("$let", new Document("vars", new Document("moved", find(flatten("$modules", "tasks"), taskId, id)))
+                .append("in", mapModules(new Document("$mergeObjects", Arrays.asList("$$m", moved)))))));
+    }
+
+    /**
+     * @return The update, or null if the resource or the destination task does not exist
+     */
+    AggregationUpdate moveResource(LearningPlan plan, String id, String targetTaskId, Integer position) {
+        boolean exists = plan.getModules().stream()
+                .flatMap(module -> module.getTasks().stream())
+                .flatMap(task -> task.getResources().stream())
+                .anyMatch(resource -> id.equals(resource.getId()));
+        if (!exists || findModuleOfTask(plan, targetTaskId) == null) {
+            return null;
+        }
+        Document resources = arrayOf("$$t.resources");
+        Document allTasks = flatten("$modules", "tasks");
+        Document moved = find(new Document("$reduce", new Document("input", allTasks)
+                .append("initialValue", List.of())
+                .append("in", new Document("$concatArrays", Arrays.asList("$$value", arrayOf("$$this.resources"))))),
+                resourceId, id);
+        return reorder(new Document("modules", new Document("$let", new Document("vars", new Document("moved", moved))
+                .append("in", mapTasks(merge("$$t", "resources", new Document("$cond", Arrays.asList(
+                        new Document("$eq", Arrays.asList("$$t." + taskId, targetTaskId)),
+                        insertAt(without(resources, resourceId, id), "$$moved", position),
+                        without(resources, resourceId, id)))))))));
+    }
+
+    static PlanStatus statusOf(int completedTaskCount, int taskCount) {
+        if (completedTaskCount == 0) {
+            return PlanStatus.NOT_STARTED;
+        }
+        return completedTaskCount >= taskCount ? PlanStatus.COMPLETED : PlanStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Complete one task of a plan that owns its modules, adding its minutes to the module
+     * and plan counters
+     * @param parentModuleId ID of the task's module
+     * @param id ID of the task
+     * @param minutes The task's estimated minutes
+     * @param completedAt Completion time
+     */
+    AggregationUpdate completeTask(String parentModuleId, String id, int minutes, Date completedAt) {
+        Document moduleMinutes = new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList("$$m.completedMinutes", 0)), minutes));
+        Document tasks = new Document("$map", new Document("input", arrayOf("$$m.tasks"))
+                .append("as", "t")
+                .append("in", new Document("$cond", Arrays.asList(
+                        new Document("$eq", Arrays.asList("$$t." + taskId, id)),
+                        new Document("$mergeObjects", Arrays.asList("$$t", new Document()
+                                .append("completedAt", completedAt)
+                                .append("progressUpdatedAt", completedAt))),
+                        "$$t"))));
+        Document modules = mapModules(new Document("$cond", Arrays.asList(
+                new Document("$eq", Arrays.asList("$$m." + moduleId, parentModuleId)),
+                new Document("$let", new Document("vars", new Document("minutes", moduleMinutes))
+                        .append("in", new Document("$mergeObjects", Arrays.asList("$$m", new Document()
+                                .append("completedMinutes", "$$minutes")
+                                .append("completedHours", hours("$$minutes"))
+                                .append("tasks", tasks))))),
+                "$$m")));
+        return withCompletion(new Document("modules", modules), minutes, completedAt);
+    }
+
+    /**
+     * Complete one task of a template-backed plan by recording it in the plan's overlay
+     * @param id ID of the task
+     * @param minutes The task's estimated minutes
+     * @param completedAt Completion time
+     */
+    AggregationUpdate completeOverlayTask(String id, int minutes, Date completedAt) {
+        return withCompletion(new Document()
+                .append("overlay.completedTasks." + id, completedAt)
+                .append("overlay.progressUpdatedAt." + id, completedAt), minutes, completedAt);
+    }
+
+    /**
+     * The completion itself, with the plan counters and status in the same stage: every field
+     * reference there still sees the values from before the completion
+     */
+    private AggregationUpdate withCompletion(Document change, int minutes, Date completedAt) {
+        Document completedTaskCount = new Document("$add", Arrays.asList("$completedTaskCount", 1));
+        change.append("completedMinutes", new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList("$completedMinutes", 0)), minutes)))
+                .append("completedTaskCount", completedTaskCount)
+                .append("status", new Document("$cond", Arrays.asList(
+                        new Document("$gte", Arrays.asList(completedTaskCount, "$taskCount")), "COMPLETED", "IN_PROGRESS")))
+                .append("updatedAt", completedAt);
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(context -> new Document("$set", change));
+        stages.add(context -> new Document("$set", new Document("completedHours", hours("$completedMinutes"))));
+        return withVersion(stages);
+    }
+
+    /**
+     * The version bump goes through the AggregationUpdate itself, which records the field as
+     * modified; set in a raw stage, MongoTemplate would add its own @Version increment on top
+     */
+    private static AggregationUpdate withVersion(List<AggregationOperation> stages) {
+        return AggregationUpdate.from(stages)
+                .set("version").toValue(ArithmeticOperators.valueOf("version").add(1));
+    }
+
+    /**
+     * Shift the counters by the changed element's contribution; the status follows from the
+     * new counts, which are exact because the update is guarded on the version they were read at
+     */
+    private static Update withCounters(Update update, LearningPlan plan, int modules, int tasks, int completedTasks, int completedMinutes) {
+        int taskCount = plan.getTaskCount() + tasks;
+        int completedTaskCount = plan.getCompletedTaskCount() + completedTasks;
+        if (modules != 0) {
+            update.inc("moduleCount", modules);
+        }
+        if (tasks != 0) {
+            update.inc("taskCount", tasks);
+        }
+        if (completedTasks != 0) {
+            update.inc("completedTaskCount", completedTasks);
+        }
+        if (completedMinutes != 0) {
+            update.inc("completedMinutes", completedMinutes)
+                    .set("completedHours", (plan.getCompletedMinutes() + completedMinutes) / 60);
+        }
+        return update.set("status", statusOf(completedTaskCount, taskCount))
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now());
+    }
+
+    /**
+     * A reorder leaves every counter as it is
+     */
+    private static AggregationUpdate reorder(Document change) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(context -> new Document("$set", change.append("updatedAt", "$$NOW")));
+        return withVersion(stages);
+    }
+
+    private static Update push(Update update, String path, Document element, Integer position) {
+        Update.PushOperatorBuilder push = update.push(path);
+        if (position != null) {
+            push.atPosition(Math.max(0, position));
+        }
+        return push.each(element);
+    }
+
+    private static LearningModule findModule(LearningPlan plan, String id) {
+        return plan.getModules().stream().filter(module -> id.equals(module.getId())).findFirst().orElse(null);
+    }
+
+    private static LearningModule findModuleOfTask(LearningPlan plan, String id) {
+        return plan.getModules().stream().filter(module -> findTask(module, id) != null).findFirst().orElse(null);
+    }
+
+    private static LearningTask findTask(LearningModule module, String id) {
+        return module.getTasks().stream().filter(task -> id.equals(task.getId())).findFirst().orElse(null);
+    }
+
+    private static int minutesOf(List<LearningTask> tasks) {
+        return tasks.stream().mapToInt(LearningTask::getEstimatedMinutes).sum();
+    }
+
+    private Document mapModules(Object in) {
+        return new Document("$map", new Document("input", arrayOf("$modules")).append("as", "m").append("in", in));
+    }
+
+    private Document mapTasks(Object in) {
+        return mapModules(merge("$$m", "tasks", new Document("$map", new Document("input", arrayOf("$$m.tasks"))
+                .append("as", "t")
+                .append("in", in))));
+    }
+
+    private static Document flatten(String array, String field) {
+        return new Document("$reduce", new Document("input", arrayOf(array))
+                .append("initialValue", List.of())
+                .append("in", new Document("$concatArrays", Arrays.asList("$$value", arrayOf("$$this." + field)))));
+    }
+
+    private static Document merge(String variable, String field, Object value) {
+        return new Document("$mergeObjects", Arrays.asList(variable, new Document(field, value)));
+    }
+
+    private static Document find(Object array, String idField, String id) {
+        return new Document("$arrayElemAt", Arrays.asList(new Document("$filter", new Document("input", array)
+                .append("as", "item")
+                .append("cond", new Document("$eq", Arrays.asList("$$item." + idField, id)))), 0));
+    }
+
+    private static Document without(Object array, String idField, String id) {
+        return new Document("$filter", new Document("input", array)
+                .append("as", "item")
+                .append("cond", new Document("$ne", Arrays.asList("$$item." + idField, id))));
+    }
+
+    private static Document insertAt(Object array, Object element, Integer position) {
+        int index = position == null ? Integer.MAX_VALUE : Math.max(0, position);
+        // $slice needs a positive count, so an insert at the head has no leading slice
+        Object head = index == 0 ? List.of() : new Document("$slice", Arrays.asList(array, index));
+        return new Document("$concatArrays", Arrays.asList(
+                head,
+                List.of(element),
+                new Document("$slice", Arrays.asList(array, index, new Document("$max", Arrays.asList(new Document("$size", array), 1))))));
+    }
+
+    private static Document arrayOf(String path) {
+        return new Document("$ifNull", Arrays.asList(path, List.of()));
+    }
+
+    private static Document hours(Object minutes) {
+        return new Document("$toInt", new Document("$floor", new Document("$divide", Arrays.asList(minutes, 60))));
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.LearningPlanExport;
+import com.example.skillshareplus.dto.response.PlanImportResponse;
+import com.example.skillshareplus.model.*;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Bulk export and import of learning plans as NDJSON, one plan per line.
+ * Exports are written straight from a Mongo cursor and imports are parsed line by line and
+ * inserted in unordered bulk batches, so memory use does not grow with the number of plans.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlanTransferService {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final TemplateResolver templateResolver;
+    private final PlanChangeLog planChangeLog;
+    private final LeaderboardService leaderboardService;
+
+    @Value("${app.transfer.import-batch-size:500}")
+    private int importBatchSize;
+
+    @Value("${app.transfer.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    /**
+     * Write plans as NDJSON
+     * @param userId Only this user's plans; null exports every user's plans with their owner
+     * @param out Where to write; flushed but not closed
+     */
+    public void exportPlans(String userId, OutputStream out) throws IOException {
+        Criteria criteria = Criteria.where("isTemplate").is(false);
+        if (userId != null) {
+            criteria.and("userId").is(userId);
+        }
+        Query query = new Query(criteria).cursorBatchSize(importBatchSize);
+
+        // Values are buffered by the generator rather than flushed one by one
+        ObjectWriter writer = objectMapper.writerFor(LearningPlanExport.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
+        try (Stream<LearningPlan> plans = mongoTemplate.stream(query, LearningPlan.class);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (LearningPlan plan : (Iterable<LearningPlan>) plans::iterator) {
+                writer.writeValue(generator, toExport(templateResolver.resolve(plan), userId == null));
+                generator.writeRaw('\n');
+                exported++;
+            }
+            generator.flush();
+        }
+        log.info("Exported {} learning plans{}", exported, userId == null ? "" : " of user " + userId);
+    }
+
+    /**
+     * Read NDJSON plans and insert them as new plans; invalid lines are reported and skipped.
+     * Imported plans count towards the leaderboard but their completed tasks are not added to
+     * the learning stats
+     * @param in The upload
+     * @param ownerId Owner of every imported plan; null keeps the userId of each line
+     * @return How many plans were imported and which lines failed
+     */
+    public PlanImportResponse importPlans(InputStream in, String ownerId) throws IOException {
+        ImportResult result = new ImportResult();
+        List<LearningPlan> batch = new ArrayList<>();
+        List<Long> batchLines = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                LearningPlanExport record = objectMapper.readValue(line, LearningPlanExport.class);
+                batch.add(toPlan(record, ownerId));
+                batchLines.add(lineNumber);
+            } catch (JsonProcessingException e) {
+                result.fail(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                result.fail(lineNumber, e.getMessage());
+            }
+
+            if (batch.size() >= importBatchSize) {
+                insert(batch, batchLines, result);
+                batch.clear();
+                batchLines.clear();
+            }
+        }
+        insert(batch, batchLines, result);
+
+        log.info("Imported {} learning plans, {} lines failed", result.imported, result.failed);
+        return new PlanImportResponse(result.imported, result.failed, result.errors);
+    }
+
+    private void insert(List<LearningPlan> plans, List<Long> lines, ImportResult result) {
+        if (plans.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> failedIndexes = new HashSet<>();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LearningPlan.class);
+        bulkOps.insert(plans);
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                result.fail(lines.get(error.getIndex()), error.getMessage());
+            }
+        }
+
+        // Completions carried in by an import are history, not learning done now: they are left out
+        // of the stats rollups, so re-importing an export can't count the same completions twice
+        List<PlanChange> changes = new ArrayList<>();
+        for (int i = 0; i < plans.size(); i++) {
+            if (failedIndexes.contains(i)) {
+                continue;
+            }
+            LearningPlan plan = plans.get(i);
+            result.imported++;
+            changes.add(PlanChange.builder()
+                    .planId(plan.getId())
+                    .version(0)
+                    .type(PlanChange.Type.CREATED)
+                    .userId(plan.getUserId())
+                    .changes(Map.of("imported", true))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            leaderboardService.adjust(plan.getUserId(), plan.getCategory(), plan.getCompletedHours());
+        }
+        planChangeLog.recordAll(changes);
+    }
+
+    private LearningPlanExport toExport(LearningPlan plan, boolean includeOwner) {
+        return new LearningPlanExport(
+                plan.getId(),
+                includeOwner ? plan.getUserId() : null,
+                plan.getTitle(),
+                plan.getDescription(),
+                plan.getCategory(),
+                plan.getEstimatedHours(),
+                plan.getCreatedAt(),
+                plan.getUpdatedAt(),
+                plan.getModules());
+    }
+
+    /**
+     * Builds a standalone plan from an export line; counters are recomputed rather than trusted
+     */
+    private LearningPlan toPlan(LearningPlanExport record, String ownerId) {
+        String userId = ownerId != null ? ownerId : record.getUserId();
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Title is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LearningModule> modules = record.getModules() != null ? record.getModules() : new ArrayList<>();
+        int taskCount = 0;
+        int completedTaskCount = 0;
+        int completedMinutes = 0;
+        for (LearningModule module : modules) {
+            if (module.getTitle() == null || module.getTitle().isBlank()) {
+                throw new IllegalArgumentException("Module title is required");
+            }
+            if (module.getId() == null) {
+                module.setId(UUID.randomUUID().toString());
+            }
+            if (module.getTasks() == null) {
+                module.setTasks(new ArrayList<>());
+            }
+            int moduleMinutes = 0;
+            for (LearningTask task : module.getTasks()) {
+                if (task.getTitle() == null || task.getTitle().isBlank()) {
+                    throw new IllegalArgumentException("Task title is required");
+                }
+                if (task.getEstimatedMinutes() < 0) {
+                    throw new IllegalArgumentException("Task estimatedMinutes must not be negative");
+                }
+                if (task.getId() == null) {
+                    task.setId(UUID.randomUUID().toString());
+                }
+                if (task.getResources() == null) {
+                    task.setResources(new ArrayList<>());
+                }
+                for (Resource resource : task.getResources()) {
+                    if (resource.getId() == null) {
+                        resource.setId(UUID.randomUUID().toString());
+                    }
+                }
+                taskCount++;
+                if (task.getCompletedAt() != null) {
+                    completedTaskCount++;
+                    moduleMinutes += task.getEstimatedMinutes();
+                }
+            }
+            module.setCompletedMinutes(moduleMinutes);
+            module.setCompletedHours(moduleMinutes / 60);
+            completedMinutes += moduleMinutes;
+        }
+
+        LearningPlan plan = new LearningPlan();
+        // Assigned up front so the change log and error report can refer to it
+        plan.setId(new ObjectId().toHexString());
+        plan.setVersion(0L);
+        plan.setTitle(record.getTitle());
+        plan.setDescription(record.getDescription());
+        plan.setUserId(userId);
+        plan.setCategory(record.getCategory());
+        plan.setEstimatedHours(record.getEstimatedHours());
+        plan.setCreatedAt(record.getCreatedAt() != null ? record.getCreatedAt() : now);
+        plan.setUpdatedAt(now);
+        plan.setTemplate(false);
+        plan.setModules(modules);
+        plan.setModuleCount(modules.size());
+        plan.setTaskCount(taskCount);
+        plan.setCompletedTaskCount(completedTaskCount);
+        plan.setCompletedMinutes(completedMinutes);
+        plan.setCompletedHours(completedMinutes / 60);
+        plan.setStatus(completedTaskCount == 0
+                ? PlanStatus.NOT_STARTED
+                : completedTaskCount >= taskCount ? PlanStatus.COMPLETED : PlanStatus.IN_PROGRESS);
+        return plan;
+    }
+
+    private final class ImportResult {
+        private int imported;
+        private int failed;
+        private final List<PlanImportResponse.LineError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new PlanImportResponse.LineError(line, message));
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.skillshareplus.dto.request.CommentRequest;
 import com.example.skillshareplus.dto.request.CreatePostRequest;
 import com.example.skillshareplus.dto.response.PagedPostsResponse;
 import com.example.skillshareplus.dto.response.PostResponse;
+import com.example.skillshareplus.dto.response.UserResponse;
 import com.example.skillshareplus.model.Post;
 import com.example.skillshareplus.model.User;
 import com.example.skillshareplus.repository.PostRepository;
@@ -33,6 +34,7 @@ public class PostService {
     private final UserRepository userRepository;
     private final UserDetailsServiceImpl userDetailsService;
     private final CloudinaryService cloudinaryService;
+    private final RelationshipHydrationService relationshipHydrationService;
 
     /**
      * Create a new post with media uploads
@@ -112,7 +114,7 @@ public class PostService {
                 savedPost.getId(), savedPost.getMediaItems().size());
         
         // Return response
-        return PostResponse.fromEntity(savedPost, userId);
+        return withAuthor(PostResponse.fromEntity(savedPost, userId), userId);
     }
     
     /**
@@ -125,7 +127,7 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new NoSuchElementException("Post not found with ID: " + postId));
         
-        return PostResponse.fromEntity(post, currentUserId);
+        return withAuthor(PostResponse.fromEntity(post, currentUserId), currentUserId);
     }
     
     /**
@@ -140,9 +142,9 @@ public class PostService {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<Post> postsPage = postRepository.findAllByOrderByCreatedAtDesc(pageable);
         
-        List<PostResponse> postResponses = postsPage.getContent().stream()
+        List<PostResponse> postResponses = withAuthors(postsPage.getContent().stream()
                 .map(post -> PostResponse.fromEntity(post, currentUserId))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), currentUserId);
         
         return new PagedPostsResponse(
                 postResponses,
@@ -167,9 +169,9 @@ public class PostService {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<Post> postsPage = postRepository.findByUserId(userId, pageable);
         
-        List<PostResponse> postResponses = postsPage.getContent().stream()
+        List<PostResponse> postResponses = withAuthors(postsPage.getContent().stream()
                 .map(post -> PostResponse.fromEntity(post, currentUserId))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), currentUserId);
         
         return new PagedPostsResponse(
                 postResponses,
@@ -237,7 +239,7 @@ public class PostService {
         post.setUpdatedAt(LocalDateTime.now());
         Post updatedPost = postRepository.save(post);
         
-        return PostResponse.fromEntity(updatedPost, currentUserId);
+        return withAuthor(PostResponse.fromEntity(updatedPost, currentUserId), currentUserId);
     }
     
     /**
@@ -270,7 +272,7 @@ public class PostService {
         
         Post updatedPost = postRepository.save(post);
         
-        return PostResponse.fromEntity(updatedPost, currentUserId);
+        return withAuthor(PostResponse.fromEntity(updatedPost, currentUserId), currentUserId);
     }
     
     /**
@@ -308,6 +310,34 @@ public class PostService {
         
         Post updatedPost = postRepository.save(post);
         
-        return PostResponse.fromEntity(updatedPost, currentUserId);
+        return withAuthor(PostResponse.fromEntity(updatedPost, currentUserId), currentUserId);
+    }
+
+    /**
+     * Attach the author block to a single post
+     * @param postResponse Post to enrich
+     * @param currentUserId ID of the viewing user
+     * @return The same post with its author set
+     */
+    private PostResponse withAuthor(PostResponse postResponse, String currentUserId) {
+        return withAuthors(List.of(postResponse), currentUserId).get(0);
+    }
+    
+    /**
+     * Attach the author block to each post, resolving all distinct authors in one batched query
+     * @param postResponses Posts to enrich
+     * @param currentUserId ID of the viewing user
+     * @return The same posts with their author set
+     */
+    private List<PostResponse> withAuthors(List<PostResponse> postResponses, String currentUserId) {
+        Set<String> authorIds = postResponses.stream()
+                .map(PostResponse::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        
+        Map<String, UserResponse> authors = relationshipHydrationService.hydrateById(currentUserId, authorIds);
+        postResponses.forEach(post -> post.setAuthor(authors.get(post.getUserId())));
+        
+        return postResponses;
     }
 }
\ No newline at end of file
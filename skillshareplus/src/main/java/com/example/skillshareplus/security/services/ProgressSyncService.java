@@ -0,0 +1,378 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.request.ProgressSyncRequest;
+import com.example.skillshareplus.dto.response.ProgressSyncResponse;
+import com.example.skillshareplus.model.*;
+import com.example.skillshareplus.repository.ProcessedProgressEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies batches of offline progress events.
+ *
+ * Events are deduplicated by idempotency key and collapsed to the latest event per task.
+ * Every task stores the time of the last change applied to it, so an event only wins if it
+ * is newer than what the server already has (last writer wins). All affected plans are
+ * read in one query, and each plan gets exactly one version-guarded update with its new
+ * task states and recomputed counters; the updates go out as one unordered bulk. Plans
+ * that changed in between are read again and recomputed, which is safe because applying
+ * the same winning events twice leaves the same state.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressSyncService {
+
+    private static final int MAX_ROUNDS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final TemplateResolver templateResolver;
+    private final PlanChangeLog planChangeLog;
+    private final LearningStatsService learningStatsService;
+    private final LeaderboardService leaderboardService;
+    private final ProcessedProgressEventRepository processedProgressEventRepository;
+
+    /**
+     * Apply a batch of progress events for a user
+     * @param userId The user whose plans are updated
+     * @param request The events, in any order
+     * @return The outcome of every event and the resulting progress of every affected plan
+     */
+    public ProgressSyncResponse sync(String userId, ProgressSyncRequest request) {
+        Map<String, ProgressSyncResponse.Status> statuses = new LinkedHashMap<>();
+        List<ProgressSyncRequest.Event> events = new ArrayList<>();
+        for (ProgressSyncRequest.Event event : request.getEvents()) {
+            if (statuses.putIfAbsent(event.getEventId(), ProgressSyncResponse.Status.DUPLICATE) == null) {
+                events.add(event);
+            }
+        }
+
+        // Events synced by an earlier request stay DUPLICATE
+        List<String> keys = events.stream()
+                .map(event -> ProcessedProgressEvent.idOf(userId, event.getEventId()))
+                .collect(Collectors.toList());
+        Set<String> processed = new HashSet<>();
+        processedProgressEventRepository.findAllById(keys).forEach(key -> processed.add(key.getId()));
+        events.removeIf(event -> processed.contains(ProcessedProgressEvent.idOf(userId, event.getEventId())));
+
+        // Latest event per task wins; ties keep the one sent last
+        Map<String, ProgressSyncRequest.Event> latestByTask = new LinkedHashMap<>();
+        for (ProgressSyncRequest.Event event : events) {
+            String taskKey = event.getPlanId() + "/" + event.getTaskId();
+            ProgressSyncRequest.Event current = latestByTask.get(taskKey);
+            if (current == null || !event.getOccurredAt().isBefore(current.getOccurredAt())) {
+                if (current != null) {
+                    statuses.put(current.getEventId(), ProgressSyncResponse.Status.SUPERSEDED);
+                }
+                latestByTask.put(taskKey, event);
+            } else {
+                statuses.put(event.getEventId(), ProgressSyncResponse.Status.SUPERSEDED);
+            }
+        }
+        Map<String, List<ProgressSyncRequest.Event>> eventsByPlan = latestByTask.values().stream()
+                .collect(Collectors.groupingBy(ProgressSyncRequest.Event::getPlanId, LinkedHashMap::new, Collectors.toList()));
+
+        // Latest known state of every affected plan, for the response
+        Map<String, LearningPlan> plans = new HashMap<>();
+        for (int round = 0; round < MAX_ROUNDS && !eventsByPlan.isEmpty(); round++) {
+            Map<String, LearningPlan> loaded = loadPlans(userId, eventsByPlan.keySet());
+            plans.putAll(loaded);
+
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LearningPlan.class);
+            List<PlannedWrite> writes = new ArrayList<>();
+            for (Map.Entry<String, List<ProgressSyncRequest.Event>> entry : eventsByPlan.entrySet()) {
+                PlannedWrite write = plan(loaded.get(entry.getKey()), entry.getValue(), statuses);
+                if (write != null) {
+                    bulkOps.updateOne(write.query, write.update);
+                    writes.add(write);
+                }
+            }
+            if (writes.isEmpty()) {
+                eventsByPlan.clear();
+                break;
+            }
+
+            // Plans without a write are settled either way
+            Set<String> written = writes.stream().map(write -> write.planId).collect(Collectors.toSet());
+            eventsByPlan.keySet().retainAll(written);
+
+            int matched = bulkOps.execute().getMatchedCount();
+            if (matched == writes.size()) {
+                // The in-memory plans already hold the state that was written
+                writes.forEach(write -> confirm(write, userId, statuses));
+                eventsByPlan.clear();
+                break;
+            }
+
+            // Some plans changed under us: keep the writes that landed, recompute the rest
+            Map<String, LearningPlan> reloaded = loadPlans(userId, written);
+            for (PlannedWrite write : writes) {
+                if (landed(reloaded.get(write.planId), write)) {
+                    confirm(write, userId, statuses);
+                    eventsByPlan.remove(write.planId);
+                }
+            }
+            plans.putAll(reloaded);
+        }
+
+        // Whatever is still pending kept conflicting with concurrent writes
+        eventsByPlan.values().forEach(pending -> pending.forEach(event ->
+                statuses.put(event.getEventId(), ProgressSyncResponse.Status.CONFLICT)));
+
+        recordProcessed(userId, statuses);
+
+        Set<String> planIds = request.getEvents().stream()
+                .map(ProgressSyncRequest.Event::getPlanId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<ProgressSyncResponse.PlanProgress> progress = planIds.stream()
+                .map(plans::get)
+                .filter(Objects::nonNull)
+                .map(this::toPlanProgress)
+                .collect(Collectors.toList());
+        List<ProgressSyncResponse.EventResult> results = statuses.entrySet().stream()
+                .map(entry -> new ProgressSyncResponse.EventResult(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        return new ProgressSyncResponse(results, progress);
+    }
+
+    /**
+     * Reads the progress-relevant fields of the user's plans, with template-backed plans resolved
+     */
+    private Map<String, LearningPlan> loadPlans(String userId, Collection<String> planIds) {
+        if (planIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Query query = new Query(Criteria.where("id").in(planIds).and("userId").is(userId));
+        query.fields().include("userId", "category", "isTemplate", "version", "templateId", "templateRevision", "overlay",
+                "modules.id", "modules.completedMinutes", "modules.tasks.id", "modules.tasks.estimatedMinutes",
+                "modules.tasks.completedAt", "modules.tasks.progressUpdatedAt",
+                "status", "taskCount", "completedTaskCount", "completedMinutes", "completedHours");
+        return mongoTemplate.find(query, LearningPlan.class).stream()
+                .map(templateResolver::resolve)
+                .collect(Collectors.toMap(LearningPlan::getId, Function.identity()));
+    }
+
+    /**
+     * Works out the new state of one plan and the single update that writes it
+     * @return The write, or null if no event changes the plan
+     */
+    private PlannedWrite plan(LearningPlan plan, List<ProgressSyncRequest.Event> events,
+                              Map<String, ProgressSyncResponse.Status> statuses) {
+        if (plan == null) {
+            events.forEach(event -> statuses.put(event.getEventId(), ProgressSyncResponse.Status.NOT_FOUND));
+            return null;
+        }
+
+        boolean overlay = plan.getTemplateId() != null;
+        Long readVersion = plan.getVersion();
+        PlannedWrite write = new PlannedWrite(plan.getId(), readVersion == null ? 1 : readVersion + 1);
+        Update update = new Update();
+        Map<String, String> moduleFilters = new LinkedHashMap<>();
+
+        for (ProgressSyncRequest.Event event : events) {
+            LearningModule module = plan.getModules().stream()
+                    .filter(candidate -> candidate.getId().equals(event.getModuleId()))
+                    .findFirst()
+                    .orElse(null);
+            LearningTask task = module == null ? null : module.getTasks().stream()
+                    .filter(candidate -> candidate.getId().equals(event.getTaskId()))
+                    .findFirst()
+                    .orElse(null);
+            if (task == null) {
+                statuses.put(event.getEventId(), ProgressSyncResponse.Status.NOT_FOUND);
+                continue;
+            }
+
+            LocalDateTime lastChange = task.getProgressUpdatedAt();
+            if (lastChange != null && !event.getOccurredAt().isAfter(lastChange)) {
+                // Equal times mean this very event already landed in an earlier round or request
+                boolean same = event.getOccurredAt().isEqual(lastChange) && (task.getCompletedAt() != null) == event.isCompleted();
+                statuses.put(event.getEventId(), same ? ProgressSyncResponse.Status.APPLIED : ProgressSyncResponse.Status.STALE);
+                continue;
+            }
+
+            task.setProgressUpdatedAt(event.getOccurredAt());
+            if (event.isCompleted() && task.getCompletedAt() == null) {
+                task.setCompletedAt(event.getOccurredAt());
+                write.statsDeltas.add(LearningStatsService.Delta.completed(
+                        plan.getUserId(), plan.getCategory(), event.getOccurredAt(), task.getEstimatedMinutes()));
+            } else if (!event.isCompleted() && task.getCompletedAt() != null) {
+                // Taken off the day it was originally counted on
+                write.statsDeltas.add(LearningStatsService.Delta.reopened(
+                        plan.getUserId(), plan.getCategory(), task.getCompletedAt(), task.getEstimatedMinutes()));
+                task.setCompletedAt(null);
+            }
+            write.events.add(event);
+
+            if (overlay) {
+                String taskId = event.getTaskId();
+                update.set("overlay.progressUpdatedAt." + taskId, event.getOccurredAt());
+                if (task.getCompletedAt() != null) {
+                    update.set("overlay.completedTasks." + taskId, task.getCompletedAt());
+                } else {
+                    update.unset("overlay.completedTasks." + taskId);
+                }
+            } else {
+                String moduleFilter = moduleFilters.computeIfAbsent(module.getId(), id -> "m" + moduleFilters.size());
+                String taskFilter = "t" + write.events.size();
+                String path = "modules.$[" + moduleFilter + "].tasks.$[" + taskFilter + "].";
+                update.set(path + "progressUpdatedAt", event.getOccurredAt());
+                if (task.getCompletedAt() != null) {
+                    update.set(path + "completedAt", task.getCompletedAt());
+                } else {
+                    update.unset(path + "completedAt");
+                }
+                update.filterArray(Criteria.where(taskFilter + "." + idFieldOf(LearningTask.class)).is(task.getId()));
+            }
+        }
+        if (write.events.isEmpty()) {
+            return null;
+        }
+
+        // Counters are recomputed from the full task list, which also repairs any earlier drift
+        int completedTaskCount = 0;
+        int completedMinutes = 0;
+        int taskCount = 0;
+        for (LearningModule module : plan.getModules()) {
+            int moduleMinutes = 0;
+            for (LearningTask task : module.getTasks()) {
+                taskCount++;
+                if (task.getCompletedAt() != null) {
+                    completedTaskCount++;
+                    moduleMinutes += task.getEstimatedMinutes();
+                }
+            }
+            completedMinutes += moduleMinutes;
+            String moduleFilter = moduleFilters.get(module.getId());
+            if (moduleFilter != null) {
+                update.set("modules.$[" + moduleFilter + "].completedMinutes", moduleMinutes)
+                        .set("modules.$[" + moduleFilter + "].completedHours", moduleMinutes / 60)
+                        .filterArray(Criteria.where(moduleFilter + "." + idFieldOf(LearningModule.class)).is(module.getId()));
+            }
+        }
+        PlanStatus status = completedTaskCount == 0
+                ? PlanStatus.NOT_STARTED
+                : completedTaskCount >= taskCount ? PlanStatus.COMPLETED : PlanStatus.IN_PROGRESS;
+
+        if (!plan.isTemplate()) {
+            write.category = plan.getCategory();
+            write.hoursDelta = completedMinutes / 60 - plan.getCompletedHours();
+        }
+        plan.setCompletedTaskCount(completedTaskCount);
+        plan.setCompletedMinutes(completedMinutes);
+        plan.setCompletedHours(completedMinutes / 60);
+        plan.setTaskCount(taskCount);
+        plan.setStatus(status);
+        plan.setVersion(write.version);
+
+        update.set("completedTaskCount", completedTaskCount)
+                .set("completedMinutes", completedMinutes)
+                .set("completedHours", completedMinutes / 60)
+                .set("status", status)
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        write.query = new Query(Criteria.where("id").is(plan.getId()).and("version").is(readVersion));
+        write.update = update;
+        return write;
+    }
+
+    private boolean landed(LearningPlan plan, PlannedWrite write) {
+        if (plan == null || plan.getVersion() == null || plan.getVersion() < write.version) {
+            return false;
+        }
+        Map<String, LocalDateTime> changeTimes = plan.getModules().stream()
+                .flatMap(module -> module.getTasks().stream())
+                .filter(task -> task.getProgressUpdatedAt() != null)
+                .collect(Collectors.toMap(LearningTask::getId, LearningTask::getProgressUpdatedAt, (a, b) -> a));
+        return write.events.stream()
+                .allMatch(event -> changeTimes.containsKey(event.getTaskId())
+                        && event.getOccurredAt().isEqual(changeTimes.get(event.getTaskId())));
+    }
+
+    private void confirm(PlannedWrite write, String userId, Map<String, ProgressSyncResponse.Status> statuses) {
+        List<Map<String, Object>> tasks = new ArrayList<>();
+        for (ProgressSyncRequest.Event event : write.events) {
+            statuses.put(event.getEventId(), ProgressSyncResponse.Status.APPLIED);
+            Map<String, Object> task = new LinkedHashMap<>();
+            task.put("moduleId", event.getModuleId());
+            task.put("taskId", event.getTaskId());
+            task.put("completed", event.isCompleted());
+            task.put("at", event.getOccurredAt());
+            tasks.add(task);
+        }
+        planChangeLog.record(write.planId, write.version, userId, PlanChange.Type.PROGRESS_SYNCED, Map.of("tasks", tasks));
+        learningStatsService.record(write.statsDeltas);
+        leaderboardService.adjust(userId, write.category, write.hoursDelta);
+    }
+
+    /**
+     * Stores the idempotency keys of every event with a final outcome; conflicts can be retried
+     */
+    private void recordProcessed(String userId, Map<String, ProgressSyncResponse.Status> statuses) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessedProgressEvent> keys = statuses.entrySet().stream()
+                .filter(entry -> entry.getValue() != ProgressSyncResponse.Status.DUPLICATE
+                        && entry.getValue() != ProgressSyncResponse.Status.CONFLICT)
+                .map(entry -> new ProcessedProgressEvent(ProcessedProgressEvent.idOf(userId, entry.getKey()), now))
+                .collect(Collectors.toList());
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProcessedProgressEvent.class);
+            bulkOps.insert(keys);
+            bulkOps.execute();
+        } catch (DuplicateKeyException e) {
+            // A concurrent sync of the same events recorded them first
+            log.debug("Some progress events of user {} were already recorded", userId);
+        }
+    }
+
+    private ProgressSyncResponse.PlanProgress toPlanProgress(LearningPlan plan) {
+        return new ProgressSyncResponse.PlanProgress(
+                plan.getId(),
+                plan.getVersion(),
+                plan.getStatus(),
+                plan.getCompletedTaskCount(),
+                plan.getTaskCount(),
+                plan.getCompletedMinutes(),
+                plan.getCompletedHours());
+    }
+
+    // Array filters are not mapped, so they need the stored name of embedded IDs
+    private String idFieldOf(Class<?> embeddedType) {
+        return mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(embeddedType)
+                .getRequiredIdProperty()
+                .getFieldName();
+    }
+
+    private static final class PlannedWrite {
+        private final String planId;
+        // Plan version once this write lands
+        private final long version;
+        private final List<ProgressSyncRequest.Event> events = new ArrayList<>();
+        private final List<LearningStatsService.Delta> statsDeltas = new ArrayList<>();
+        private String category;
+        private int hoursDelta;
+        private Query query;
+        private Update update;
+
+        private PlannedWrite(String planId, long version) {
+            this.planId = planId;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.QueryShapeResponse;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Profiles the application's Mongo commands by query shape: the filter, sort or pipeline with
+ * every value replaced by ?, so the same derived query with different arguments is counted
+ * once. Each shape keeps a count, a latency histogram for p99 and its slowest run. Once a read
+ * shape has been slower than the threshold, its next slow run is explained in the background
+ * with executionStats, at most once per shape per interval, and the winning plan and documents
+ * examined are logged, so collection scans show up before they become incidents.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QueryProfiler implements CommandListener {
+
+    private static final Set<String> PROFILED_COMMANDS = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+    private static final Set<String> EXPLAINED_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+    // Per-connection and transaction fields that explain does not accept
+    private static final Set<String> NOT_EXPLAINABLE_FIELDS = Set.of(
+            "lsid", "txnNumber", "autocommit", "startTransaction", "readConcern", "writeConcern");
+    private static final int MAX_SHAPE_LENGTH = 500;
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong droppedShapes = new AtomicLong();
+    // Explains queue up to a point and are otherwise skipped; they are only diagnostics
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), runnable -> {
+                Thread thread = new Thread(runnable, "query-explainer");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @Value("${app.profiler.slow-query-ms:100}")
+    private long slowQueryMillis;
+
+    @Value("${app.profiler.explain-interval-minutes:10}")
+    private long explainIntervalMinutes;
+
+    @Value("${app.profiler.max-shapes:2000}")
+    private int maxShapes;
+
+    @PostConstruct
+    void registerMetrics() {
+        new ExecutorServiceMetrics(explainer, "query-explainer", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (!PROFILED_COMMANDS.contains(commandName)) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        BsonValue collection = command.get(commandName);
+        if (collection == null || !collection.isString()) {
+            return;
+        }
+
+        String shape = shapeOf(commandName, command);
+        String key = collection.asString().getValue() + "|" + commandName + "|" + shape;
+        ShapeStats stats = shapes.get(key);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                droppedShapes.incrementAndGet();
+                return;
+            }
+            stats = shapes.computeIfAbsent(key, k -> new ShapeStats(collection.asString().getValue(), commandName, shape));
+        }
+
+        // The command is only valid during this call. Copying it for every run would tax fast
+        // queries, so it is only kept for shapes that have already been slow and are due an explain
+        BsonDocument explainable = EXPLAINED_COMMANDS.contains(commandName) && stats.explainCandidate(explainIntervalMinutes)
+                ? command.clone()
+                : null;
+        inFlight.put(event.getRequestId(), new Started(stats, event.getDatabaseName(), explainable));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            finish(started, event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            finish(started, event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Shapes seen since startup, worst first
+     * @param sort total, p99, max or count
+     * @param limit Maximum number of shapes
+     */
+    public List<QueryShapeResponse> topShapes(String sort, int limit) {
+        Comparator<QueryShapeResponse> order = switch (sort) {
+            case "p99" -> Comparator.comparingDouble(QueryShapeResponse::getP99Millis);
+            case "max" -> Comparator.comparingDouble(QueryShapeResponse::getMaxMillis);
+            case "count" -> Comparator.comparingLong(QueryShapeResponse::getCount);
+            case "total" -> Comparator.comparingDouble(QueryShapeResponse::getTotalMillis);
+            default -> throw new IllegalArgumentException("Unknown sort: " + sort);
+        };
+        if (droppedShapes.get() > 0) {
+            log.debug("{} commands were not profiled because the shape limit was reached", droppedShapes.get());
+        }
+        return shapes.values().stream()
+                .map(ShapeStats::toResponse)
+                .sorted(order.reversed())
+                .limit(Math.max(limit, 1))
+                .toList();
+    }
+
+    private void finish(Started started, long nanos) {
+        ShapeStats stats = started.stats;
+        boolean slow = nanos >= TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        stats.record(nanos, slow);
+        if (slow && started.command != null && stats.claimExplain(explainIntervalMinutes)) {
+            explainer.execute(() -> explain(stats, started.database, started.command, nanos));
+        }
+    }
+
+    private void explain(ShapeStats stats, String database, BsonDocument command, long nanos) {
+        try {
+            Document explainable = new Document();
+            for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+                if (!field.getKey().startsWith("$") && !NOT_EXPLAINABLE_FIELDS.contains(field.getKey())) {
+                    explainable.put(field.getKey(), field.getValue());
+                }
+            }
+            Document result = mongoTemplate.getObject().getMongoDatabaseFactory().getMongoDatabase(database)
+                    .runCommand(new Document("explain", explainable).append("verbosity", "executionStats"));
+
+            Object winningPlan = findFirst(result, "winningPlan");
+            Object executionStats = findFirst(result, "executionStats");
+            String plan = winningPlan instanceof Document planDocument ? describePlan(planDocument) : "unknown";
+            Long docsExamined = null;
+            Long keysExamined = null;
+            Long returned = null;
+            if (executionStats instanceof Document statsDocument) {
+                docsExamined = asLong(statsDocument.get("totalDocsExamined"));
+                keysExamined = asLong(statsDocument.get("totalKeysExamined"));
+                returned = asLong(statsDocument.get("nReturned"));
+            }
+            stats.explained(plan, docsExamined, keysExamined, returned);
+            log.warn("Slow {} on {} took {} ms: {} | plan: {} | docs examined: {}, keys examined: {}, returned: {}",
+                    stats.command, stats.collection, TimeUnit.NANOSECONDS.toMillis(nanos), stats.shape,
+                    plan, docsExamined, keysExamined, returned);
+        } catch (RuntimeException e) {
+            log.debug("Could not explain {} on {}: {}", stats.command, stats.collection, e.getMessage());
+        }
+    }
+
+    /**
+     * The command's filter, sort or pipeline with every value replaced by ?
+     */
+    static String shapeOf(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        switch (commandName) {
+            case "find" -> {
+                putShape(shape, "filter", command.get("filter"));
+                putLiteral(shape, "sort", command.get("sort"));
+            }
+            case "aggregate" -> putShape(shape, "pipeline", command.get("pipeline"));
+            case "count", "findAndModify" -> {
+                putShape(shape, "query", command.get("query"));
+                putLiteral(shape, "sort", command.get("sort"));
+            }
+            case "distinct" -> {
+                putLiteral(shape, "key", command.get("key"));
+                putShape(shape, "query", command.get("query"));
+            }
+            // Only the first statement of a batch; bulk writes of one kind share a shape
+            case "update" -> putFirstStatementShape(shape, command.get("updates"));
+            case "delete" -> putFirstStatementShape(shape, command.get("deletes"));
+            default -> {
+            }
+        }
+        String json = shape.toJson();
+        return json.length() > MAX_SHAPE_LENGTH ? json.substring(0, MAX_SHAPE_LENGTH) + "..." : json;
+    }
+
+    private static void putFirstStatementShape(BsonDocument shape, BsonValue statements) {
+        if (statements != null && statements.isArray() && !statements.asArray().isEmpty()
+                && statements.asArray().get(0).isDocument()) {
+            putShape(shape, "q", statements.asArray().get(0).asDocument().get("q"));
+        }
+    }
+
+    private static void putShape(BsonDocument shape, String name, BsonValue value) {
+        if (value != null) {
+            shape.put(name, normalize(null, value));
+        }
+    }
+
+    // Sort directions and distinct keys are part of the shape as they are
+    private static void putLiteral(BsonDocument shape, String name, BsonValue value) {
+        if (value != null) {
+            shape.put(name, value);
+        }
+    }
+
+    private static BsonValue normalize(String key, BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument normalized = new BsonDocument();
+            for (Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+                normalized.put(field.getKey(), normalize(field.getKey(), field.getValue()));
+            }
+            return normalized;
+        }
+        // Lists of conditions and pipeline stages are structure; any other array is a value
+        if (value.isArray() && ("$and".equals(key) || "$or".equals(key) || "$nor".equals(key) || "pipeline".equals(key) || key == null)) {
+            BsonArray normalized = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                normalized.add(normalize(null, element));
+            }
+            return normalized;
+        }
+        // Field paths in pipelines, such as "$userId", are structure too
+        if (value.isString() && value.asString().getValue().startsWith("$")) {
+            return value;
+        }
+        return new BsonString("?");
+    }
+
+    private static Object findFirst(Object node, String key) {
+        if (node instanceof Document document) {
+            if (document.containsKey(key)) {
+                return document.get(key);
+            }
+            for (Object value : document.values()) {
+                Object found = findFirst(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                Object found = findFirst(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stages from the root down, e.g. "LIMIT <- FETCH <- IXSCAN userId_updatedAt"
+     */
+    private static String describePlan(Document plan) {
+        if (plan.get("queryPlan") instanceof Document queryPlan) {
+            return describePlan(queryPlan);
+        }
+        StringBuilder description = new StringBuilder(String.valueOf(plan.get("stage")));
+        if (plan.get("indexName") != null) {
+            description.append(' ').append(plan.get("indexName"));
+        }
+        if (plan.get("inputStage") instanceof Document input) {
+            description.append(" <- ").append(describePlan(input));
+        } else if (plan.get("inputStages") instanceof List<?> inputs) {
+            StringJoiner joined = new StringJoiner(", ", " <- [", "]");
+            for (Object input : inputs) {
+                if (input instanceof Document inputDocument) {
+                    joined.add(describePlan(inputDocument));
+                }
+            }
+            description.append(joined);
+        }
+        return description.toString();
+    }
+
+    private static Long asLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private record Started(ShapeStats stats, String database, BsonDocument command) {
+    }
+
+    private static final class ShapeStats {
+        // Bucket i holds durations up to 2^(i/4) microseconds, so p99 is within about 19%
+        private static final int BUCKETS = 100;
+
+        private final String collection;
+        private final String command;
+        private final String shape;
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        // Read without the lock to decide whether to keep a command for explain
+        private volatile long slowCount;
+        private long totalNanos;
+        private long maxNanos;
+        private volatile long lastExplainAt;
+        private String winningPlan;
+        private Long docsExamined;
+        private Long keysExamined;
+        private Long docsReturned;
+        private LocalDateTime explainedAt;
+
+        private ShapeStats(String collection, String command, String shape) {
+            this.collection = collection;
+            this.command = command;
+            this.shape = shape;
+        }
+
+        private synchronized void record(long nanos, boolean slow) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (slow) {
+                slowCount++;
+            }
+            double micros = Math.max(nanos / 1000.0, 1);
+            int bucket = (int) Math.ceil(4 * Math.log(micros) / Math.log(2));
+            buckets[Math.min(Math.max(bucket, 0), BUCKETS - 1)]++;
+        }
+
+        private boolean explainCandidate(long intervalMinutes) {
+            return slowCount > 0 && explainDue(intervalMinutes);
+        }
+
+        private boolean explainDue(long intervalMinutes) {
+            return lastExplainAt == 0 || System.nanoTime() - lastExplainAt >= TimeUnit.MINUTES.toNanos(intervalMinutes);
+        }
+
+        private synchronized boolean claimExplain(long intervalMinutes) {
+            if (!explainDue(intervalMinutes)) {
+                return false;
+            }
+            lastExplainAt = System.nanoTime();
+            return true;
+        }
+
+        private synchronized void explained(String plan, Long docsExamined, Long keysExamined, Long docsReturned) {
+            this.winningPlan = plan;
+            this.docsExamined = docsExamined;
+            this.keysExamined = keysExamined;
+            this.docsReturned = docsReturned;
+            this.explainedAt = LocalDateTime.now();
+        }
+
+        private synchronized QueryShapeResponse toResponse() {
+            return QueryShapeResponse.builder()
+                    .collection(collection)
+                    .command(command)
+                    .shape(shape)
+                    .count(count)
+                    .slowCount(slowCount)
+                    .totalMillis(totalNanos / 1e6)
+                    .meanMillis(count == 0 ? 0 : totalNanos / 1e6 / count)
+                    .p99Millis(Math.min(percentileMillis(0.99), maxNanos / 1e6))
+                    .maxMillis(maxNanos / 1e6)
+                    .winningPlan(winningPlan)
+                    .docsExamined(docsExamined)
+                    .keysExamined(keysExamined)
+                    .docsReturned(docsReturned)
+                    .explainedAt(explainedAt)
+                    .build();
+        }
+
+        private double percentileMillis(double percentile) {
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.pow(2, i / 4.0) / 1000.0;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.skillshareplus.security.services;
+
+import java.util.*;
+
+/**
+ * Indexable skip list of member scores, ordered by score descending and member ID ascending.
+ * Each forward link stores how many entries it skips, so the rank of a member and the
+ * entry at a given rank are found in O(log n) like a lookup. Not thread-safe.
+ */
+final class RankedScores {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double PROMOTION_PROBABILITY = 0.25;
+
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+    private final Map<String, Integer> scores = new HashMap<>();
+    private final Random random = new Random();
+    private int level = 1;
+
+    /**
+     * Set a member's score; members with a score of zero or less are not ranked
+     */
+    void put(String member, int score) {
+        Integer current = scores.get(member);
+        if (current != null) {
+            if (current == score) {
+                return;
+            }
+            delete(member, current);
+            scores.remove(member);
+        }
+        if (score > 0) {
+            insert(member, score);
+            scores.put(member, score);
+        }
+    }
+
+    Integer scoreOf(String member) {
+        return scores.get(member);
+    }
+
+    int size() {
+        return scores.size();
+    }
+
+    /**
+     * @return 1-based rank of the member, or 0 if it is not ranked
+     */
+    int rankOf(String member) {
+        Integer score = scores.get(member);
+        if (score == null) {
+            return 0;
+        }
+        int rank = 0;
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && compare(node.next[i], member, score) <= 0) {
+                rank += node.span[i];
+                node = node.next[i];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @return Up to limit entries starting at the given 1-based rank, as member/score pairs
+     */
+    List<Map.Entry<String, Integer>> range(int fromRank, int limit) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        if (fromRank < 1 || fromRank > scores.size() || limit <= 0) {
+            return entries;
+        }
+
+        // Walk down to the entry at fromRank, then along the bottom level
+        int traversed = 0;
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && traversed + node.span[i] <= fromRank) {
+                traversed += node.span[i];
+                node = node.next[i];
+            }
+        }
+        while (node != null && entries.size() < limit) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(node.member, node.score));
+            node = node.next[0];
+        }
+        return entries;
+    }
+
+    void clear() {
+        Arrays.fill(head.next, null);
+        Arrays.fill(head.span, 0);
+        scores.clear();
+        level = 1;
+    }
+
+    private void insert(String member, int score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (node.next[i] != null && compare(node.next[i], member, score) < 0) {
+                rank[i] += node.span[i];
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                update[i].span[i] = scores.size();
+            }
+            level = newLevel;
+        }
+
+        Node inserted = new Node(member, score, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            inserted.next[i] = update[i].next[i];
+            update[i].next[i] = inserted;
+            inserted.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+    }
+
+    private void delete(String member, int score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && compare(node.next[i], member, score) < 0) {
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+
+        Node target = node.next[0];
+        if (target == null || !target.member.equals(member)) {
+            return;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+    }
+
+    private int randomLevel() {
+        int newLevel = 1;
+        while (newLevel < MAX_LEVEL && random.nextDouble() < PROMOTION_PROBABILITY) {
+            newLevel++;
+        }
+        return newLevel;
+    }
+
+    // Higher scores first; equal scores by member ID so the order is stable
+    private static int compare(Node node, String member, int score) {
+        if (node.score != score) {
+            return node.score > score ? -1 : 1;
+        }
+        return node.member.compareTo(member);
+    }
+
+    private static final class Node {
+        private final String member;
+        private final int score;
+        private final Node[] next;
+        private final int[] span;
+
+        private Node(String member, int score, int levels) {
+            this.member = member;
+            this.score = score;
+            this.next = new Node[levels];
+            this.span = new int[levels];
+        }
+    }
+}
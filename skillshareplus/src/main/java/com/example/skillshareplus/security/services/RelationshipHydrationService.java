@@ -0,0 +1,112 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.UserResponse;
+import com.example.skillshareplus.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the relationship between a viewer and a batch of users in a single query.
+ * Instead of loading every target with its full followers/following sets and checking
+ * membership per row, the follower/following arrays are projected down to the viewer's
+ * own ID with $elemMatch, so each row only carries whether the edge exists.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RelationshipHydrationService {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Build user responses for the given targets as seen by the viewer
+     * @param viewerId ID of the user looking at the list (may be null for anonymous access)
+     * @param targetIds IDs of the users to hydrate
+     * @return User responses in the same order as targetIds, skipping IDs that no longer exist
+     */
+    public List<UserResponse> hydrate(String viewerId, Collection<String> targetIds) {
+        if (targetIds == null || targetIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> orderedIds = new ArrayList<>(new LinkedHashSet<>(targetIds));
+
+        Document fields = new Document("email", 1)
+                .append("firstName", 1)
+                .append("lastName", 1)
+                .append("roles", 1)
+                .append("followerCount", 1)
+                .append("followingCount", 1)
+                .append("createdAt", 1)
+                .append("updatedAt", 1);
+
+        if (viewerId != null) {
+            // Only return the viewer's own ID from each relationship array, if present
+            fields.append("followers", new Document("$elemMatch", new Document("$eq", viewerId)));
+            fields.append("following", new Document("$elemMatch", new Document("$eq", viewerId)));
+        }
+
+        BasicQuery query = new BasicQuery(new Document("_id", new Document("$in", orderedIds)), fields);
+        Map<String, User> usersById = mongoTemplate.find(query, User.class).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+
+        log.debug("Hydrated {} of {} users for viewer {}", usersById.size(), orderedIds.size(), viewerId);
+
+        return orderedIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(user -> toResponse(user, viewerId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Build a single user response as seen by the viewer
+     * @param viewerId ID of the user looking at the profile
+     * @param targetId ID of the user to hydrate
+     * @return The user response, if the user exists
+     */
+    public Optional<UserResponse> hydrate(String viewerId, String targetId) {
+        return hydrate(viewerId, List.of(targetId)).stream().findFirst();
+    }
+
+    /**
+     * Build user responses keyed by user ID, for callers that attach them to other payloads
+     * @param viewerId ID of the user looking at the list
+     * @param targetIds IDs of the users to hydrate
+     * @return Map of user ID to user response
+     */
+    public Map<String, UserResponse> hydrateById(String viewerId, Collection<String> targetIds) {
+        return hydrate(viewerId, targetIds).stream()
+                .collect(Collectors.toMap(UserResponse::getId, response -> response, (a, b) -> a));
+    }
+
+    private UserResponse toResponse(User user, String viewerId) {
+        boolean isFollowing = viewerId != null
+                && user.getFollowers() != null
+                && user.getFollowers().contains(viewerId);
+        boolean followsYou = viewerId != null
+                && user.getFollowing() != null
+                && user.getFollowing().contains(viewerId);
+
+        return UserResponse.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .followerCount(user.getFollowerCount())
+                .followingCount(user.getFollowingCount())
+                .roles(user.getRoles() == null ? List.of() : user.getRoles().stream().map(Enum::name).collect(Collectors.toList()))
+                .isFollowing(isFollowing)
+                .followsYou(followsYou)
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+}
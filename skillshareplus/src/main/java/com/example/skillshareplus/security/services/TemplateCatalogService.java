@@ -0,0 +1,204 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.TemplateResponse;
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the template catalog from an in-memory snapshot.
+ * The snapshot is built from a field projection over the materialised module and task
+ * counts, so template bodies are never loaded to list them. The version is derived from the
+ * data (template count and latest updatedAt), polled at most once per interval, so a write
+ * on any instance is picked up everywhere; invalidate() only makes this instance poll at
+ * once. The ETag is a digest of the content, so it is the same on every instance serving
+ * the same catalog.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TemplateCatalogService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private volatile Poll poll;
+
+    @Value("${app.templates.catalog-poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    /**
+     * @return The current catalog snapshot, rebuilt first if templates changed since it was taken
+     */
+    public Snapshot getCatalog() {
+        Snapshot current = snapshot;
+        long expectedVersion = currentVersion();
+        if (current != null && current.getVersion() == expectedVersion) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            expectedVersion = currentVersion();
+            if (current == null || current.getVersion() != expectedVersion) {
+                current = build(expectedVersion);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Re-check the template data on the next read instead of waiting for the poll interval;
+     * call after any template is created, updated or deleted on this instance
+     */
+    public void invalidate() {
+        synchronized (invalidations) {
+            invalidations.incrementAndGet();
+            poll = null;
+        }
+    }
+
+    /**
+     * @return Version of the template data; changes whenever a template is created, updated or
+     * deleted on any instance, seen here within the poll interval
+     */
+    public long currentVersion() {
+        long now = System.currentTimeMillis();
+        Poll current = poll;
+        if (current != null && now - current.polledAtMillis < pollIntervalMs) {
+            return current.version;
+        }
+
+        long generation = invalidations.get();
+        long version = pollVersion();
+        synchronized (invalidations) {
+            // A poll that raced with invalidate() may predate the write, so it is used but not kept
+            if (invalidations.get() == generation) {
+                poll = new Poll(version, now);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Every template write sets updatedAt and deletes change the count, so the pair
+     * identifies the state of the catalog
+     */
+    private long pollVersion() {
+        Query templates = new Query(Criteria.where("isTemplate").is(true));
+        long count = mongoTemplate.count(templates, LearningPlan.class);
+
+        Query latest = new Query(Criteria.where("isTemplate").is(true))
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt"))
+                .limit(1);
+        latest.fields().include("updatedAt");
+        LearningPlan newest = mongoTemplate.findOne(latest, LearningPlan.class);
+        long latestMillis = newest == null || newest.getUpdatedAt() == null
+                ? 0
+                : newest.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        return latestMillis * 31 + count;
+    }
+
+    private Snapshot build(long snapshotVersion) {
+        Query query = new Query(Criteria.where("isTemplate").is(true))
+                .with(Sort.by(Sort.Direction.ASC, "title"));
+        query.fields().include("title", "description", "category", "estimatedHours", "moduleCount", "taskCount");
+
+        List<TemplateResponse> templates = mongoTemplate.find(query, LearningPlan.class).stream()
+                .map(plan -> new TemplateResponse(
+                        plan.getId(),
+                        plan.getTitle(),
+                        plan.getDescription(),
+                        plan.getCategory(),
+                        plan.getEstimatedHours(),
+                        plan.getModuleCount(),
+                        plan.getTaskCount()))
+                .collect(Collectors.toList());
+
+        String etag = "\"" + digestOf(templates) + "\"";
+        log.info("Template catalog snapshot v{} built with {} templates, etag={}", snapshotVersion, templates.size(), etag);
+        return new Snapshot(snapshotVersion, etag, Collections.unmodifiableList(templates));
+    }
+
+    private String digestOf(List<TemplateResponse> templates) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(templates));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Templates written before counts were materialised get them computed once at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCounts() {
+        Query legacy = new Query(Criteria.where("isTemplate").is(true).and("taskCount").exists(false));
+        for (LearningPlan template : mongoTemplate.find(legacy, LearningPlan.class)) {
+            int taskCount = template.getModules().stream()
+                    .map(LearningModule::getTasks)
+                    .mapToInt(tasks -> tasks == null ? 0 : tasks.size())
+                    .sum();
+            // Straight to the collection, so the backfill leaves the template's version alone
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(LearningPlan.class)).updateOne(
+                    Filters.eq("_id", LearningPlanService.storedId(template.getId())),
+                    Updates.combine(Updates.set("moduleCount", template.getModules().size()), Updates.set("taskCount", taskCount)));
+        }
+    }
+
+    private record Poll(long version, long polledAtMillis) {
+    }
+
+    /**
+     * Immutable view of the catalog at one version
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String etag;
+        private final List<TemplateResponse> templates;
+
+        private Snapshot(long version, String etag, List<TemplateResponse> templates) {
+            this.version = version;
+            this.etag = etag;
+            this.templates = templates;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public List<TemplateResponse> getTemplates() {
+            return templates;
+        }
+    }
+}
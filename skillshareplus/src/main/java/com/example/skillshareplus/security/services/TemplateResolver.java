@@ -0,0 +1,180 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.*;
+import com.example.skillshareplus.repository.TemplateRevisionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Merges template-backed plans with the template revision they reference.
+ * Revisions are immutable, so resolved template modules are cached without invalidation;
+ * every resolve works on a deep copy so the cached modules are never modified.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TemplateResolver {
+
+    private final TemplateRevisionRepository templateRevisionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.templates.revision-cache-size:256}")
+    private int cacheSize;
+
+    private final Map<String, List<LearningModule>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<LearningModule>> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    private CacheMetrics cacheMetrics;
+
+    @PostConstruct
+    void registerMetrics() {
+        cacheMetrics = new CacheMetrics(meterRegistry, "templateRevisions", cache);
+    }
+
+    /**
+     * Make sure the template's current revision has a stored snapshot that instances can reference
+     * @param template The template to snapshot
+     */
+    public void ensureSnapshot(LearningPlan template) {
+        String id = TemplateRevision.idOf(template.getId(), template.getRevision());
+        if (!templateRevisionRepository.existsById(id)) {
+            templateRevisionRepository.save(new TemplateRevision(
+                    id, template.getId(), template.getRevision(), template.getModules(), LocalDateTime.now()));
+            log.info("Stored snapshot of template {} at revision {}", template.getId(), template.getRevision());
+        }
+    }
+
+    /**
+     * Fill in the modules of a template-backed plan; plans with their own modules are returned unchanged
+     * @param plan The stored plan
+     * @return The same plan with its modules resolved from the template and its overlay
+     */
+    public LearningPlan resolve(LearningPlan plan) {
+        if (plan.getTemplateId() == null) {
+            return plan;
+        }
+
+        PlanOverlay overlay = plan.getOverlay() != null ? plan.getOverlay() : new PlanOverlay();
+        List<LearningModule> modules = new ArrayList<>();
+
+        for (LearningModule templateModule : getTemplateModules(plan.getTemplateId(), plan.getTemplateRevision())) {
+            if (!overlay.getRemovedIds().contains(templateModule.getId())) {
+                modules.add(resolveModule(templateModule, overlay));
+            }
+        }
+        for (LearningModule addedModule : overlay.getAddedModules()) {
+            if (!overlay.getRemovedIds().contains(addedModule.getId())) {
+                modules.add(resolveModule(addedModule, overlay));
+            }
+        }
+
+        plan.setModules(modules);
+        return plan;
+    }
+
+    private List<LearningModule> getTemplateModules(String templateId, int revision) {
+        String id = TemplateRevision.idOf(templateId, revision);
+        synchronized (cache) {
+            List<LearningModule> cached = cacheMetrics.record(cache.get(id));
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<LearningModule> modules = templateRevisionRepository.findById(id)
+                .map(TemplateRevision::getModules)
+                .orElseThrow(() -> new RuntimeException("Template revision not found"));
+
+        synchronized (cache) {
+            cache.put(id, modules);
+        }
+        return modules;
+    }
+
+    private LearningModule resolveModule(LearningModule source, PlanOverlay overlay) {
+        LearningModule module = new LearningModule();
+        module.setId(source.getId());
+        module.setTitle(source.getTitle());
+        module.setDescription(source.getDescription());
+        module.setEstimatedHours(source.getEstimatedHours());
+
+        PlanOverlay.ItemEdit edit = overlay.getEdits().get(source.getId());
+        if (edit != null) {
+            if (edit.getTitle() != null) module.setTitle(edit.getTitle());
+            if (edit.getDescription() != null) module.setDescription(edit.getDescription());
+            if (edit.getEstimatedHours() != null) module.setEstimatedHours(edit.getEstimatedHours());
+        }
+
+        List<LearningTask> tasks = new ArrayList<>();
+        for (LearningTask task : source.getTasks()) {
+            if (!overlay.getRemovedIds().contains(task.getId())) {
+                tasks.add(resolveTask(task, overlay));
+            }
+        }
+        for (LearningTask task : overlay.getAddedTasks().getOrDefault(source.getId(), Collections.emptyList())) {
+            if (!overlay.getRemovedIds().contains(task.getId())) {
+                tasks.add(resolveTask(task, overlay));
+            }
+        }
+        module.setTasks(tasks);
+
+        int completedMinutes = tasks.stream()
+                .filter(task -> task.getCompletedAt() != null)
+                .mapToInt(LearningTask::getEstimatedMinutes)
+                .sum();
+        module.setCompletedMinutes(completedMinutes);
+        module.setCompletedHours(completedMinutes / 60);
+        return module;
+    }
+
+    private LearningTask resolveTask(LearningTask source, PlanOverlay overlay) {
+        LearningTask task = new LearningTask();
+        task.setId(source.getId());
+        task.setTitle(source.getTitle());
+        task.setDescription(source.getDescription());
+        task.setEstimatedMinutes(source.getEstimatedMinutes());
+        task.setCompletedAt(overlay.getCompletedTasks().get(source.getId()));
+        task.setProgressUpdatedAt(overlay.getProgressUpdatedAt().get(source.getId()));
+
+        PlanOverlay.ItemEdit edit = overlay.getEdits().get(source.getId());
+        if (edit != null) {
+            if (edit.getTitle() != null) task.setTitle(edit.getTitle());
+            if (edit.getDescription() != null) task.setDescription(edit.getDescription());
+            if (edit.getEstimatedMinutes() != null) task.setEstimatedMinutes(edit.getEstimatedMinutes());
+        }
+
+        List<Resource> resources = new ArrayList<>();
+        for (Resource resource : source.getResources()) {
+            if (!overlay.getRemovedIds().contains(resource.getId())) {
+                resources.add(resolveResource(resource, overlay));
+            }
+        }
+        for (Resource resource : overlay.getAddedResources().getOrDefault(source.getId(), Collections.emptyList())) {
+            if (!overlay.getRemovedIds().contains(resource.getId())) {
+                resources.add(resolveResource(resource, overlay));
+            }
+        }
+        task.setResources(resources);
+        return task;
+    }
+
+    private Resource resolveResource(Resource source, PlanOverlay overlay) {
+        Resource resource = new Resource(source.getId(), source.getTitle(), source.getUrl(), source.getType(), source.getNotes());
+        PlanOverlay.ItemEdit edit = overlay.getEdits().get(source.getId());
+        if (edit != null) {
+            if (edit.getTitle() != null) resource.setTitle(edit.getTitle());
+            if (edit.getDescription() != null) resource.setNotes(edit.getDescription());
+        }
+        return resource;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.TemplateResponse;
+import com.example.skillshareplus.dto.response.TemplateSearchResponse;
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.LearningTask;
+import com.example.skillshareplus.model.Resource;
+import com.example.skillshareplus.model.ResourceType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text and faceted search over the template catalog, served from an in-memory
+ * inverted index. Every token of a template's title, description, module titles and task
+ * titles maps to the templates containing it, weighted by the field it came from; matches
+ * are ranked by the sum of weight times inverse document frequency over the query terms.
+ * The index is immutable and rebuilt on the first search after the catalog version changes,
+ * and the facets of the unfiltered catalog are computed once per build.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TemplateSearchIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final float TITLE_WEIGHT = 4f;
+    private static final float MODULE_TITLE_WEIGHT = 2f;
+    private static final float TASK_TITLE_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Lower bounds of the estimated-hours facet buckets
+    private static final int[] HOURS_BUCKET_BOUNDS = {0, 10, 25, 50, 100};
+    private static final String[] HOURS_BUCKET_LABELS = {"0-9", "10-24", "25-49", "50-99", "100+"};
+
+    private final MongoTemplate mongoTemplate;
+    private final TemplateCatalogService templateCatalogService;
+
+    private volatile Index index;
+
+    /**
+     * @param rawQuery Free text; every term must occur in the template, the last one as a prefix
+     * @param category Only templates in this category, if given
+     * @param resourceType Only templates with at least one resource of this type, if given
+     * @param hours Only templates in this estimated-hours bucket, if given
+     * @param page Zero-based page number
+     * @param size Page size
+     * @return The page of matches and the facet counts over all matches
+     */
+    public TemplateSearchResponse search(String rawQuery, String category, String resourceType, String hours, int page, int size) {
+        ResourceType typeFilter = parseResourceType(resourceType);
+        int bucketFilter = parseHoursBucket(hours);
+        String categoryFilter = category == null || category.isBlank() ? null : category.trim();
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = Math.max(page, 0);
+
+        Index current = currentIndex();
+        List<String> terms = tokenize(rawQuery);
+
+        Map<Integer, Float> scores = terms.isEmpty() ? new LinkedHashMap<>() : score(current, terms);
+        if (terms.isEmpty()) {
+            for (int doc = 0; doc < current.docs.size(); doc++) {
+                scores.put(doc, 0f);
+            }
+        }
+
+        boolean filtered = categoryFilter != null || typeFilter != null || bucketFilter >= 0;
+        List<Integer> matches = new ArrayList<>();
+        for (Integer doc : scores.keySet()) {
+            Doc candidate = current.docs.get(doc);
+            if ((categoryFilter == null || categoryFilter.equalsIgnoreCase(candidate.template.getCategory()))
+                    && (typeFilter == null || candidate.resourceTypes.contains(typeFilter))
+                    && (bucketFilter < 0 || candidate.hoursBucket == bucketFilter)) {
+                matches.add(doc);
+            }
+        }
+
+        // Docs are stored in title order, so equal scores stay alphabetical
+        matches.sort(Comparator.<Integer>comparingDouble(doc -> -scores.get(doc)).thenComparingInt(doc -> doc));
+        TemplateSearchResponse.Facets facets = terms.isEmpty() && !filtered
+                ? current.catalogFacets
+                : facetsOf(current.docs, matches);
+
+        List<TemplateResponse> templates = matches.stream()
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize)
+                .map(doc -> current.docs.get(doc).template)
+                .collect(Collectors.toList());
+        return new TemplateSearchResponse(rawQuery, matches.size(), pageNumber, pageSize, templates, facets);
+    }
+
+    private Map<Integer, Float> score(Index current, List<String> terms) {
+        Map<Integer, Float> scores = null;
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            // The last term may still be being typed
+            SortedMap<String, Map<Integer, Float>> matchingTokens = i == terms.size() - 1
+                    ? current.postings.subMap(term, term + Character.MAX_VALUE)
+                    : exactly(current.postings, term);
+
+            Map<Integer, Float> termScores = new HashMap<>();
+            for (Map<Integer, Float> postings : matchingTokens.values()) {
+                double idf = Math.log(1 + (current.docs.size() - postings.size() + 0.5) / (postings.size() + 0.5));
+                postings.forEach((doc, weight) -> termScores.merge(doc, (float) (weight * idf), Float::sum));
+            }
+
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Integer, Float> merged = new HashMap<>();
+                for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                    Float termScore = termScores.get(entry.getKey());
+                    if (termScore != null) {
+                        merged.put(entry.getKey(), entry.getValue() + termScore);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private Index currentIndex() {
+        Index current = index;
+        long expectedVersion = templateCatalogService.currentVersion();
+        if (current != null && current.version == expectedVersion) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = index;
+            expectedVersion = templateCatalogService.currentVersion();
+            if (current == null || current.version != expectedVersion) {
+                current = build(expectedVersion);
+                index = current;
+            }
+            return current;
+        }
+    }
+
+    private Index build(long version) {
+        long start = System.currentTimeMillis();
+        Query query = new Query(Criteria.where("isTemplate").is(true))
+                .with(Sort.by(Sort.Direction.ASC, "title"));
+        query.fields().include("title", "description", "category", "estimatedHours",
+                "modules.title", "modules.tasks.title", "modules.tasks.resources.type");
+
+        List<Doc> docs = new ArrayList<>();
+        TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+        for (LearningPlan template : mongoTemplate.find(query, LearningPlan.class)) {
+            int doc = docs.size();
+            Map<String, Float> weights = new HashMap<>();
+            addTokens(weights, template.getTitle(), TITLE_WEIGHT);
+            addTokens(weights, template.getDescription(), DESCRIPTION_WEIGHT);
+
+            Set<ResourceType> resourceTypes = EnumSet.noneOf(ResourceType.class);
+            int taskCount = 0;
+            for (LearningModule module : template.getModules()) {
+                addTokens(weights, module.getTitle(), MODULE_TITLE_WEIGHT);
+                for (LearningTask task : module.getTasks()) {
+                    taskCount++;
+                    addTokens(weights, task.getTitle(), TASK_TITLE_WEIGHT);
+                    for (Resource resource : task.getResources()) {
+                        if (resource.getType() != null) {
+                            resourceTypes.add(resource.getType());
+                        }
+                    }
+                }
+            }
+            weights.forEach((token, weight) -> postings.computeIfAbsent(token, key -> new HashMap<>()).put(doc, weight));
+
+            TemplateResponse response = new TemplateResponse(template.getId(), template.getTitle(), template.getDescription(),
+                    template.getCategory(), template.getEstimatedHours(), template.getModules().size(), taskCount);
+            docs.add(new Doc(response, resourceTypes, hoursBucketOf(template.getEstimatedHours())));
+        }
+
+        List<Integer> all = new ArrayList<>();
+        for (int doc = 0; doc < docs.size(); doc++) {
+            all.add(doc);
+        }
+        Index built = new Index(version, docs, postings, facetsOf(docs, all));
+        log.info("Template search index v{} built with {} templates and {} terms in {} ms",
+                version, docs.size(), postings.size(), System.currentTimeMillis() - start);
+        return built;
+    }
+
+    private static TemplateSearchResponse.Facets facetsOf(List<Doc> docs, List<Integer> matches) {
+        Map<String, Integer> categories = new HashMap<>();
+        Map<ResourceType, Integer> resourceTypes = new EnumMap<>(ResourceType.class);
+        int[] hours = new int[HOURS_BUCKET_LABELS.length];
+        for (Integer doc : matches) {
+            Doc candidate = docs.get(doc);
+            if (candidate.template.getCategory() != null) {
+                categories.merge(candidate.template.getCategory(), 1, Integer::sum);
+            }
+            candidate.resourceTypes.forEach(type -> resourceTypes.merge(type, 1, Integer::sum));
+            hours[candidate.hoursBucket]++;
+        }
+
+        // Largest categories first
+        Map<String, Integer> sortedCategories = categories.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        Map<String, Integer> typeCounts = new LinkedHashMap<>();
+        resourceTypes.forEach((type, count) -> typeCounts.put(type.name(), count));
+        Map<String, Integer> hoursCounts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < hours.length; bucket++) {
+            hoursCounts.put(HOURS_BUCKET_LABELS[bucket], hours[bucket]);
+        }
+        return new TemplateSearchResponse.Facets(
+                Collections.unmodifiableMap(sortedCategories),
+                Collections.unmodifiableMap(typeCounts),
+                Collections.unmodifiableMap(hoursCounts));
+    }
+
+    private static void addTokens(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static SortedMap<String, Map<Integer, Float>> exactly(TreeMap<String, Map<Integer, Float>> postings, String term) {
+        Map<Integer, Float> match = postings.get(term);
+        return match == null ? Collections.emptySortedMap() : new TreeMap<>(Map.of(term, match));
+    }
+
+    private static ResourceType parseResourceType(String resourceType) {
+        if (resourceType == null || resourceType.isBlank()) {
+            return null;
+        }
+        try {
+            return ResourceType.valueOf(resourceType.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid resource type: " + resourceType);
+        }
+    }
+
+    private static int parseHoursBucket(String hours) {
+        if (hours == null || hours.isBlank()) {
+            return -1;
+        }
+        int bucket = Arrays.asList(HOURS_BUCKET_LABELS).indexOf(hours.trim());
+        if (bucket < 0) {
+            throw new IllegalArgumentException("Invalid hours range: " + hours + "; expected one of " + String.join(", ", HOURS_BUCKET_LABELS));
+        }
+        return bucket;
+    }
+
+    private static int hoursBucketOf(int estimatedHours) {
+        int bucket = 0;
+        while (bucket + 1 < HOURS_BUCKET_BOUNDS.length && estimatedHours >= HOURS_BUCKET_BOUNDS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static final class Index {
+        private final long version;
+        // In title order
+        private final List<Doc> docs;
+        // Token -> template position -> summed field weight
+        private final TreeMap<String, Map<Integer, Float>> postings;
+        private final TemplateSearchResponse.Facets catalogFacets;
+
+        private Index(long version, List<Doc> docs, TreeMap<String, Map<Integer, Float>> postings,
+                      TemplateSearchResponse.Facets catalogFacets) {
+            this.version = version;
+            this.docs = docs;
+            this.postings = postings;
+            this.catalogFacets = catalogFacets;
+        }
+    }
+
+    private static final class Doc {
+        private final TemplateResponse template;
+        private final Set<ResourceType> resourceTypes;
+        private final int hoursBucket;
+
+        private Doc(TemplateResponse template, Set<ResourceType> resourceTypes, int hoursBucket) {
+            this.template = template;
+            this.resourceTypes = resourceTypes;
+            this.hoursBucket = hoursBucket;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.request.LearningModuleRequest;
+import com.example.skillshareplus.dto.request.LearningTaskRequest;
+import com.example.skillshareplus.dto.request.ResourceRequest;
+import com.example.skillshareplus.dto.request.TemplateSeed;
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.LearningTask;
+import com.example.skillshareplus.model.PlanStatus;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Seeds the curated template catalog from JSON resources on the classpath.
+ * Each file holds templates either one per line (NDJSON) or as a single array, and is read
+ * one template at a time. Templates are upserted by their stable key in unordered bulk
+ * writes; a template whose content hash matches the stored one is skipped, so restarts
+ * only write what changed in the shipped catalog.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TemplateSeeder {
+
+    private static final String SYSTEM_USER = "system";
+    private static final int BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final TemplateCatalogService templateCatalogService;
+
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+
+    @Value("${app.templates.seed-locations:classpath*:seed/templates/**/*.ndjson,classpath*:seed/templates/**/*.json}")
+    private String[] seedLocations;
+
+    /**
+     * Insert new seeded templates and update changed ones; updates bump the revision so
+     * existing instances keep the content they were created from
+     */
+    public void seed() {
+        Map<String, String> storedHashes = loadSeedHashes();
+        Set<String> seenKeys = new HashSet<>();
+        List<TemplateSeed> pending = new ArrayList<>();
+        List<String> pendingHashes = new ArrayList<>();
+        int unchanged = 0;
+        int written = 0;
+
+        for (Resource resource : findSeedResources()) {
+            try (InputStream in = resource.getInputStream();
+                 MappingIterator<TemplateSeed> seeds = objectMapper.readerFor(TemplateSeed.class).readValues(in)) {
+                while (seeds.hasNextValue()) {
+                    TemplateSeed seed = seeds.nextValue();
+                    if (seed.getKey() == null || seed.getKey().isBlank() || seed.getTitle() == null || seed.getTitle().isBlank()) {
+                        throw new RuntimeException("Template seed without key or title in " + resource.getFilename());
+                    }
+                    if (!seenKeys.add(seed.getKey())) {
+                        log.warn("Duplicate template seed {} in {} ignored", seed.getKey(), resource.getFilename());
+                        continue;
+                    }
+
+                    String hash = hashOf(seed);
+                    if (hash.equals(storedHashes.get(seed.getKey()))) {
+                        unchanged++;
+                        continue;
+                    }
+                    pending.add(seed);
+                    pendingHashes.add(hash);
+                    if (pending.size() >= BATCH_SIZE) {
+                        written += write(pending, pendingHashes);
+                        pending.clear();
+                        pendingHashes.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read template seed " + resource.getFilename(), e);
+            }
+        }
+        written += write(pending, pendingHashes);
+
+        if (written > 0) {
+            templateCatalogService.invalidate();
+        }
+        log.info("Template seeding: {} templates inserted or updated, {} unchanged", written, unchanged);
+    }
+
+    private int write(List<TemplateSeed> seeds, List<String> hashes) {
+        if (seeds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LearningPlan.class);
+        for (int i = 0; i < seeds.size(); i++) {
+            TemplateSeed seed = seeds.get(i);
+            List<LearningModule> modules = buildModules(seed);
+            int taskCount = modules.stream().mapToInt(module -> module.getTasks().size()).sum();
+
+            Update update = new Update()
+                    .set("title", seed.getTitle())
+                    .set("description", seed.getDescription())
+                    .set("category", seed.getCategory())
+                    .set("estimatedHours", seed.getEstimatedHours())
+                    .set("modules", modules)
+                    .set("moduleCount", modules.size())
+                    .set("taskCount", taskCount)
+                    .set("seedHash", hashes.get(i))
+                    .set("updatedAt", now)
+                    .inc("revision", 1)
+                    .inc("version", 1)
+                    .setOnInsert("userId", SYSTEM_USER)
+                    .setOnInsert("isTemplate", true)
+                    .setOnInsert("status", PlanStatus.NOT_STARTED)
+                    .setOnInsert("createdAt", now);
+            bulkOps.upsert(new Query(Criteria.where("templateKey").is(seed.getKey())), update);
+        }
+
+        try {
+            bulkOps.execute();
+        } catch (DuplicateKeyException e) {
+            // Another instance inserted the same templates while this one was seeding
+            log.info("Template seeds were inserted concurrently: {}", e.getMessage());
+        }
+        return seeds.size();
+    }
+
+    private Map<String, String> loadSeedHashes() {
+        Query query = new Query(Criteria.where("templateKey").exists(true));
+        query.fields().include("templateKey", "seedHash");
+        Map<String, String> hashes = new HashMap<>();
+        for (LearningPlan template : mongoTemplate.find(query, LearningPlan.class)) {
+            hashes.put(template.getTemplateKey(), template.getSeedHash());
+        }
+        return hashes;
+    }
+
+    private List<Resource> findSeedResources() {
+        List<Resource> resources = new ArrayList<>();
+        for (String location : seedLocations) {
+            try {
+                resources.addAll(Arrays.asList(resourceResolver.getResources(location.trim())));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not list template seeds at " + location, e);
+            }
+        }
+        // Files are read in a fixed order so the first of two duplicate keys always wins
+        resources.sort(Comparator.comparing(Resource::getDescription));
+        return resources;
+    }
+
+    /**
+     * IDs are derived from the seed key and each element's position, so re-seeding an
+     * unchanged structure keeps the IDs that instances and overlays refer to
+     */
+    private List<LearningModule> buildModules(TemplateSeed seed) {
+        List<LearningModule> modules = new ArrayList<>();
+        List<LearningModuleRequest> moduleSeeds = seed.getModules() != null ? seed.getModules() : Collections.emptyList();
+        for (int m = 0; m < moduleSeeds.size(); m++) {
+            LearningModuleRequest moduleSeed = moduleSeeds.get(m);
+            String modulePath = seed.getKey() + "/m" + m;
+
+            LearningModule module = new LearningModule();
+            module.setId(stableId(modulePath));
+            module.setTitle(moduleSeed.getTitle());
+            module.setDescription(moduleSeed.getDescription());
+            module.setEstimatedHours(moduleSeed.getEstimatedHours());
+
+            List<LearningTask> tasks = new ArrayList<>();
+            List<LearningTaskRequest> taskSeeds = moduleSeed.getTasks() != null ? moduleSeed.getTasks() : Collections.emptyList();
+            for (int t = 0; t < taskSeeds.size(); t++) {
+                LearningTaskRequest taskSeed = taskSeeds.get(t);
+                String taskPath = modulePath + "/t" + t;
+
+                LearningTask task = new LearningTask();
+                task.setId(stableId(taskPath));
+                task.setTitle(taskSeed.getTitle());
+                task.setDescription(taskSeed.getDescription());
+                task.setEstimatedMinutes(taskSeed.getEstimatedMinutes());
+
+                List<com.example.skillshareplus.model.Resource> resources = new ArrayList<>();
+                List<ResourceRequest> resourceSeeds = taskSeed.getResources() != null ? taskSeed.getResources() : Collections.emptyList();
+                for (int r = 0; r < resourceSeeds.size(); r++) {
+                    ResourceRequest resourceSeed = resourceSeeds.get(r);
+                    resources.add(new com.example.skillshareplus.model.Resource(stableId(taskPath + "/r" + r),
+                            resourceSeed.getTitle(), resourceSeed.getUrl(), resourceSeed.getType(), resourceSeed.getNotes()));
+                }
+                task.setResources(resources);
+                tasks.add(task);
+            }
+            module.setTasks(tasks);
+            modules.add(module);
+        }
+        return modules;
+    }
+
+    private String hashOf(TemplateSeed seed) throws IOException {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(seed));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String stableId(String path) {
+        return UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.dto.response.UserSummaryResponse;
+import com.example.skillshareplus.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory people directory backed by a character trie over first name, last name and
+ * email local-part tokens. Prefix matches are exact walks down the trie; typo tolerance is
+ * a bounded Levenshtein traversal that prunes any branch whose edit distance already
+ * exceeds the budget. Results for hot queries are kept in a small LRU cache that is
+ * dropped whenever the index changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+
+    // Upper bound on candidates gathered per term before ranking
+    private static final int MAX_CANDIDATES_PER_TERM = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    @Value("${app.search.users.max-results:50}")
+    private int maxResults;
+
+    @Value("${app.search.users.cache-size:1000}")
+    private int cacheSize;
+
+    private final Map<String, List<UserSummaryResponse>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<UserSummaryResponse>> eldest) {
+            return size() > cacheSize;
+        }
+    };
+    private CacheMetrics cacheMetrics;
+
+    @PostConstruct
+    void registerMetrics() {
+        cacheMetrics = new CacheMetrics(meterRegistry, "userSearch", cache);
+    }
+
+    /**
+     * Load the whole directory from MongoDB once the application is up.
+     * Only the searchable fields are read, and users are streamed rather than loaded as a list.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("firstName", "lastName", "email");
+
+        lock.writeLock().lock();
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            root.children.clear();
+            entries.clear();
+            users.forEach(this::indexLocked);
+            clearCache();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("User search index built with {} users in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Add or refresh a user in the index, e.g. after registration or a profile change
+     * @param user The user to index
+     */
+    public void index(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(user.getId());
+            indexLocked(user);
+            clearCache();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a user from the index
+     * @param userId ID of the user to remove
+     */
+    public void remove(String userId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(userId);
+            clearCache();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search the directory by name or email prefix, tolerating small typos
+     * @param rawQuery Free-text query; every whitespace-separated term must match some token of a user
+     * @param limit Maximum number of results
+     * @return Best matching users, closest matches first
+     */
+    public List<UserSummaryResponse> search(String rawQuery, int limit) {
+        List<String> terms = tokenize(rawQuery);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int k = Math.max(1, Math.min(limit, maxResults));
+        String cacheKey = String.join(" ", terms) + "|" + k;
+
+        synchronized (cache) {
+            List<UserSummaryResponse> cached = cacheMetrics.record(cache.get(cacheKey));
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            List<UserSummaryResponse> results = searchLocked(terms, k);
+            // Cached while the read lock still keeps index changes, and their cache clears, out
+            synchronized (cache) {
+                cache.put(cacheKey, results);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<UserSummaryResponse> searchLocked(List<String> terms, int k) {
+        // Summed edit distance per user across all terms; users missing any term drop out
+        Map<String, Integer> scores = null;
+        for (String term : terms) {
+            Map<String, Integer> termMatches = matchTerm(term);
+            if (scores == null) {
+                scores = termMatches;
+            } else {
+                Map<String, Integer> merged = new HashMap<>();
+                for (Map.Entry<String, Integer> match : scores.entrySet()) {
+                    Integer distance = termMatches.get(match.getKey());
+                    if (distance != null) {
+                        merged.put(match.getKey(), match.getValue() + distance);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        Map<String, Integer> finalScores = scores;
+        return finalScores.keySet().stream()
+                .map(entries::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.<Entry>comparingInt(entry -> finalScores.get(entry.id))
+                        .thenComparing(entry -> entry.displayName, String.CASE_INSENSITIVE_ORDER))
+                .limit(k)
+                .map(entry -> new UserSummaryResponse(entry.id, entry.displayName, null))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Integer> matchTerm(String term) {
+        Map<String, Integer> matches = new HashMap<>();
+        int maxEdits = term.length() <= 2 ? 0 : term.length() <= 5 ? 1 : 2;
+
+        int[] firstRow = new int[term.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+
+        // One walk per edit budget, closest first, so the candidate cap only ever drops
+        // matches that are further away than every candidate already kept
+        for (int budget = 0; budget <= maxEdits && matches.size() < MAX_CANDIDATES_PER_TERM; budget++) {
+            for (Map.Entry<Character, Node> child : root.children.entrySet()) {
+                if (matches.size() >= MAX_CANDIDATES_PER_TERM) {
+                    break;
+                }
+                traverse(child.getValue(), child.getKey(), term, firstRow, Integer.MAX_VALUE, budget, matches);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Depth-first Levenshtein walk. Each step computes one DP row for the path so far;
+     * the last cell is the distance between the query and this prefix of a token.
+     * Once some prefix on the path is within budget, every token below it matches.
+     */
+    private void traverse(Node node, char letter, String term, int[] previousRow, int bestOnPath,
+                          int maxEdits, Map<String, Integer> matches) {
+        int columns = term.length() + 1;
+        int[] currentRow = new int[columns];
+        currentRow[0] = previousRow[0] + 1;
+
+        int rowMin = currentRow[0];
+        for (int i = 1; i < columns; i++) {
+            int insert = currentRow[i - 1] + 1;
+            int delete = previousRow[i] + 1;
+            int replace = previousRow[i - 1] + (term.charAt(i - 1) == letter ? 0 : 1);
+            currentRow[i] = Math.min(insert, Math.min(delete, replace));
+            rowMin = Math.min(rowMin, currentRow[i]);
+        }
+
+        int best = Math.min(bestOnPath, currentRow[columns - 1]);
+        if (best <= maxEdits) {
+            for (String userId : node.userIds) {
+                matches.merge(userId, best, Math::min);
+            }
+        }
+
+        if (best > maxEdits && rowMin > maxEdits) {
+            return;
+        }
+
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            if (matches.size() >= MAX_CANDIDATES_PER_TERM) {
+                return;
+            }
+            traverse(child.getValue(), child.getKey(), term, currentRow, best, maxEdits, matches);
+        }
+    }
+
+    private void indexLocked(User user) {
+        Entry entry = new Entry(user.getId(), displayName(user), tokensOf(user));
+        entries.put(entry.id, entry);
+
+        for (String token : entry.tokens) {
+            Node node = root;
+            for (char c : token.toCharArray()) {
+                node = node.children.computeIfAbsent(c, key -> new Node());
+            }
+            node.userIds.add(entry.id);
+        }
+    }
+
+    private void removeLocked(String userId) {
+        Entry existing = entries.remove(userId);
+        if (existing == null) {
+            return;
+        }
+
+        for (String token : existing.tokens) {
+            Node node = root;
+            for (char c : token.toCharArray()) {
+                node = node.children.get(c);
+                if (node == null) {
+                    break;
+                }
+            }
+            if (node != null) {
+                node.userIds.remove(userId);
+            }
+        }
+    }
+
+    private void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static Set<String> tokensOf(User user) {
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(tokenize(user.getFirstName()));
+        tokens.addAll(tokenize(user.getLastName()));
+        if (user.getEmail() != null) {
+            int at = user.getEmail().indexOf('@');
+            String localPart = at >= 0 ? user.getEmail().substring(0, at) : user.getEmail();
+            tokens.addAll(tokenize(localPart.replaceAll("[._+\\-]", " ")));
+        }
+        return tokens;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).trim().split("\\s+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static String displayName(User user) {
+        String first = user.getFirstName() == null ? "" : user.getFirstName();
+        String last = user.getLastName() == null ? "" : user.getLastName();
+        return (first + " " + last).trim();
+    }
+
+    private static final class Node {
+        // Sorted so that traversal visits tokens in lexicographic order
+        private final Map<Character, Node> children = new TreeMap<>();
+        private final Set<String> userIds = new HashSet<>(1);
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final String displayName;
+        private final Set<String> tokens;
+
+        private Entry(String id, String displayName, Set<String> tokens) {
+            this.id = id;
+            this.displayName = displayName;
+            this.tokens = tokens;
+        }
+    }
+}
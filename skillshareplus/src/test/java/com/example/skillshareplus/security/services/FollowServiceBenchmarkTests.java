@@ -0,0 +1,81 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.Role;
+import com.example.skillshareplus.model.User;
+import com.example.skillshareplus.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares following N users one request at a time against a single bulk follow.
+ * Needs a running MongoDB; enable with -Dbenchmark=true.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FollowServiceBenchmarkTests {
+
+	private static final int TARGETS = 300;
+
+	@Autowired
+	private FollowService followService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<User> createdUsers = new ArrayList<>();
+
+	@BeforeEach
+	void createUsers() {
+		String run = UUID.randomUUID().toString().substring(0, 8);
+		for (int i = 0; i < TARGETS + 2; i++) {
+			createdUsers.add(userRepository.save(User.builder()
+					.email("bench-" + run + "-" + i + "@example.com")
+					.password("x")
+					.firstName("Bench")
+					.lastName("User" + i)
+					.roles(Set.of(Role.ROLE_USER))
+					.build()));
+		}
+	}
+
+	@AfterEach
+	void deleteUsers() {
+		userRepository.deleteAll(createdUsers);
+		createdUsers.clear();
+	}
+
+	@Test
+	void bulkFollowVersusOneAtATime() {
+		String singleFollower = createdUsers.get(0).getId();
+		String bulkFollower = createdUsers.get(1).getId();
+		List<String> targets = createdUsers.subList(2, createdUsers.size()).stream()
+				.map(User::getId)
+				.toList();
+
+		long singleStart = System.nanoTime();
+		for (String target : targets) {
+			followService.followUser(singleFollower, target);
+		}
+		long singleMs = (System.nanoTime() - singleStart) / 1_000_000;
+
+		long bulkStart = System.nanoTime();
+		followService.bulkFollow(bulkFollower, targets);
+		long bulkMs = (System.nanoTime() - bulkStart) / 1_000_000;
+
+		System.out.printf("follow x%d: one-at-a-time=%d ms, bulk=%d ms%n", TARGETS, singleMs, bulkMs);
+
+		assertEquals(TARGETS, userRepository.findById(bulkFollower).orElseThrow().getFollowingCount());
+		assertEquals(2, userRepository.findById(targets.get(0)).orElseThrow().getFollowerCount());
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.PlanStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the explain plans of the user-scoped plan filters: each must use its compound
+ * index rather than scan the collection.
+ * Needs a running MongoDB; enable with -Dbenchmark=true.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LearningPlanQueryPlanTests {
+
+	private static final String USER_ID = "explain-user";
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Test
+	void statusFilterUsesIndex() {
+		assertIndexScan(new Document("userId", USER_ID).append("status", PlanStatus.IN_PROGRESS.name()), "userId_status");
+	}
+
+	@Test
+	void categoryFilterUsesIndex() {
+		assertIndexScan(new Document("userId", USER_ID).append("category", "Programming"), "userId_category");
+	}
+
+	@Test
+	void hoursRangeFilterUsesIndex() {
+		assertIndexScan(new Document("userId", USER_ID)
+				.append("estimatedHours", new Document("$gte", 10).append("$lte", 40)), "userId_estimatedHours");
+	}
+
+	private void assertIndexScan(Document filter, String indexName) {
+		Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(LearningPlan.class))
+				.find(filter)
+				.explain();
+		String winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+
+		System.out.printf("%s -> %s%n", filter.toJson(), winningPlan);
+		assertFalse(winningPlan.contains("COLLSCAN"), "collection scan for " + filter.toJson());
+		assertTrue(winningPlan.contains(indexName), "expected " + indexName + " for " + filter.toJson());
+	}
+}
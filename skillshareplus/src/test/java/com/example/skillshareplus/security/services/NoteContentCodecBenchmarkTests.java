@@ -0,0 +1,93 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.Note;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures how much storage note compression saves on a corpus of pasted text: this project's
+ * own sources and seed data, cut into notes from a few hundred bytes to 64KB.
+ * Runs without MongoDB; enable with -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NoteContentCodecBenchmarkTests {
+
+	private static final int NOTES = 20_000;
+	private static final int THRESHOLD_BYTES = 4096;
+	private static final int PREVIEW_LENGTH = 200;
+
+	@Test
+	void storageSavings() throws IOException {
+		String corpus = loadCorpus();
+		Random random = new Random(42);
+
+		List<String> contents = new ArrayList<>();
+		for (int i = 0; i < NOTES; i++) {
+			// Sizes spread evenly on a log scale between 256 bytes and 64KB
+			int length = Math.min(corpus.length(), (int) Math.pow(2, 8 + random.nextDouble() * 8));
+			int start = random.nextInt(corpus.length() - length + 1);
+			contents.add(corpus.substring(start, start + length));
+		}
+
+		long rawBytes = 0;
+		long storedBytes = 0;
+		int compressedNotes = 0;
+		long packNanos = 0;
+		long inflateNanos = 0;
+		long inflatedBytes = 0;
+		for (String content : contents) {
+			Note note = Note.builder().content(content).build();
+			long start = System.nanoTime();
+			NoteContentCodec.pack(note, THRESHOLD_BYTES, PREVIEW_LENGTH);
+			packNanos += System.nanoTime() - start;
+
+			int raw = content.getBytes(StandardCharsets.UTF_8).length;
+			rawBytes += raw;
+			if (note.isContentCompressed()) {
+				compressedNotes++;
+				storedBytes += note.getCompressedContent().length
+						+ note.getContentPreview().getBytes(StandardCharsets.UTF_8).length;
+
+				start = System.nanoTime();
+				String inflated = NoteContentCodec.content(note);
+				inflateNanos += System.nanoTime() - start;
+				inflatedBytes += raw;
+				assertEquals(content, inflated);
+			} else {
+				storedBytes += raw;
+			}
+		}
+
+		System.out.printf("notes=%d, compressed=%d (>= %d bytes)%n", NOTES, compressedNotes, THRESHOLD_BYTES);
+		System.out.printf("content: raw=%d MB, stored=%d MB, saved %.1f%%%n",
+				rawBytes >> 20, storedBytes >> 20, 100.0 * (rawBytes - storedBytes) / rawBytes);
+		System.out.printf("pack=%.0f MB/s, inflate=%.0f MB/s%n",
+				rawBytes / 1e6 / (packNanos / 1e9), inflatedBytes / 1e6 / (inflateNanos / 1e9));
+		assertTrue(storedBytes < rawBytes);
+	}
+
+	private static String loadCorpus() throws IOException {
+		StringBuilder corpus = new StringBuilder();
+		try (Stream<Path> files = Files.walk(Path.of("src"))) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				String name = file.getFileName().toString();
+				if (Files.isRegularFile(file) && (name.endsWith(".java") || name.endsWith(".ndjson") || name.endsWith(".properties"))) {
+					corpus.append(Files.readString(file)).append("\n\n");
+				}
+			}
+		}
+		return corpus.toString();
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.Note;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Covers when contents are stored compressed, the round trip with its code-point preview,
+ * and an edit of a compressed note.
+ */
+class NoteContentCodecTests {
+
+	private static final int THRESHOLD = 4096;
+	private static final int PREVIEW = 200;
+
+	@Test
+	void smallContentStaysPlain() {
+		Note note = note("A short note about Spring beans");
+		NoteContentCodec.pack(note, THRESHOLD, PREVIEW);
+
+		assertPlain(note, "A short note about Spring beans");
+	}
+
+	@Test
+	void contentThatBarelyCompressesStaysPlain() {
+		// Above a tiny threshold, but the zlib framing outweighs any saving
+		Note note = note("qzjx kvwy fbmp");
+		NoteContentCodec.pack(note, 1, PREVIEW);
+
+		assertPlain(note, "qzjx kvwy fbmp");
+	}
+
+	@Test
+	void nullContentStaysNull() {
+		Note note = note(null);
+		NoteContentCodec.pack(note, THRESHOLD, PREVIEW);
+
+		assertPlain(note, null);
+	}
+
+	@Test
+	void largeContentRoundTrips() {
+		String content = "Dependency injection keeps beans loosely coupled. ".repeat(200);
+		Note note = note(content);
+		NoteContentCodec.pack(note, THRESHOLD, PREVIEW);
+
+		assertTrue(note.isContentCompressed());
+		assertNull(note.getContent());
+		assertNotNull(note.getCompressedContent());
+		assertTrue(note.getCompressedContent().length < content.length() / 8);
+		assertEquals(content.length(), note.getContentLength());
+		assertEquals(content.substring(0, PREVIEW), note.getContentPreview());
+		assertEquals(content, NoteContentCodec.content(note));
+	}
+
+	@Test
+	void previewIsCutAtACodePointBoundary() {
+		// Every other code point is a surrogate pair, so a cut by chars would split one
+		String content = "a😀".repeat(3000);
+		Note note = note(content);
+		NoteContentCodec.pack(note, THRESHOLD, 5);
+
+		assertTrue(note.isContentCompressed());
+		assertEquals("a😀a😀a", note.getContentPreview());
+		assertEquals(6000, note.getContentLength());
+		assertEquals(content, NoteContentCodec.content(note));
+
+		Note even = note(content);
+		NoteContentCodec.pack(even, THRESHOLD, 4);
+		String preview = even.getContentPreview();
+		assertFalse(Character.isHighSurrogate(preview.charAt(preview.length() - 1)));
+		assertEquals("a😀a😀", preview);
+	}
+
+	@Test
+	void editedPlainContentWinsOverTheCompressedCopy() {
+		Note note = note("Kafka consumers read partitions in order. ".repeat(200));
+		NoteContentCodec.pack(note, THRESHOLD, PREVIEW);
+		assertTrue(note.isContentCompressed());
+
+		// An edit sets plain content on the loaded note, with the old compressed fields still there
+		note.setContent("Rewritten");
+		assertEquals("Rewritten", NoteContentCodec.content(note));
+
+		NoteContentCodec.pack(note, THRESHOLD, PREVIEW);
+		assertPlain(note, "Rewritten");
+
+		String larger = "Rewritten and grown well past the threshold. ".repeat(200);
+		note.setContent(larger);
+		NoteContentCodec.pack(note, THRESHOLD, PREVIEW);
+		assertTrue(note.isContentCompressed());
+		assertEquals(larger, NoteContentCodec.content(note));
+	}
+
+	private static Note note(String content) {
+		Note note = new Note();
+		note.setContent(content);
+		return note;
+	}
+
+	private static void assertPlain(Note note, String content) {
+		assertFalse(note.isContentCompressed());
+		assertEquals(content, note.getContent());
+		assertNull(note.getCompressedContent());
+		assertNull(note.getContentPreview());
+		assertNull(note.getContentLength());
+		assertEquals(content, NoteContentCodec.content(note));
+	}
+}
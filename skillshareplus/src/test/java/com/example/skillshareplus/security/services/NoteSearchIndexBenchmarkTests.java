@@ -0,0 +1,178 @@
+package com.example.skillshareplus.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Builds the note search index over 1M synthetic notes and measures indexing, query latency,
+ * incremental updates and the size and reload time of a base segment.
+ * Runs in memory without MongoDB; enable with -Dbenchmark=true (needs a few GB of heap).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NoteSearchIndexBenchmarkTests {
+
+	private static final int NOTES = 1_000_000;
+	private static final int USERS = 10_000;
+	private static final int VOCABULARY = 50_000;
+	private static final int QUERIES = 2_000;
+	private static final int UPDATES = 50_000;
+	// Every 50th note belongs to one heavy user, to measure the worst case
+	private static final String HEAVY_USER = "user-heavy";
+
+	private final Random random = new Random(42);
+	private final String[] words = new String[VOCABULARY];
+
+	@Test
+	void searchAtOneMillionNotes() throws Exception {
+		for (int i = 0; i < VOCABULARY; i++) {
+			words[i] = word(i);
+		}
+
+		NoteSearchIndex index = new NoteSearchIndex();
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+		long buildStart = System.nanoTime();
+		for (int i = 0; i < NOTES; i++) {
+			index.put(noteId(i), userOf(i), sentence(3 + random.nextInt(6)), sentence(30 + random.nextInt(120)));
+		}
+		long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+		System.gc();
+		long heapMb = (runtime.totalMemory() - runtime.freeMemory() - heapBefore) / (1024 * 1024);
+		System.out.printf("index %d notes: %d ms (%.0f notes/s), heap ~%d MB%n",
+				NOTES, buildMs, NOTES * 1000.0 / Math.max(buildMs, 1), heapMb);
+
+		// A phrase taken from a known note must find it
+		String knownContent = "the quick brown fox jumps over " + sentence(20);
+		index.put("known", HEAVY_USER, "Known note", knownContent);
+		List<NoteSearchIndex.Hit> phraseHits = index.search(HEAVY_USER,
+				NoteTextAnalyzer.parseQuery("\"quick brown fox jumping\""), 10);
+		assertTrue(phraseHits.stream().anyMatch(hit -> hit.noteId.equals("known")));
+
+		measureQueries(index, "user", false);
+		measureQueries(index, "heavy user", true);
+
+		long updateStart = System.nanoTime();
+		for (int i = 0; i < UPDATES; i++) {
+			int note = random.nextInt(NOTES);
+			if (i % 10 == 0) {
+				index.remove(noteId(note));
+			} else {
+				index.put(noteId(note), userOf(note), sentence(5), sentence(60));
+			}
+		}
+		long updateMs = (System.nanoTime() - updateStart) / 1_000_000;
+		System.out.printf("incremental updates x%d: %d ms (%.0f/s)%n",
+				UPDATES, updateMs, UPDATES * 1000.0 / Math.max(updateMs, 1));
+
+		// Written plain while the index is locked and compressed afterwards, as NoteSearchService does
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		long writeStart = System.nanoTime();
+		index.writeSnapshot(plain);
+		long writeMs = (System.nanoTime() - writeStart) / 1_000_000;
+
+		ByteArrayOutputStream segment = new ByteArrayOutputStream();
+		long compressStart = System.nanoTime();
+		try (GZIPOutputStream out = new GZIPOutputStream(segment, 1 << 16)) {
+			plain.writeTo(out);
+		}
+		long compressMs = (System.nanoTime() - compressStart) / 1_000_000;
+		// Let the plain copy be collected before the reload allocates a second index
+		plain = null;
+
+		NoteSearchIndex reloaded = new NoteSearchIndex();
+		long readStart = System.nanoTime();
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(segment.toByteArray()), 1 << 16)) {
+			reloaded.readSnapshot(in);
+		}
+		long readMs = (System.nanoTime() - readStart) / 1_000_000;
+		System.out.printf("base segment: %d MB compressed, locked write %d ms, compress %d ms, reload %d ms%n",
+				segment.size() / (1024 * 1024), writeMs, compressMs, readMs);
+
+		assertEquals(index.size(), reloaded.size());
+		for (int i = 0; i < 100; i++) {
+			String user = userOf(random.nextInt(NOTES));
+			List<List<String>> query = NoteTextAnalyzer.parseQuery(commonWord());
+			assertEquals(ids(index.search(user, query, 20)), ids(reloaded.search(user, query, 20)));
+		}
+	}
+
+	private void measureQueries(NoteSearchIndex index, String label, boolean heavy) {
+		long[] termNanos = new long[QUERIES];
+		long[] phraseNanos = new long[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			String user = heavy ? HEAVY_USER : userOf(random.nextInt(NOTES));
+			String terms = commonWord() + " " + commonWord();
+			String phrase = "\"" + commonWord() + " " + commonWord() + "\"";
+
+			long start = System.nanoTime();
+			index.search(user, NoteTextAnalyzer.parseQuery(terms), 20);
+			termNanos[i] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			index.search(user, NoteTextAnalyzer.parseQuery(phrase), 20);
+			phraseNanos[i] = System.nanoTime() - start;
+		}
+		System.out.printf("%s two-term query: %s%n", label, percentiles(termNanos));
+		System.out.printf("%s phrase query: %s%n", label, percentiles(phraseNanos));
+	}
+
+	private static String percentiles(long[] nanos) {
+		Arrays.sort(nanos);
+		return String.format("p50=%.2f ms, p95=%.2f ms, p99=%.2f ms",
+				nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 95 / 100] / 1e6, nanos[nanos.length * 99 / 100] / 1e6);
+	}
+
+	private static List<String> ids(List<NoteSearchIndex.Hit> hits) {
+		List<String> ids = new ArrayList<>();
+		hits.forEach(hit -> ids.add(hit.noteId));
+		return ids;
+	}
+
+	private static String noteId(int i) {
+		return "note-" + i;
+	}
+
+	private static String userOf(int note) {
+		return note % 50 == 0 ? HEAVY_USER : "user-" + (note * 7919 % USERS);
+	}
+
+	private String sentence(int length) {
+		StringBuilder sentence = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sentence.append(words[zipf()]).append(' ');
+		}
+		return sentence.toString();
+	}
+
+	// Skewed like natural text: a few words are very common, most are rare
+	private int zipf() {
+		return (int) Math.min(VOCABULARY - 1, Math.floor(Math.pow(VOCABULARY, random.nextDouble())) - 1);
+	}
+
+	private String commonWord() {
+		return words[random.nextInt(200)];
+	}
+
+	private static String word(int i) {
+		StringBuilder word = new StringBuilder();
+		int n = i + 1;
+		while (n > 0) {
+			word.append((char) ('a' + n % 26));
+			n /= 26;
+		}
+		return word.append("x").toString();
+	}
+}
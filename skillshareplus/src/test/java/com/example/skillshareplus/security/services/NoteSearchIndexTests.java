@@ -0,0 +1,134 @@
+package com.example.skillshareplus.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises the in-memory index through puts, replacements and enough removals to compact it,
+ * then checks phrase matching and that a snapshot restores the same results.
+ */
+class NoteSearchIndexTests {
+
+	@Test
+	void findsOnlyTheUsersOwnNotes() {
+		NoteSearchIndex index = new NoteSearchIndex();
+		index.put("n1", "alice", "Spring notes", "Beans and contexts");
+		index.put("n2", "bob", "Spring notes", "Beans and contexts");
+
+		assertEquals(List.of("n1"), ids(index, "alice", "spring"));
+		assertEquals(List.of("n2"), ids(index, "bob", "beans"));
+		assertTrue(ids(index, "carol", "spring").isEmpty());
+	}
+
+	@Test
+	void requiresEveryClauseAndRanksTitleMatchesFirst() {
+		NoteSearchIndex index = new NoteSearchIndex();
+		index.put("title", "alice", "Docker volumes", "How containers keep data");
+		index.put("content", "alice", "Storage", "Docker volumes keep data between container runs");
+		index.put("other", "alice", "Docker networks", "Bridges and overlays");
+
+		assertEquals(List.of("title", "content"), ids(index, "alice", "docker volume"));
+		assertEquals(List.of("other"), ids(index, "alice", "docker bridge"));
+	}
+
+	@Test
+	void matchesPhrasesOnlyAsConsecutiveTerms() {
+		NoteSearchIndex index = new NoteSearchIndex();
+		index.put("phrase", "alice", "DI", "Constructor dependency injection in Spring");
+		index.put("scattered", "alice", "DI", "Injection of every dependency by field");
+
+		assertEquals(Set.of("phrase", "scattered"), Set.copyOf(ids(index, "alice", "dependency injection")));
+		assertEquals(List.of("phrase"), ids(index, "alice", "\"dependency injection\""));
+		assertTrue(ids(index, "alice", "\"injection dependency\"").isEmpty());
+	}
+
+	@Test
+	void phrasesDoNotSpanTitleAndContent() {
+		NoteSearchIndex index = new NoteSearchIndex();
+		index.put("n1", "alice", "Kafka", "Consumers read partitions");
+
+		assertTrue(ids(index, "alice", "\"kafka consumers\"").isEmpty());
+		assertEquals(List.of("n1"), ids(index, "alice", "kafka consumers"));
+	}
+
+	@Test
+	void replacesAndRemovesNotesAcrossCompaction() {
+		NoteSearchIndex index = new NoteSearchIndex();
+		for (int i = 0; i < 300; i++) {
+			index.put("n" + i, "alice", "Note " + i, "shared term" + (i % 2 == 0 ? " even" : " odd") + " marker" + i);
+		}
+		// Enough removals to trigger compaction several times
+		for (int i = 0; i < 300; i += 3) {
+			index.remove("n" + i);
+		}
+		index.put("n1", "alice", "Rewritten", "nothing in common anymore");
+		index.remove("missing");
+
+		assertEquals(200, index.size());
+		List<String> shared = ids(index, "alice", "shared");
+		assertEquals(199, shared.size());
+		assertTrue(shared.stream().noneMatch(id -> Integer.parseInt(id.substring(1)) % 3 == 0));
+		assertTrue(!shared.contains("n1"));
+		assertTrue(ids(index, "alice", "marker0").isEmpty());
+		assertEquals(List.of("n299"), ids(index, "alice", "marker299"));
+		assertEquals(List.of("n1"), ids(index, "alice", "rewritten"));
+
+		// Every surviving note is still found under its own marker with the right ordinal
+		for (int i = 0; i < 300; i++) {
+			List<String> hits = ids(index, "alice", "marker" + i);
+			if (i % 3 == 0 || i == 1) {
+				assertTrue(hits.isEmpty(), "marker" + i);
+			} else {
+				assertEquals(List.of("n" + i), hits);
+			}
+		}
+	}
+
+	@Test
+	void snapshotRoundTripKeepsResults() throws IOException {
+		NoteSearchIndex index = new NoteSearchIndex();
+		for (int i = 0; i < 150; i++) {
+			index.put("n" + i, i % 2 == 0 ? "alice" : "bob", "Title " + i, "dependency injection sample" + i + " in spring");
+		}
+		for (int i = 0; i < 150; i += 5) {
+			index.remove("n" + i);
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.writeSnapshot(out);
+		NoteSearchIndex restored = new NoteSearchIndex();
+		restored.put("stale", "alice", "Dropped", "replaced by the snapshot");
+		restored.readSnapshot(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(index.size(), restored.size());
+		for (String user : List.of("alice", "bob")) {
+			for (String query : List.of("spring", "\"dependency injection\"", "sample7", "title")) {
+				assertEquals(index.search(user, NoteTextAnalyzer.parseQuery(query), 50).stream()
+								.map(hit -> hit.noteId + "/" + hit.score).collect(Collectors.toList()),
+						restored.search(user, NoteTextAnalyzer.parseQuery(query), 50).stream()
+								.map(hit -> hit.noteId + "/" + hit.score).collect(Collectors.toList()));
+			}
+		}
+		assertTrue(ids(restored, "alice", "dropped").isEmpty());
+
+		// The restored index keeps accepting changes
+		restored.put("n2", "alice", "Moved", "elsewhere");
+		assertEquals(List.of("n2"), ids(restored, "alice", "elsewhere"));
+		assertTrue(!ids(restored, "alice", "sample2").contains("n2"));
+	}
+
+	private static List<String> ids(NoteSearchIndex index, String userId, String query) {
+		return index.search(userId, NoteTextAnalyzer.parseQuery(query), 1000).stream()
+				.map(hit -> hit.noteId)
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.skillshareplus.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins down the stemmer on common suffixes and near misses, and how queries split into clauses.
+ */
+class NoteTextAnalyzerTests {
+
+	@Test
+	void stemsCommonSuffixes() {
+		assertEquals("run", NoteTextAnalyzer.stem("running"));
+		assertEquals("run", NoteTextAnalyzer.stem("runs"));
+		assertEquals("note", NoteTextAnalyzer.stem("notes"));
+		assertEquals("study", NoteTextAnalyzer.stem("studies"));
+		assertEquals("class", NoteTextAnalyzer.stem("classes"));
+		assertEquals("jump", NoteTextAnalyzer.stem("jumped"));
+		assertEquals("quick", NoteTextAnalyzer.stem("quickly"));
+	}
+
+	@Test
+	void leavesWordsThatOnlyLookSuffixed() {
+		assertEquals("fall", NoteTextAnalyzer.stem("falling"));
+		assertEquals("focus", NoteTextAnalyzer.stem("focus"));
+		assertEquals("agreed", NoteTextAnalyzer.stem("agreed"));
+		assertEquals("sing", NoteTextAnalyzer.stem("sing"));
+		assertEquals("spring", NoteTextAnalyzer.stem("spring"));
+		assertEquals("bus", NoteTextAnalyzer.stem("bus"));
+		assertEquals("java21", NoteTextAnalyzer.stem("java21"));
+	}
+
+	@Test
+	void splitsOnNonAlphanumericsAndLowercases() {
+		assertEquals(List.of("spring", "boot", "3", "run", "fast"), NoteTextAnalyzer.terms("Spring-Boot 3: RUNS fast!"));
+		assertTrue(NoteTextAnalyzer.terms(null).isEmpty());
+		assertTrue(NoteTextAnalyzer.terms("  ... ").isEmpty());
+	}
+
+	@Test
+	void reportsTheCharacterRangeOfEachTerm() {
+		String text = "Cooking notes";
+		List<String> ranges = new ArrayList<>();
+		NoteTextAnalyzer.analyze(text, (term, start, end) -> ranges.add(term + "=" + text.substring(start, end)));
+		assertEquals(List.of("cook=Cooking", "note=notes"), ranges);
+	}
+
+	@Test
+	void parsesQuotedPhrasesAsOneClause() {
+		assertEquals(List.of(List.of("spring"), List.of("dependency", "injection"), List.of("boot")),
+				NoteTextAnalyzer.parseQuery("spring \"dependency injection\" boot"));
+	}
+
+	@Test
+	void parsesUnbalancedAndEmptyQuotes() {
+		assertEquals(List.of(List.of("note"), List.of("open", "phrase")), NoteTextAnalyzer.parseQuery("notes \"open phrase"));
+		assertEquals(List.of(List.of("a")), NoteTextAnalyzer.parseQuery("\"\" a"));
+		assertTrue(NoteTextAnalyzer.parseQuery(null).isEmpty());
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.skillshareplus.security.services;
+
+import com.example.skillshareplus.model.LearningModule;
+import com.example.skillshareplus.model.LearningPlan;
+import com.example.skillshareplus.model.LearningTask;
+import com.example.skillshareplus.model.Resource;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the pipeline updates move the plan version by exactly one, counting the
+ * increment MongoTemplate adds for the @Version field when an update does not touch it.
+ */
+class PlanStructureUpdatesTests {
+
+	private final PlanStructureUpdates updates = new PlanStructureUpdates("_id", "_id", "_id");
+
+	@Test
+	void taskCompletionBumpsVersionOnce() {
+		assertVersionBumpedOnce(updates.completeTask("module-1", "task-1", 45, new Date()));
+	}
+
+	@Test
+	void overlayCompletionBumpsVersionOnce() {
+		assertVersionBumpedOnce(updates.completeOverlayTask("task-1", 45, new Date()));
+	}
+
+	@Test
+	void movesBumpVersionOnce() {
+		LearningPlan plan = plan();
+		assertVersionBumpedOnce(updates.moveModule(plan, "module-2", 0));
+		assertVersionBumpedOnce(updates.moveTask(plan, "task-1", "module-2", null));
+		assertVersionBumpedOnce(updates.moveResource(plan, "resource-1", "task-2", 0));
+	}
+
+	private static LearningPlan plan() {
+		Resource resource = new Resource();
+		resource.setId("resource-1");
+		LearningTask completed = task("task-1", 30);
+		completed.setCompletedAt(LocalDateTime.now());
+		completed.getResources().add(resource);
+
+		LearningPlan plan = new LearningPlan();
+		plan.getModules().add(module("module-1", completed));
+		plan.getModules().add(module("module-2", task("task-2", 60)));
+		return plan;
+	}
+
+	private static LearningModule module(String id, LearningTask task) {
+		LearningModule module = new LearningModule();
+		module.setId(id);
+		module.getTasks().add(task);
+		return module;
+	}
+
+	private static LearningTask task(String id, int minutes) {
+		LearningTask task = new LearningTask();
+		task.setId(id);
+		task.setEstimatedMinutes(minutes);
+		return task;
+	}
+
+	private static void assertVersionBumpedOnce(AggregationUpdate update) {
+		assertTrue(update.modifies("version"));
+		// What MongoTemplate does before running an update of a versioned entity
+		if (!update.modifies("version")) {
+			update.inc("version");
+		}
+
+		List<Document> versionStages = update.toPipeline(Aggregation.DEFAULT_CONTEXT).stream()
+				.map(stage -> stage.get("$set", Document.class))
+				.filter(set -> set != null && set.containsKey("version"))
+				.toList();
+		assertEquals(1, versionStages.size());
+		assertEquals(new Document("$add", List.of("$version", 1)), versionStages.get(0).get("version"));
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.skillshareplus.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the skip list against a plain sorted list after random score changes, including
+ * members dropping out with a zero score and ties broken by member ID.
+ */
+class RankedScoresTests {
+
+	private static final Comparator<Map.Entry<String, Integer>> ORDER =
+			Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+	@Test
+	void ranksAndRangesMatchSortedScores() {
+		Random random = new Random(42);
+		RankedScores ranked = new RankedScores();
+		Map<String, Integer> expected = new HashMap<>();
+
+		for (int step = 0; step < 5_000; step++) {
+			String member = "user-" + random.nextInt(300);
+			// Few distinct scores, so ties are common; zero removes the member
+			int score = random.nextInt(10) == 0 ? 0 : random.nextInt(50) + 1;
+			ranked.put(member, score);
+			if (score > 0) {
+				expected.put(member, score);
+			} else {
+				expected.remove(member);
+			}
+
+			if (step % 250 == 0) {
+				assertMatches(expected, ranked, random);
+			}
+		}
+		assertMatches(expected, ranked, random);
+	}
+
+	@Test
+	void clearEmptiesTheBoard() {
+		RankedScores ranked = new RankedScores();
+		ranked.put("a", 3);
+		ranked.put("b", 5);
+		ranked.clear();
+
+		assertEquals(0, ranked.size());
+		assertEquals(0, ranked.rankOf("a"));
+		assertTrue(ranked.range(1, 10).isEmpty());
+
+		ranked.put("c", 1);
+		assertEquals(1, ranked.rankOf("c"));
+	}
+
+	private static void assertMatches(Map<String, Integer> expected, RankedScores ranked, Random random) {
+		List<Map.Entry<String, Integer>> sorted = new ArrayList<>(expected.entrySet());
+		sorted.sort(ORDER);
+
+		assertEquals(sorted.size(), ranked.size());
+		for (int i = 0; i < sorted.size(); i++) {
+			String member = sorted.get(i).getKey();
+			assertEquals(i + 1, ranked.rankOf(member), "rank of " + member);
+			assertEquals(sorted.get(i).getValue(), ranked.scoreOf(member));
+		}
+		assertEquals(0, ranked.rankOf("not-ranked"));
+		assertNull(ranked.scoreOf("not-ranked"));
+
+		assertEquals(sorted, ranked.range(1, sorted.size() + 10));
+		for (int check = 0; check < 20 && !sorted.isEmpty(); check++) {
+			int fromRank = random.nextInt(sorted.size()) + 1;
+			int limit = random.nextInt(15) + 1;
+			List<Map.Entry<String, Integer>> window = sorted.subList(fromRank - 1, Math.min(sorted.size(), fromRank - 1 + limit));
+			assertEquals(window, ranked.range(fromRank, limit), "range from " + fromRank);
+		}
+		assertTrue(ranked.range(sorted.size() + 1, 5).isEmpty());
+		assertTrue(ranked.range(0, 5).isEmpty());
+	}
+}